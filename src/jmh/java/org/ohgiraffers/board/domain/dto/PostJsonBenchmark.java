@@ -0,0 +1,63 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* 응답 DTO 의 JSON 직렬화 벤치마크
+ * 컨트롤러가 응답을 만들 때와 같은 방식(Jackson2ObjectMapperBuilder)으로 만든 ObjectMapper 를 사용한다.
+ *
+ * ./gradlew jmh -PjmhIncludes=PostJsonBenchmark */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostJsonBenchmark {
+
+    //페이지 하나에 담을 게시글 수 (기본 페이지 크기)
+    @Param({"10"})
+    private int pageSize;
+
+    //게시글 내용 길이
+    @Param({"100", "2000"})
+    private int contentLength;
+
+    private ObjectMapper objectMapper;
+    private ReadPostResponse post;
+    private Page<ReadPostResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        String content = "가".repeat(contentLength);
+        Instant updatedAt = Instant.now();
+        post = new ReadPostResponse(1L, "벤치마크 제목", content, 1L, updatedAt);
+
+        List<ReadPostResponse> posts = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            posts.add(new ReadPostResponse(i, "벤치마크 제목 " + i, content, 1L, updatedAt));
+        }
+        page = new PageImpl<>(posts, PageRequest.of(0, pageSize), 1_000);
+    }
+
+    @Benchmark
+    public byte[] readPostResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+    //Page 는 content 외에 pageable, totalPages 같은 정보도 같이 직렬화된다.
+    @Benchmark
+    public byte[] readPostResponsePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.ohgiraffers.board.domain.entity;
+
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/* 요청 DTO => 엔티티(Post.builder()) => 응답 DTO 로 옮겨 담는 비용
+ * PostService.createPost / readPostById 에서 DB 를 뺀 나머지 부분이다.
+ *
+ * ./gradlew jmh -PjmhIncludes=PostMappingBenchmark */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PostMappingBenchmark {
+
+    private CreatePostRequest request;
+    private Post post;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = new CreatePostRequest("벤치마크 제목", "벤치마크 내용");
+        post = new Post(1L, "벤치마크 제목", "벤치마크 내용", null, 1L, Instant.now(), 0L);
+    }
+
+    @Benchmark
+    public Post buildPost() {
+        return Post.builder()
+                .title(request.getTitle())
+                .content(request.getContent())
+                .build();
+    }
+
+    @Benchmark
+    public ReadPostResponse toReadPostResponse() {
+        return new ReadPostResponse(post.getPostId(), post.getTitle(), post.getContent(), post.getVersion(), post.getUpdatedAt());
+    }
+
+}
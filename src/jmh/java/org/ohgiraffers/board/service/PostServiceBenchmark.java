@@ -0,0 +1,98 @@
+package org.ohgiraffers.board.service;
+
+import org.ohgiraffers.board.Mission01BoardApplication;
+import org.ohgiraffers.board.config.CacheConfig;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.CreatePostResponse;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/* PostService 벤치마크
+ * MySQL 대신 H2(메모리 DB)를 붙인 실제 스프링 컨텍스트로 서비스 메소드를 호출한다.
+ * => 트랜잭션, 캐시 프록시, JPA 까지 포함한 비용을 잰다. (네트워크/디스크 비용은 빠져 있으니 절대값보다 커밋 간 비교용)
+ *
+ * ./gradlew jmh -PjmhIncludes=PostServiceBenchmark */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostServiceBenchmark {
+
+    //미리 저장해 둘 게시글 수
+    private static final int SEED_POSTS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private Cache postCache;
+    private Long[] postIds;
+    private Pageable firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //커맨드라인 인자로 넘겨야 application.yml(MySQL) 설정보다 우선한다.
+        context = new SpringApplicationBuilder(Mission01BoardApplication.class)
+                .run("--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--board.id.worker-id=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+
+        postService = context.getBean(PostService.class);
+        postCache = context.getBean(CacheManager.class).getCache(CacheConfig.POST_CACHE);
+
+        postIds = new Long[SEED_POSTS];
+        for (int i = 0; i < SEED_POSTS; i++) {
+            CreatePostResponse created = postService.createPost(new CreatePostRequest("제목 " + i, "벤치마크용 내용 " + i));
+            postIds[i] = created.getPostId();
+        }
+        firstPage = PageRequest.of(0, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //측정하는 동안 계속 저장되므로 테이블이 점점 커진다. (반복 횟수가 같으면 커밋 간 비교에는 문제 없음)
+    @Benchmark
+    public CreatePostResponse createPost() {
+        return postService.createPost(new CreatePostRequest("벤치마크 제목", "벤치마크 내용"));
+    }
+
+    //캐시에 이미 있는 게시글 조회 (운영에서 대부분의 조회)
+    @Benchmark
+    public ReadPostResponse readPostById() {
+        return postService.readPostById(randomPostId());
+    }
+
+    //캐시를 비우고 조회 => DB 조회 + 캐시 저장 비용
+    @Benchmark
+    public ReadPostResponse readPostByIdCacheMiss() {
+        Long postId = randomPostId();
+        postCache.evict(postId);
+        return postService.readPostById(postId);
+    }
+
+    @Benchmark
+    public Page<ReadPostResponse> readAllPost() {
+        return postService.readAllPost(firstPage);
+    }
+
+    private Long randomPostId() {
+        return postIds[ThreadLocalRandom.current().nextInt(postIds.length)];
+    }
+
+}
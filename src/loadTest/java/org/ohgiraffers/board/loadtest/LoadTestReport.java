@@ -0,0 +1,133 @@
+package org.ohgiraffers.board.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.ohgiraffers.board.loadtest.LoadTestSettings.Operation;
+import org.ohgiraffers.board.loadtest.LoadTestSettings.Slo;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/* 측정 구간 하나의 결과
+ * 지연 시간은 µs 로 기록되어 있고, 보고서에는 ms 로 나온다.
+ *
+ * summary.txt     : 콘솔에 찍는 표 + SLO 확인 결과
+ * {요청 종류}.hgrm : 백분위 분포 전체 (HdrHistogram 형식, https://hdrhistogram.github.io/HdrHistogram/plotFiles.html 에 올려서 그래프로 비교) */
+record LoadTestReport(
+        LoadTestSettings settings,
+        Map<Operation, OperationResult> results,
+        long scheduled,     //도착하기로 되어 있던 요청 수 (보내지 못한 것 포함)
+        Duration duration,  //요청을 보낸 구간
+        Duration elapsed,   //구간 시작부터 마지막 응답까지
+        boolean timedOut    //구간이 끝나고 기다려도 응답이 오지 않은 요청이 있었다.
+) {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    record OperationResult(Operation operation, Histogram latencies, long errors, long dropped) {
+
+        long completed() {
+            return latencies.getTotalCount();
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+        }
+    }
+
+    long completed() {
+        return results.values().stream().mapToLong(OperationResult::completed).sum();
+    }
+
+    //실패 = 2xx 가 아닌 응답 + 연결 실패 + 보내지 못한 요청(maxInFlight 초과)
+    long failures() {
+        return results.values().stream().mapToLong(result -> result.errors() + result.dropped()).sum();
+    }
+
+    //목표 속도 : 도착하기로 되어 있던 요청 수 / 구간 길이, 처리 속도 : 끝난 요청 수 / 마지막 응답까지 걸린 시간
+    double offeredRate() {
+        return scheduled / seconds(duration);
+    }
+
+    double achievedRate() {
+        return completed() / seconds(elapsed.compareTo(duration) > 0 ? elapsed : duration);
+    }
+
+    //SLO 를 벗어난 항목. 비어 있으면 통과
+    List<String> sloViolations() {
+        List<String> violations = new ArrayList<>();
+        for (OperationResult result : results.values()) {
+            Slo slo = settings.slos().get(result.operation());
+            if (result.completed() == 0 || slo == null) {
+                continue;
+            }
+            check(violations, result.operation().key + " p99", result.percentileMillis(99.0), slo.p99Millis());
+            check(violations, result.operation().key + " p99.9", result.percentileMillis(99.9), slo.p999Millis());
+        }
+
+        double errorRate = scheduled == 0 ? 0 : (double) failures() / scheduled;
+        if (errorRate > settings.maxErrorRate()) {
+            violations.add(String.format(Locale.ROOT, "실패 비율 %.4f > %.4f", errorRate, settings.maxErrorRate()));
+        }
+        double rateRatio = offeredRate() == 0 ? 1 : achievedRate() / offeredRate();
+        if (rateRatio < settings.minRateRatio()) {
+            violations.add(String.format(Locale.ROOT, "처리 속도 %.1f req/s 가 목표 %.1f req/s 의 %.0f%% 미만",
+                    achievedRate(), offeredRate(), settings.minRateRatio() * 100));
+        }
+        if (timedOut) {
+            violations.add("구간이 끝나고 " + OpenModelLoadGenerator.DRAIN_TIMEOUT.toSeconds() + "초 동안 응답을 받지 못한 요청이 남아 있음");
+        }
+        return violations;
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-8s %9s %7s %8s %9s %9s %9s %9s %9s%n",
+                "요청", "완료", "실패", "미전송", "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (OperationResult result : results.values()) {
+            out.printf(Locale.ROOT, "%-8s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.operation().key, result.completed(), result.errors(), result.dropped(),
+                    result.completed() / seconds(duration),
+                    result.percentileMillis(50.0), result.percentileMillis(99.0), result.percentileMillis(99.9),
+                    result.latencies().getMaxValue() / MICROS_PER_MILLI);
+        }
+        out.printf(Locale.ROOT, "목표 %.1f req/s, 처리 %.1f req/s, 실패 %d / %d%n", offeredRate(), achievedRate(), failures(), scheduled);
+
+        List<String> violations = sloViolations();
+        if (violations.isEmpty()) {
+            out.println("SLO 통과");
+        } else {
+            out.println("SLO 위반");
+            violations.forEach(violation -> out.println("  - " + violation));
+        }
+    }
+
+    void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")), true, StandardCharsets.UTF_8)) {
+            print(out);
+        }
+        for (OperationResult result : results.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(result.operation().key + ".hgrm")), true, StandardCharsets.UTF_8)) {
+                result.latencies().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static void check(List<String> violations, String name, double actualMillis, double limitMillis) {
+        if (actualMillis > limitMillis) {
+            violations.add(String.format(Locale.ROOT, "%s %.2fms > %.0fms", name, actualMillis, limitMillis));
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1_000_000_000.0;
+    }
+
+}
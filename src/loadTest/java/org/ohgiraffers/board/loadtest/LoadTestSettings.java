@@ -0,0 +1,103 @@
+package org.ohgiraffers.board.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/* 부하 테스트 설정
+ * 모두 시스템 프로퍼티(loadtest.*)로 바꿀 수 있다. => ./gradlew loadTest -Ploadtest.rate=500 (build.gradle 이 -P 값을 넘겨준다.)
+ * 설정 목록과 기본값은 docs/load-test.md */
+record LoadTestSettings(
+        int seedPosts,          //미리 넣어둘 게시글 수
+        double rate,            //초당 요청 수 (응답 속도와 상관없이 이 속도로 요청을 보낸다.)
+        Duration warmup,        //측정 전에 버리는 구간 (JIT, 캐시 채우기)
+        Duration duration,      //측정 구간
+        Map<Operation, Integer> mix, //요청 종류별 비율
+        Duration burstInterval, //이 간격마다 쓰기 요청을 한꺼번에 보낸다. (0 이면 끔)
+        int burstSize,
+        double zipfExponent,    //조회할 게시글/페이지의 쏠림 정도 (0 이면 고르게, 클수록 인기 글에 몰림)
+        int listPages,          //목록 조회에서 고를 페이지 범위
+        int pageSize,
+        int maxInFlight,        //동시에 처리 중인 요청이 이보다 많으면 보내지 않고 실패로 센다.
+        Map<Operation, Slo> slos,
+        double maxErrorRate,    //실패 비율 한도 (2xx 가 아닌 응답, 연결 실패, maxInFlight 초과)
+        double minRateRatio     //처리 속도 / 목표 속도 하한 (서버가 도착하는 요청을 다 처리하지 못하고 밀리고 있는지)
+) {
+
+    private static final String PREFIX = "loadtest.";
+
+    //요청 종류 (이름은 설정 키와 보고서에 쓰인다.)
+    enum Operation {
+        READ("read"),     //GET /api/v1/posts/{postId}
+        LIST("list"),     //GET /api/v1/posts?page=&size=
+        CREATE("create"), //POST /api/v1/posts
+        UPDATE("update"); //PUT /api/v1/posts/{postId}
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    //지연 시간 목표 (ms)
+    record Slo(double p99Millis, double p999Millis) {
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.READ, intValue("mix.read", 80));
+        mix.put(Operation.LIST, intValue("mix.list", 15));
+        mix.put(Operation.CREATE, intValue("mix.create", 3));
+        mix.put(Operation.UPDATE, intValue("mix.update", 2));
+
+        Map<Operation, Slo> slos = new EnumMap<>(Operation.class);
+        slos.put(Operation.READ, slo(Operation.READ, 100, 300));
+        slos.put(Operation.LIST, slo(Operation.LIST, 200, 400));
+        slos.put(Operation.CREATE, slo(Operation.CREATE, 300, 500));
+        slos.put(Operation.UPDATE, slo(Operation.UPDATE, 300, 500));
+
+        LoadTestSettings settings = new LoadTestSettings(
+                intValue("seed-posts", 10_000),
+                doubleValue("rate", 300),
+                Duration.ofSeconds(intValue("warmup-seconds", 10)),
+                Duration.ofSeconds(intValue("duration-seconds", 30)),
+                mix,
+                Duration.ofSeconds(intValue("burst.interval-seconds", 10)),
+                intValue("burst.size", 100),
+                doubleValue("zipf-exponent", 1.0),
+                intValue("list.pages", 50),
+                intValue("list.page-size", 20),
+                intValue("max-in-flight", 1_000),
+                slos,
+                doubleValue("slo.error-rate", 0.001),
+                doubleValue("slo.min-rate-ratio", 0.95));
+        settings.validate();
+        return settings;
+    }
+
+    private void validate() {
+        if (seedPosts < 1 || rate <= 0 || duration.isZero() || maxInFlight < 1) {
+            throw new IllegalArgumentException("loadtest.seed-posts, rate, duration-seconds, max-in-flight 는 0 보다 커야 합니다.");
+        }
+        if (mix.values().stream().anyMatch(weight -> weight < 0) || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix.* 는 0 이상이고, 합이 0 보다 커야 합니다.");
+        }
+    }
+
+    private static Slo slo(Operation operation, double p99Millis, double p999Millis) {
+        return new Slo(doubleValue("slo." + operation.key + ".p99-ms", p99Millis),
+                doubleValue("slo." + operation.key + ".p999-ms", p999Millis));
+    }
+
+    private static int intValue(String key, int defaultValue) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static double doubleValue(String key, double defaultValue) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+}
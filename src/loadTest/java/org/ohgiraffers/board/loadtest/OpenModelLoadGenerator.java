@@ -0,0 +1,147 @@
+package org.ohgiraffers.board.loadtest;
+
+import org.HdrHistogram.Recorder;
+import org.ohgiraffers.board.loadtest.LoadTestSettings.Operation;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/* 열린 모델(open model) 부하 생성기
+ * 닫힌 모델(스레드 N 개가 응답을 받으면 다음 요청)은 서버가 느려지면 요청도 같이 줄어들어서, 느려진 만큼이 결과에 드러나지 않는다. (coordinated omission)
+ * 여기서는 실제 사용자처럼 응답과 상관없이 정해진 속도로 요청이 도착한다.
+ *
+ * - 도착 간격은 지수 분포 (평균 1/rate 초, 포아송 도착)
+ * - burstInterval 마다 쓰기 요청 burstSize 개가 한꺼번에 도착한다.
+ * - 요청 하나마다 가상 스레드 하나로 보낸다. => 응답이 늦어도 다음 요청은 제때 나간다.
+ * - 지연 시간은 실제로 보낸 시각이 아니라 **도착하기로 되어 있던 시각**부터 잰다. (생성기가 밀려서 늦게 보낸 시간도 포함)
+ * - 처리 중인 요청이 maxInFlight 를 넘으면 보내지 않고 dropped 로 센다. (기다리면 닫힌 모델이 되므로) */
+final class OpenModelLoadGenerator implements AutoCloseable {
+
+    //응답을 받지 못해도 구간이 끝나고 이 시간이 지나면 포기한다.
+    static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final PostWorkload workload;
+    private final LoadTestSettings settings;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+
+    //지연 시간(µs). Recorder 는 여러 스레드가 동시에 기록해도 되고, getIntervalHistogram() 으로 구간별로 잘라서 꺼낸다.
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+    private final AtomicLong lastCompletedAt = new AtomicLong();
+
+    OpenModelLoadGenerator(PostWorkload workload, LoadTestSettings settings) {
+        this.workload = workload;
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+            dropped.put(operation, new LongAdder());
+        }
+    }
+
+    //구간 하나를 실행하고, 그 구간에 도착한 요청이 모두 끝나면 결과를 돌려준다. (워밍업 구간은 결과를 버리면 된다.)
+    LoadTestReport run(Duration duration) throws InterruptedException {
+        reset();
+
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+        long burstIntervalNanos = settings.burstInterval().toNanos();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        lastCompletedAt.set(start);
+
+        long nextArrival = start;
+        long nextBurst = burstIntervalNanos > 0 && settings.burstSize() > 0 ? start + burstIntervalNanos : Long.MAX_VALUE;
+        long scheduled = 0;
+        while (true) {
+            long intended = Math.min(nextArrival, nextBurst);
+            if (intended >= end) {
+                break;
+            }
+            waitUntil(intended);
+
+            if (intended == nextBurst) {
+                for (int i = 0; i < settings.burstSize(); i++) {
+                    send(workload.nextBurstOperation(), intended);
+                }
+                scheduled += settings.burstSize();
+                nextBurst += burstIntervalNanos;
+            } else {
+                send(workload.nextOperation(), intended);
+                scheduled++;
+                nextArrival += exponential(meanIntervalNanos);
+            }
+        }
+
+        boolean drained = inFlight.tryAcquire(settings.maxInFlight(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (drained) {
+            inFlight.release(settings.maxInFlight());
+        }
+
+        Map<Operation, LoadTestReport.OperationResult> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new LoadTestReport.OperationResult(operation,
+                    latencies.get(operation).getIntervalHistogram(), errors.get(operation).sum(), dropped.get(operation).sum()));
+        }
+        return new LoadTestReport(settings, results, scheduled, duration,
+                Duration.ofNanos(lastCompletedAt.get() - start), !drained);
+    }
+
+    private void send(Operation operation, long intendedNanos) {
+        if (!inFlight.tryAcquire()) {
+            dropped.get(operation).increment();
+            return;
+        }
+        executor.execute(() -> {
+            boolean succeeded = false;
+            try {
+                succeeded = workload.execute(operation);
+            } catch (Exception e) {
+                //연결 실패, 시간 초과 => 실패로 센다.
+            } finally {
+                long now = System.nanoTime();
+                latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(now - intendedNanos));
+                if (!succeeded) {
+                    errors.get(operation).increment();
+                }
+                lastCompletedAt.accumulateAndGet(now, Math::max);
+                inFlight.release();
+            }
+        });
+    }
+
+    private void reset() {
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        dropped.values().forEach(LongAdder::reset);
+    }
+
+    private static long exponential(long meanNanos) {
+        return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+    }
+
+    //sleep 은 ms 단위라 너무 거칠다. 밀려 있으면(이미 지난 시각이면) 기다리지 않고 바로 보낸다.
+    private static void waitUntil(long nanos) {
+        long remaining;
+        while ((remaining = nanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.ohgiraffers.board.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ohgiraffers.board.Mission01BoardApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/* 부하 테스트 (./gradlew loadTest, docs/load-test.md)
+ * 벤치마크(src/jmh)가 메소드 하나의 속도를 본다면, 여기서는 실제 서버(톰캣)를 띄우고 HTTP 로
+ * 조회/목록/등록/수정이 섞인 요청을 보내서 전체 경로(PostController → PostService → PostRepository)의 지연 시간을 본다.
+ *
+ * MySQL 대신 H2(메모리 DB)를 붙이므로 절대값은 운영 성능이 아니고, 커밋끼리 비교하는 용도다.
+ * SLO(loadtest.slo.*)를 벗어나면 종료 코드 1 로 끝나서 빌드가 실패한다.
+ * 실행 인자는 앱에 그대로 넘어간다. => ./gradlew loadTest --args='--board.threads.virtual=true' */
+public class PostLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+
+        //커맨드라인 인자로 넘겨야 application.yml(MySQL) 설정보다 우선한다.
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--board.id.worker-id=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn"));
+        appArgs.addAll(List.of(args));
+
+        List<String> violations;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Mission01BoardApplication.class).run(appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            System.out.printf("게시글 %d 개 준비 중...%n", settings.seedPosts());
+            PostWorkload workload = PostWorkload.seed(URI.create("http://localhost:" + port), objectMapper, settings);
+
+            try (OpenModelLoadGenerator generator = new OpenModelLoadGenerator(workload, settings)) {
+                System.out.printf("워밍업 %d초 (%.0f req/s)%n", settings.warmup().toSeconds(), settings.rate());
+                generator.run(settings.warmup());
+
+                System.out.printf("측정 %d초 (%.0f req/s)%n", settings.duration().toSeconds(), settings.rate());
+                LoadTestReport report = generator.run(settings.duration());
+                report.print(System.out);
+                report.writeTo(reportDir);
+                violations = report.sloViolations();
+            }
+        }
+
+        System.out.println("보고서 : " + reportDir.toAbsolutePath());
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+}
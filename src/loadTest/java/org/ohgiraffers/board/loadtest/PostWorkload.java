@@ -0,0 +1,133 @@
+package org.ohgiraffers.board.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ohgiraffers.board.domain.dto.BatchPostResponse;
+import org.ohgiraffers.board.domain.dto.BatchPostResult;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.UpdatePostRequest;
+import org.ohgiraffers.board.loadtest.LoadTestSettings.Operation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/* 게시글 API 에 보내는 요청 (PostController → PostService → PostRepository 전체를 HTTP 로 지난다.)
+ *
+ * - READ   : 미리 넣어둔 게시글 중 Zipf 분포로 고른 게시글 조회 (인기 글에 몰림)
+ * - LIST   : Zipf 분포로 고른 페이지 조회 (앞쪽 페이지에 몰림)
+ * - CREATE : 새 게시글 등록
+ * - UPDATE : Zipf 분포로 고른 게시글 수정 (If-Match 없이 => 인기 글의 캐시가 계속 지워진다.)
+ * 응답이 2xx 가 아니면 실패로 센다. */
+final class PostWorkload {
+
+    //POST /api/v1/posts/batch 한 번에 넣을 수 있는 최대 개수
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final String CONTENT = "부하 테스트용 게시글 내용입니다. ".repeat(20);
+
+    private final HttpClient client;
+    private final URI postsUri;
+    private final ObjectMapper objectMapper;
+    private final LoadTestSettings settings;
+
+    //Zipf 순위 → postId. 섞어두어서 인기 글이 최근 글에만 몰리지 않게 한다.
+    private final Long[] postIds;
+    private final ZipfSampler postSampler;
+    private final ZipfSampler pageSampler;
+    private final int totalWeight;
+    private final int writeWeight;
+
+    private PostWorkload(HttpClient client, URI postsUri, ObjectMapper objectMapper, LoadTestSettings settings, List<Long> postIds) {
+        this.client = client;
+        this.postsUri = postsUri;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.postIds = postIds.toArray(Long[]::new);
+        this.postSampler = new ZipfSampler(postIds.size(), settings.zipfExponent());
+        this.pageSampler = new ZipfSampler(settings.listPages(), settings.zipfExponent());
+        this.totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        this.writeWeight = settings.mix().get(Operation.CREATE) + settings.mix().get(Operation.UPDATE);
+    }
+
+    //게시글을 미리 넣고(일괄 등록 API) 그 postId 로 요청을 만든다.
+    static PostWorkload seed(URI baseUri, ObjectMapper objectMapper, LoadTestSettings settings) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        URI postsUri = baseUri.resolve("/api/v1/posts");
+
+        List<Long> postIds = new ArrayList<>(settings.seedPosts());
+        for (int from = 0; from < settings.seedPosts(); from += SEED_BATCH_SIZE) {
+            List<CreatePostRequest> requests = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, settings.seedPosts()); i++) {
+                requests.add(new CreatePostRequest("부하 테스트 " + i, CONTENT + i));
+            }
+            HttpResponse<String> response = client.send(jsonRequest(URI.create(postsUri + "/batch"), "POST", objectMapper.writeValueAsString(requests)),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("게시글을 미리 넣지 못했습니다. : " + response.statusCode() + " " + response.body());
+            }
+            objectMapper.readValue(response.body(), BatchPostResponse.class).getResults().stream()
+                    .filter(result -> result.getStatus() == BatchPostResult.Status.OK)
+                    .forEach(result -> postIds.add(result.getPostId()));
+        }
+        Collections.shuffle(postIds);
+
+        return new PostWorkload(client, postsUri, objectMapper, settings, postIds);
+    }
+
+    //비율(mix)대로 요청 종류를 고른다.
+    Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : Operation.values()) {
+            pick -= settings.mix().get(operation);
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("mix 합계가 맞지 않습니다.");
+    }
+
+    //몰려오는 쓰기 요청은 등록/수정 비율대로 고른다.
+    Operation nextBurstOperation() {
+        if (writeWeight == 0) {
+            return Operation.CREATE;
+        }
+        return ThreadLocalRandom.current().nextInt(writeWeight) < settings.mix().get(Operation.CREATE) ? Operation.CREATE : Operation.UPDATE;
+    }
+
+    //요청을 보내고 2xx 이면 true
+    boolean execute(Operation operation) throws IOException, InterruptedException {
+        HttpRequest request = switch (operation) {
+            case READ -> HttpRequest.newBuilder(URI.create(postsUri + "/" + hotPostId())).timeout(REQUEST_TIMEOUT).GET().build();
+            case LIST -> HttpRequest.newBuilder(URI.create(postsUri + "?page=" + pageSampler.next() + "&size=" + settings.pageSize()))
+                    .timeout(REQUEST_TIMEOUT).GET().build();
+            case CREATE -> jsonRequest(postsUri, "POST", objectMapper.writeValueAsString(new CreatePostRequest("부하 테스트 등록", CONTENT)));
+            case UPDATE -> jsonRequest(URI.create(postsUri + "/" + hotPostId()), "PUT",
+                    objectMapper.writeValueAsString(new UpdatePostRequest("부하 테스트 수정", CONTENT)));
+        };
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private Long hotPostId() {
+        return postIds[postSampler.next()];
+    }
+
+    private static HttpRequest jsonRequest(URI uri, String method, String body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+}
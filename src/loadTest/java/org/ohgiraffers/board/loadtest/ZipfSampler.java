@@ -0,0 +1,38 @@
+package org.ohgiraffers.board.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/* Zipf 분포로 0 ~ n-1 사이의 순위(rank)를 뽑는다.
+ * 순위 k(0부터) 가 뽑힐 확률은 1 / (k+1)^s 에 비례한다. => s=1 이면 1등이 2등의 2배, 10등의 10배 자주 뽑힌다.
+ * 실제 게시판처럼 소수의 인기 글에 조회가 몰리는 상황을 만든다. (캐시 hit 률, 같은 행에 대한 경합)
+ *
+ * 누적 확률(cdf)을 미리 계산해두고 이진 탐색으로 찾는다. (n 이 수십만 정도까지는 메모리/시간 모두 문제 없음) */
+final class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("n 은 1 이상, exponent 는 0 이상이어야 합니다.");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int index = Arrays.binarySearch(cdf, u);
+        //못 찾으면 (-(삽입 위치) - 1) => u 보다 큰 첫 번째 누적 확률의 위치
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+
+}
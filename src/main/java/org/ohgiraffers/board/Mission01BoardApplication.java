@@ -2,12 +2,18 @@ package org.ohgiraffers.board;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
-@SpringBootApplication
+//R2DBC 연결은 reactive 프로필에서만 직접 만든다. (ReactiveConfig)
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class Mission01BoardApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(Mission01BoardApplication.class, args);
+        SpringApplication application = new SpringApplication(Mission01BoardApplication.class);
+        //시작 단계별 시간 기록 (StartupReport, /actuator/startup)
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
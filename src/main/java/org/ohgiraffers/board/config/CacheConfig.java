@@ -0,0 +1,46 @@
+package org.ohgiraffers.board.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/* @EnableCaching
+ * @Cacheable, @CacheEvict 가 붙은 메소드의 결과를 캐시에 저장/삭제할 수 있게 해준다.
+ *
+ * 캐시 구현체는 CacheManager 빈 하나로 정해지기 때문에,
+ * 나중에 Redis 같은 분산 캐시를 쓰려면 이 빈만 RedisCacheManager 로 바꾸면 된다. (서비스 코드는 그대로)
+ * 테스트에서는 ConcurrentMapCacheManager 를 대신 사용한다. */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    //게시글 단건 조회 결과(ReadPostResponse) 캐시, key = postId
+    public static final String POST_CACHE = "post";
+
+    /* Caffeine
+     * W-TinyLFU 방식으로 자주 조회되는 게시글을 남기고, 최대 개수를 넘으면 덜 쓰이는 것부터 지운다.
+     * recordStats() 를 켜두면 actuator 의 cache.gets(hit/miss), cache.evictions 지표로 확인할 수 있다. */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${board.cache.post.maximum-size:10000}") long maximumSize,
+            @Value("${board.cache.post.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(POST_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+
+        //트랜잭션이 commit 된 뒤에 캐시를 지우도록 감싸준다. (commit 전에 지우면 이전 값이 다시 캐시될 수 있음)
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.ohgiraffers.board.config;
+
+import org.ohgiraffers.board.controller.PostETags;
+import org.ohgiraffers.board.controller.StrongETagGzipFilter;
+import org.ohgiraffers.board.controller.StrongETagGzipWebFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.ConfigurableWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.function.BiPredicate;
+
+/* 응답 압축 (gzip)
+ * 요청의 Accept-Encoding 에 gzip 이 있으면 톰캣이 응답 본문을 gzip 으로 압축해서 보낸다. (Content-Encoding: gzip)
+ * JSON 게시글/목록, 내보내기(NDJSON, CSV)처럼 글자가 많은 응답은 보통 1/3 이하로 줄어든다.
+ *
+ * - min-response-size 보다 작은 응답은 압축하지 않는다. (압축 헤더와 CPU 비용이 더 큼)
+ * - 강한 ETag 가 붙은 응답(게시글 단건, 목록)은 압축하면서 ETag 를 압축 전용 값("postId.version-gzip")으로 바꾼다. (PostETags)
+ *   압축한 본문은 다른 표현(representation)이라 같은 강한 ETag 를 붙일 수 없고, If-Match 는 강한 ETag 로만 비교할 수 있다.
+ *   톰캣은 강한 ETag 가 있으면 압축하지 않으므로(끌 수 없음) StrongETagGzipFilter 가 대신 압축한다.
+ *   Netty(reactive)는 StrongETagGzipWebFilter 가 ETag 를 바꾸고, nettyStrongETagCustomizer 가 바뀐 응답만 압축한다.
+ *   컨트롤러는 ETag 가 붙은 응답에 Vary: Accept-Encoding 을 붙인다. (캐시가 압축/비압축 응답을 따로 저장하도록)
+ * - SSE(text/event-stream)는 압축하지 않는다. (압축 버퍼에 모였다가 나가서 이벤트가 늦게 전달됨)
+ * - brotli 는 톰캣이 지원하지 않는다. (필요하면 앞단의 프록시(nginx 등)에서 압축)
+ * - yml 에 server.compression.enabled=true 가 있으면 그 설정을 그대로 사용한다.
+ * - reactive 프로필(Netty)에도 같은 설정(압축할 종류, 최소 크기)이 적용된다.
+ * - 웹 서버 없이 실행할 때(web-application-type=none, JMH 벤치마크 등)는 등록하지 않는다.
+ *   그런 컨텍스트에는 ServerProperties 빈이 없으므로, 혹시 등록되더라도 없으면 server.compression 설정이 없는 것으로 본다. */
+@Configuration
+@ConditionalOnWebApplication
+public class CompressionConfig {
+
+    //압축할 응답 종류
+    private static final String[] MIME_TYPES = {
+            "application/json", "application/problem+json", "application/x-ndjson", "text/csv",
+            "text/html", "text/plain", "text/css", "application/javascript"
+    };
+
+    //게시글 API 의 강한 ETag 응답 압축 (톰캣) => 톰캣 압축과 같은 종류, 같은 최소 크기
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "board.compression", name = "enabled", matchIfMissing = true)
+    public FilterRegistrationBean<StrongETagGzipFilter> strongETagGzipFilter(
+            @Value("${board.compression.min-response-size:1KB}") DataSize minResponseSize
+    ) {
+        StrongETagGzipFilter filter = new StrongETagGzipFilter(MimeTypeUtils.parseMimeTypes(String.join(",", MIME_TYPES)),
+                (int) minResponseSize.toBytes());
+        FilterRegistrationBean<StrongETagGzipFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/posts", "/api/v1/posts/*");
+        return registration;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableWebServerFactory> responseCompressionCustomizer(
+            ObjectProvider<ServerProperties> serverProperties,
+            @Value("${board.compression.enabled:true}") boolean enabled,
+            @Value("${board.compression.min-response-size:1KB}") DataSize minResponseSize
+    ) {
+        return factory -> {
+            ServerProperties server = serverProperties.getIfAvailable();
+            if (!enabled || (server != null && Boolean.TRUE.equals(server.getCompression().getEnabled()))) {
+                return;
+            }
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMimeTypes(MIME_TYPES);
+            compression.setMinResponseSize(minResponseSize);
+            factory.setCompression(compression);
+        };
+    }
+
+    //게시글 API 의 강한 ETag 응답 압축 (Netty) => ETag 만 바꾸고, 압축은 Netty 가 한다. (nettyStrongETagCustomizer)
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(prefix = "board.compression", name = "enabled", matchIfMissing = true)
+    public StrongETagGzipWebFilter strongETagGzipWebFilter(
+            @Value("${board.compression.min-response-size:1KB}") DataSize minResponseSize
+    ) {
+        return new StrongETagGzipWebFilter(MimeTypeUtils.parseMimeTypes(String.join(",", MIME_TYPES)), (int) minResponseSize.toBytes());
+    }
+
+    /* Netty 는 ETag 를 보지 않고 압축한다. => 압축 조건(종류, 최소 크기)에 강한 ETag 조건을 더한다.
+     * - "-gzip" ETag (StrongETagGzipWebFilter 가 바꾼 응답) : 항상 압축한다. (ETag 와 본문이 맞아야 하므로)
+     * - 나머지 강한 ETag : 압축하지 않는다.
+     * Netty 는 헤더를 보낸 뒤에 이 조건을 확인하므로 여기서는 ETag 를 바꿀 수 없다.
+     * NettyServerCustomizer 는 스프링 부트가 압축 설정(responseCompressionCustomizer)을 적용한 뒤에 실행된다. */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public NettyServerCustomizer nettyStrongETagCustomizer() {
+        return httpServer -> {
+            BiPredicate<HttpServerRequest, HttpServerResponse> compressible = httpServer.configuration().compressPredicate();
+            if (compressible == null) {
+                return httpServer;
+            }
+            return httpServer.compress((request, response) -> {
+                String eTag = response.responseHeaders().get(HttpHeaders.ETAG);
+                if (PostETags.isStrong(eTag)) {
+                    return PostETags.isGzipVariant(eTag);
+                }
+                return compressible.test(request, response);
+            });
+        };
+    }
+
+}
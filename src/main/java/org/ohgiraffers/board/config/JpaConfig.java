@@ -0,0 +1,48 @@
+package org.ohgiraffers.board.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.ohgiraffers.board.domain.id.PreassignedIdInterceptor;
+import org.ohgiraffers.board.domain.id.SnowflakeIdentifierGenerator;
+import org.ohgiraffers.board.metrics.QueryCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/* 하이버네이트 설정
+ * application.yml 에 따로 적지 않아도 적용되어야 하는 하이버네이트 설정을 코드로 넣어준다. */
+@Configuration
+public class JpaConfig {
+
+    /* board.id.worker-id : Snowflake ID 생성기의 워커 번호 (0 ~ 1023)
+     * 서버를 여러 대 띄울 때는 인스턴스마다 반드시 다른 값을 줘야 postId 가 겹치지 않는다.
+     * 기본값이 없다. => 설정하지 않으면 시작할 때 실패한다. (모든 인스턴스가 0 으로 떠서 같은 postId 를 만드는 것을 막음, docs/fast-start.md)
+     * interceptor : postId 를 미리 정해둔 새 게시글도 insert 할 수 있게 한다. (PreassignedIdInterceptor)
+     *
+     * JDBC batch : 같은 insert/update 문을 batch_size 개씩 묶어서 한 번에 보낸다.
+     * order_inserts/order_updates 는 같은 테이블 문장끼리 모아줘서 batch 가 중간에 끊기지 않게 한다.
+     * (yml 의 spring.jpa.properties 에 값이 있으면 그 값을 우선 사용)
+     *
+     * statement_inspector : 요청마다 실행된 SQL 수를 센다. (MetricsConfig)
+     * board.metrics.hibernate-statistics : 하이버네이트 통계(엔티티 로드, flush, 2차 캐시 hit/miss)를 모아서 hibernate.* 지표로 보낸다.
+     * 통계를 켜면 세션마다 "Session Metrics" 로그가 찍히므로 그 로그는 꺼준다. */
+    @Bean
+    public HibernatePropertiesCustomizer boardHibernatePropertiesCustomizer(
+            @Value("${board.id.worker-id}") long workerId,
+            @Value("${board.batch.jdbc-batch-size:50}") int jdbcBatchSize,
+            @Value("${board.metrics.hibernate-statistics:true}") boolean hibernateStatistics,
+            QueryCounter queryCounter
+    ) {
+        return properties -> {
+            properties.put(SnowflakeIdentifierGenerator.WORKER_ID_SETTING, workerId);
+            properties.putIfAbsent(AvailableSettings.INTERCEPTOR, new PreassignedIdInterceptor());
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, jdbcBatchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, hibernateStatistics);
+            properties.putIfAbsent(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.ohgiraffers.board.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.ohgiraffers.board.metrics.HibernateStatisticsMetrics;
+import org.ohgiraffers.board.metrics.QueryCountFilter;
+import org.ohgiraffers.board.metrics.QueryCounter;
+import org.ohgiraffers.board.metrics.StartupReport;
+import org.ohgiraffers.board.service.PostService;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/* 지표(Micrometer) 설정
+ * /actuator/prometheus 로 수집하고, /actuator/metrics/{이름} 으로 하나씩 확인할 수 있다.
+ *
+ * board.post.service             : PostService 메소드별 실행 시간 (operation 태그 = create, read, update, ...)
+ * board.db.queries               : 요청 하나에서 실행된 SQL 수
+ * http.server.requests           : API 별 응답 시간 (스프링 부트 기본)
+ * hikaricp.connections.acquire   : 커넥션 풀에서 커넥션을 얻기까지 기다린 시간 (스프링 부트 기본)
+ * hibernate.*                    : 엔티티 로드, flush, 2차 캐시 hit/miss 등 (JpaConfig 에서 통계 수집을 켬, HibernateStatisticsMetrics)
+ * board.startup.time             : JVM 시작부터 준비 완료 / 첫 요청 처리까지 걸린 시간 (StartupReport) */
+@Configuration
+public class MetricsConfig {
+
+    //히스토그램과 p50/p95/p99 를 같이 기록할 지표
+    private static final List<String> LATENCY_METRICS = List.of(
+            PostService.TIMER_NAME, "http.server.requests", "hikaricp.connections.acquire");
+
+    /* @Timed 가 붙은 메소드의 실행 시간을 기록해준다.
+     * (스프링 부트 3.1 은 TimedAspect 를 자동으로 등록해주지 않음) */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new QueryCountFilter(queryCounter, meterRegistry));
+    }
+
+    //MeterBinder 빈은 스프링 부트가 MeterRegistry 에 자동으로 연결해준다.
+    @Bean
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    @Bean
+    public StartupReport startupReport(MeterRegistry meterRegistry, ConfigurableApplicationContext context) {
+        return new StartupReport(meterRegistry, context);
+    }
+
+    /* 평균은 p99 를 가려버리기 때문에 분포를 같이 남긴다.
+     * percentilesHistogram : 프로메테우스에서 여러 서버의 값을 합쳐서 백분위를 계산할 수 있는 버킷
+     * percentiles          : 서버 한 대 기준 p50/p95/p99 (HdrHistogram 으로 계산) */
+    @Bean
+    public MeterFilter boardLatencyHistogram() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (LATENCY_METRICS.contains(id.getName())) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .percentiles(0.5, 0.95, 0.99)
+                            .build()
+                            .merge(config);
+                }
+                if (id.getName().equals(QueryCountFilter.METRIC_NAME)) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.95, 0.99)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+}
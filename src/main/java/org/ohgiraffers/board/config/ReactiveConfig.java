@@ -0,0 +1,36 @@
+package org.ohgiraffers.board.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.ohgiraffers.board.repository.ReactivePostRepository;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/* 리액티브 실행 모드 (--spring.profiles.active=reactive, application-reactive.yml)
+ * 톰캣(요청마다 스레드 하나) 대신 Netty 이벤트 루프(CPU 코어 수 만큼의 스레드)에서 WebFlux 로 요청을 처리하고,
+ * 게시글 API(ReactivePostController)는 JDBC 대신 R2DBC 로 DB 를 조회한다.
+ *
+ * R2DBC 연결(spring.r2dbc.url)은 빈으로 등록하지 않고 ReactivePostRepository 안에서만 쓴다.
+ * => ConnectionFactory 빈이 있으면 스프링 부트가 DataSource(JDBC) 를 만들지 않는데,
+ *    조회수 저장(PostViewCounter), 게시글 수/검색 색인 초기화처럼 요청 밖에서 도는 작업은 그대로 JPA/JDBC 를 쓴다.
+ *    (같은 이유로 Mission01BoardApplication 에서 R2dbcAutoConfiguration 을 뺐다.) */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig {
+
+    //종료할 때 풀을 닫는다. (ReactivePostRepository.close)
+    @Bean(destroyMethod = "close")
+    public ReactivePostRepository reactivePostRepository(R2dbcProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+
+        return new ReactivePostRepository(connectionFactory);
+    }
+
+}
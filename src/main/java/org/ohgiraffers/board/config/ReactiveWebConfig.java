@@ -0,0 +1,22 @@
+package org.ohgiraffers.board.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/* WebFlux 컨트롤러에서 Pageable(@PageableDefault), Sort 파라미터 받기
+ * MVC 는 스프링 부트가 자동으로 등록해주지만(SpringDataWebAutoConfiguration) WebFlux 는 직접 등록해야 한다.
+ * (ReactiveConfig 와 나눈 이유 : @WebFluxTest 는 WebFluxConfigurer 만 읽으므로 저장소 빈 없이 컨트롤러를 테스트할 수 있다.) */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactiveSortHandlerMethodArgumentResolver(), new ReactivePageableHandlerMethodArgumentResolver());
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.ohgiraffers.board.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ohgiraffers.board.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/* 읽기/쓰기 분리 (board.datasource.routing.enabled=true 일 때만 적용)
+ * spring.datasource 는 primary(쓰기), board.datasource.replicas 는 읽기 전용 replica 목록이다.
+ * PostService 는 클래스에 @Transactional(readOnly = true) 가 붙어 있어서 조회 메소드(readPostById, readAllPost ...)는 replica 로,
+ * @Transactional 로 다시 선언한 등록/수정/삭제는 primary 로 간다. (ReplicaRoutingDataSource)
+ *
+ * 주의할 점
+ * - replica 는 primary 보다 조금 늦게 반영된다. (복제 지연)
+ *   수정 직후 조회하면 이전 값이 나올 수 있고, 그 값이 단건 조회 캐시("post")나 2차 캐시에 들어가면 만료될 때까지 남는다.
+ *   => 쓰기가 commit 된 뒤 primary-after-write 동안은 캐시를 채우는 조회(readPostById)를 primary 에서 한다. (복제 지연보다 조금 길게 설정)
+ * - 커넥션 풀이 빈으로 등록되지 않기 때문에 spring.datasource.hikari 값과 hikaricp.* 지표는 여기서 직접 연결한다.
+ *   (가상 스레드 모드의 풀 크기 조정(VirtualThreadConfig)은 적용되지 않으니 hikari.maximum-pool-size 로 설정) */
+@Configuration
+@ConditionalOnProperty(name = "board.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    //replica 연결을 기다리는 기본 시간 => 죽은 replica 를 빨리 포기하고 다음 replica / primary 로 넘어가게 짧게 둔다.
+    private static final Duration REPLICA_CONNECTION_TIMEOUT = Duration.ofSeconds(1);
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${board.datasource.routing.retry-interval:10s}") Duration retryInterval,
+            @Value("${board.datasource.routing.primary-after-write:1s}") Duration primaryAfterWrite
+    ) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = pool(properties, "primary", binder, "spring.datasource.hikari", meterRegistry);
+
+        List<DataSourceProperties> replicaProperties = binder
+                .bind("board.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException("board.datasource.replicas 에 replica 를 하나 이상 설정해야 합니다."));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            HikariDataSource replica = replicaProperties.get(i).initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT.toMillis());
+            replicas.add(configure(replica, "replica-" + i, binder, "board.datasource.replicas[" + i + "].hikari", meterRegistry));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, retryInterval, primaryAfterWrite);
+    }
+
+    /* 애플리케이션(JPA, JdbcTemplate)이 사용하는 DataSource
+     * 트랜잭션이 시작될 때가 아니라 첫 SQL 을 실행할 때 커넥션을 가져오게 해서, 그 시점에 readOnly 여부로 primary/replica 를 고른다. */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, String poolName, Binder binder, String hikariPrefix,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        return configure(dataSource, poolName, binder, hikariPrefix, meterRegistry);
+    }
+
+    //풀 이름은 hikaricp.* 지표의 pool 태그가 된다.
+    private HikariDataSource configure(HikariDataSource dataSource, String poolName, Binder binder, String hikariPrefix,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        dataSource.setPoolName(poolName);
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,12 @@
+package org.ohgiraffers.board.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/* @EnableScheduling
+ * @Scheduled 가 붙은 메소드를 주기적으로 실행할 수 있게 해준다.
+ * (ex. 게시글 수 캐시 갱신) */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,32 @@
+package org.ohgiraffers.board.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/* 스키마 마이그레이션 (Flyway, fast-start 프로필)
+ * 스프링 부트가 JPA(EntityManagerFactory)를 만들기 전에 db/migration/V*.sql 중 아직 반영되지 않은 것을 실행한다.
+ * 그 다음 하이버네이트가 엔티티와 테이블이 맞는지 검사한다. (ddl-auto: validate => 맞지 않으면 시작 실패)
+ *
+ * CDS 아카이브 학습 실행(board.startup.exit-on-ready=true, ./gradlew cdsArchive)은 DB 에 연결하지 않으므로 마이그레이션을 건너뛴다.
+ * (AOT 로 빈 구성이 빌드할 때 정해져서 spring.flyway.enabled 를 실행할 때 끌 수 없음) */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "spring.flyway", name = "enabled", havingValue = "true")
+public class SchemaMigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${board.startup.exit-on-ready:false}") boolean exitOnReady) {
+        return flyway -> {
+            if (exitOnReady) {
+                log.info("board.startup.exit-on-ready=true => 스키마 마이그레이션을 건너뜁니다.");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.ohgiraffers.board.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/* 하이버네이트 2차 캐시 (JCache + Caffeine)
+ * 1차 캐시(영속성 컨텍스트)는 트랜잭션이 끝나면 사라지지만, 2차 캐시는 애플리케이션 전체에서 공유된다.
+ * => 다른 트랜잭션에서 같은 Post 를 다시 읽어도 SELECT 없이 캐시에서 엔티티를 만든다.
+ *
+ * 조회 순서 : "post" 캐시(ReadPostResponse, CacheConfig) => 2차 캐시(Post 엔티티) => MySQL
+ *
+ * 주의할 점
+ * - 게시글 한 건 수정/삭제(PostService.updatePost, deletePost)는 엔티티를 조회해서 바꾸므로 그 게시글만 캐시에서 바뀐다.
+ *   (조회가 2차 캐시에서 끝나면 수정 전 SELECT 도 나가지 않는다.)
+ * - JPQL update/delete(보관 PostArchiveService, 일괄 삭제 PostBatchService)는 어떤 행이 바뀌었는지 모르기 때문에
+ *   실행될 때마다 Post 영역 전체를 비운다. 여러 건을 한 번에 바꾸는 작업에만 쓴다.
+ * - 쿼리 캐시는 post 테이블에 insert/update/delete 가 한 번이라도 일어나면 그 테이블을 쓰는 쿼리 결과를 모두 버린다.
+ *
+ * board.cache.second-level.enabled=false 로 끌 수 있다. */
+@Configuration
+@ConditionalOnProperty(name = "board.cache.second-level.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    //엔티티 캐시 영역 이름 (기본값 = 엔티티 클래스 이름)
+    public static final String POST_REGION = Post.class.getName();
+
+    /* 2차 캐시가 저장될 JCache CacheManager
+     * 영역마다 크기와 만료 시간을 application.yml 값으로 정하려고 하이버네이트가 만들게 하지 않고 직접 만들어서 넘겨준다.
+     * URI 를 따로 주는 이유 : 기본 URI 의 CacheManager 는 JVM 안에서 공유되기 때문에 (테스트처럼 컨텍스트가 여러 개 뜨면 영역 이름이 겹침) */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${board.cache.second-level.post.maximum-size:10000}") long postMaximumSize,
+            @Value("${board.cache.second-level.post.expire-after-write:30m}") Duration postExpireAfterWrite,
+            @Value("${board.cache.second-level.query.maximum-size:1000}") long queryMaximumSize,
+            @Value("${board.cache.second-level.query.expire-after-write:5m}") Duration queryExpireAfterWrite
+    ) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("board-second-level-" + System.identityHashCode(this)), getClass().getClassLoader());
+
+        cacheManager.createCache(POST_REGION, region(postMaximumSize, postExpireAfterWrite));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaximumSize, queryExpireAfterWrite));
+        //테이블별 마지막 변경 시각 : 쿼리 캐시가 오래된 결과인지 판단하는 데 쓰이므로 지우거나 만료시키면 안 된다.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    /* use_second_level_cache : @Cache 가 붙은 엔티티(Post)를 2차 캐시에 저장
+     * use_query_cache        : 쿼리 힌트(HINT_CACHEABLE)가 붙은 쿼리 결과를 저장 (PostRepository.findAllResponses)
+     * missing_cache_strategy : 위에서 만들지 않은 영역을 쓰려고 하면 실행할 때 바로 실패하게 한다. */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCachePropertiesCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private CaffeineConfiguration<Object, Object> region(long maximumSize, Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+}
@@ -2,18 +2,29 @@ package org.ohgiraffers.board.config;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.servers.Server;
 import org.springdoc.core.models.GroupedOpenApi;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/* API 문서 (springdoc) : /swagger-ui/index.html, /v3/api-docs/{그룹}
+ * 문서는 빌드할 때도 미리 만들어서 jar 의 static/openapi/ 에 넣는다. (./gradlew generateOpenApiDocs, OpenApiDocsTest)
+ * fast-start 프로필에서는 springdoc 을 끄고 미리 만든 문서(/openapi/posts.json)만 내려준다. (docs/fast-start.md)
+ *
+ * 그룹은 컨트롤러 패키지만 읽는다.
+ * (패키지를 "" 로 주면 클래스패스 전체를 뒤지기 때문에 문서를 처음 만들 때 오래 걸린다.) */
 @Configuration
 @OpenAPIDefinition(
         info = @Info(title = "Board Mission🐱‍👤",
         description = "Board Mission Api 명세",
-        version = "v1")
+        version = "v1"),
+        //요청 주소 기준 상대 경로 => 빌드할 때 만든 문서에 빌드 환경 주소(localhost)가 들어가지 않는다.
+        servers = @Server(url = "/")
 )
 public class SwaggerConfig {
 
+    public static final String POSTS_GROUP = "1. 게시글 관리";
+
     @Bean
     public GroupedOpenApi firstOpenApi() {
         String[] path = {
@@ -21,19 +32,7 @@ public class SwaggerConfig {
         };
 
         return GroupedOpenApi.builder()
-                .group("1. 게시글 관리")
-                .packagesToScan(path)
-                .build();
-    }
-
-    @Bean
-    public GroupedOpenApi secondOpenApi() {
-        String[] path = {
-                ""
-        };
-
-        return GroupedOpenApi.builder()
-                .group("2. 미정")
+                .group(POSTS_GROUP)
                 .packagesToScan(path)
                 .build();
     }
@@ -0,0 +1,71 @@
+package org.ohgiraffers.board.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/* 가상 스레드(Virtual Thread) 실행 모드 (Java 21)
+ * board.threads.virtual=true 일 때만 적용된다. (기본은 톰캣의 플랫폼 스레드 풀 사용)
+ *
+ * 플랫폼 스레드는 JDBC 응답을 기다리는 동안에도 OS 스레드 하나를 계속 붙잡고 있어서,
+ * 요청이 몰리면 CPU 보다 스레드(기본 200개)가 먼저 바닥난다.
+ * 가상 스레드는 기다리는 동안 OS 스레드를 내려놓기 때문에, 요청마다 가상 스레드 하나씩 만들어서 처리한다.
+ * => Controller -> PostService -> Repository 호출이 모두 요청을 받은 가상 스레드에서 실행된다.
+ *
+ * 대신 동시에 DB 를 쓰는 요청 수는 커넥션 풀 크기가 정하게 되므로, 풀 크기/대기 시간을 여기서 같이 맞춘다.
+ * 지금까지의 측정에서는 지연 시간이 줄지 않았다. (기본값 false 인 이유, 측정 결과는 docs/virtual-threads.md) */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "board.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    //톰캣이 요청을 처리할 때 스레드 풀 대신 요청마다 가상 스레드를 만든다.
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    //@Async, 비동기 요청(StreamingResponseBody 등)에 쓰는 스프링 기본 실행기도 가상 스레드로 바꾼다.
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /* 커넥션 풀 크기
+     * 가상 스레드 모드에서는 요청 수만큼 스레드가 생기기 때문에, 풀이 작으면 커넥션을 기다리는 요청이 쌓이고
+     * 풀이 너무 크면 MySQL 이 감당하지 못한다. => DB 가 처리할 수 있는 만큼만 열어두고, 오래 기다리는 요청은 빨리 실패시킨다.
+     * (이 모드에서는 spring.datasource.hikari 의 maximum-pool-size, connection-timeout 대신 아래 값이 적용된다.) */
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어지기 때문에 @Value 대신 Binder 로 설정값을 직접 읽는다.
+    @Bean
+    public static BeanPostProcessor virtualThreadHikariPostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        int maximumPoolSize = binder.bind("board.threads.hikari.maximum-pool-size", Integer.class).orElse(30);
+        Duration connectionTimeout = binder.bind("board.threads.hikari.connection-timeout", Duration.class).orElse(Duration.ofSeconds(3));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(maximumPoolSize);
+                    dataSource.setMinimumIdle(maximumPoolSize);
+                    dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+                    log.info("가상 스레드 모드 : 커넥션 풀 크기 {}, 커넥션 대기 시간 {}ms", maximumPoolSize, connectionTimeout.toMillis());
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.ohgiraffers.board.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.ohgiraffers.board.domain.dto.ErrorResponse;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/* @RestControllerAdvice
+ * 모든 @RestController 에서 발생한 예외를 한 곳에서 처리한다.
+ * 예외 종류에 맞는 HTTP 상태코드로 바꿔서 응답해준다. */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /* 잘못된 요청 값 (ex. 올바르지 않은 커서, If-Match, resumeFrom, size)
+     * IllegalArgumentException 전체가 아니라 직접 던진 InvalidRequestException 만 400 으로 바꾼다.
+     * => 그 밖의 IllegalArgumentException 은 서버 오류(500)로 남고 내부 메시지가 응답에 나가지 않는다. */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequest(InvalidRequestException e) {
+
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+
+    }
+
+    //없는 게시글
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleEntityNotFound(EntityNotFoundException e) {
+
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.NOT_FOUND);
+
+    }
+
+    //다른 요청이 먼저 수정한 게시글을 수정하려고 할 때 (If-Match 버전 불일치)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
+
+    }
+
+    //보관된 게시글을 수정하려고 할 때 => 요청은 올바르지만 게시글 상태와 충돌
+    @ExceptionHandler(ArchivedPostException.class)
+    public ResponseEntity<ErrorResponse> handleArchivedPost(ArchivedPostException e) {
+
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
+
+    }
+
+    //쓰기 지연 모드에서 저장 대기열이 가득 찼을 때, SSE 구독자가 너무 많을 때 => 잠시 후 다시 보내달라고 알려준다.
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException e) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        //SSE 요청(Accept: text/event-stream)에도 JSON 으로 응답하도록 직접 정한다. (안 정하면 Accept 와 맞지 않아서 응답을 못 씀)
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        return new ResponseEntity<>(new ErrorResponse(e.getMessage()), headers, HttpStatus.SERVICE_UNAVAILABLE);
+
+    }
+
+}
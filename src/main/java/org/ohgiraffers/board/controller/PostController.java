@@ -2,18 +2,41 @@ package org.ohgiraffers.board.controller;
 
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.service.PostBatchService;
+import org.ohgiraffers.board.service.PostImportService;
 import org.ohgiraffers.board.service.PostService;
+import org.ohgiraffers.board.service.PostViewCounter;
+import org.ohgiraffers.board.service.PostWriteBehindService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /* 레이어드 아키텍쳐
  * 소프트웨어를 여러개의 계층으로 분리해서 설계하는 방법
@@ -35,19 +58,40 @@ import org.springframework.web.bind.annotation.*;
 
 @Tag(name = "posts", description = "게시글 API")
 @RestController
+@Profile("!reactive") //reactive 프로필에서는 ReactivePostController 가 같은 경로를 처리한다.
 // @RequestMapping : 특정 URL을 매핑하게 도와준다.
 @RequestMapping("/api/v1/posts") //기본 경로
 // @RequiredArgsConstructor : final 혹은 @NonNull 어노테이션이 붙은 필드에 대한 생성자를 자동으로 생성해준다.
 @RequiredArgsConstructor
 public class PostController { //controller 는 service 로 연결됨.
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final PostService postService;
+    private final PostBatchService postBatchService;
+    private final PostImportService postImportService;
+    private final PostViewCounter postViewCounter;
+    private final PostEventStreams postEventStreams;
+    //쓰기 지연 모드가 꺼져 있으면 빈이 없다.
+    private final ObjectProvider<PostWriteBehindService> postWriteBehindService;
+    private final ObjectMapper objectMapper;
 
     //register 등록
-    @Operation(summary = "게시글 등록하기", description = "제목(title), 내용(content) 입력해주세요.")
+    @Operation(summary = "게시글 등록하기", description = "제목(title), 내용(content) 입력해주세요. 쓰기 지연 모드에서는 저장 전에 postId 와 함께 202 를 응답합니다.")
     @PostMapping         //저장 받은 DTO, return 받을 애
     public ResponseEntity<CreatePostResponse> postCreate(@RequestBody CreatePostRequest request) {
 
+        //쓰기 지연 모드(board.write-behind.enabled=true) : DB 저장을 기다리지 않고 postId 만 먼저 내려준다.
+        PostWriteBehindService writeBehind = postWriteBehindService.getIfAvailable();
+        if (writeBehind != null) {
+            CreatePostResponse accepted = writeBehind.accept(request);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setLocation(URI.create("/api/v1/posts/" + accepted.getPostId()));
+
+            return new ResponseEntity<>(accepted, headers, HttpStatus.ACCEPTED);
+        }
+
         CreatePostResponse response = postService.createPost(request);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -57,25 +101,56 @@ public class PostController { //controller 는 service 로 연결됨.
     //@PathVariable : REST API에서 URI에 변수가 들어갈 때 사용
     //@GetMapping("/{postId}") => @PathVariable Long postId
     //postId로 단건 조회
-    @Operation(summary = "게시글 단건 조회하기")
+    @Operation(summary = "게시글 단건 조회하기", description = "응답의 ETag 를 If-None-Match 로 보내면, 바뀐 게 없을 때 본문 없이 304 를 응답합니다.")
 
     @GetMapping("/{postId}") //밑에 DTO(데이터 전달하는 객체) 들어가야 함.
-    public ResponseEntity<ReadPostResponse> postRead(@PathVariable Long postId) {
+    public ResponseEntity<ReadPostResponse> postRead(@PathVariable Long postId, WebRequest webRequest) {
 
+        //캐시(@Cacheable)에 있으면 DB 조회 없이 가져온다.
         ReadPostResponse response = postService.readPostById(postId);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        //조회수는 캐시 hit 여부와 상관없이 센다. (304 도 클라이언트가 다시 본 것이므로 포함)
+        postViewCounter.increment(postId);
+
+        //클라이언트가 가진 게시글과 같은 버전이면 본문(JSON 변환 포함) 없이 304 Not Modified
+        //압축해서 받은 ETag("postId.version-gzip")도 같은 버전이면 304
+        String eTag = PostETags.of(response);
+        if (webRequest.checkNotModified(PostETags.matching(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH), eTag), lastModifiedOf(response))) {
+            return null;
+        }
+
+        //압축 여부에 따라 ETag 가 달라지므로 캐시가 Accept-Encoding 별로 따로 저장하게 한다.
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (response.getUpdatedAt() != null) {
+            headers.setLastModified(response.getUpdatedAt());
+        }
+
+        return new ResponseEntity<>(response, headers, HttpStatus.OK);
     }
 
     //업데이트
-    @Operation(summary = "게시글 수정하기")
+    @Operation(summary = "게시글 수정하기", description = "조회할 때 받은 ETag 를 If-Match 로 보내면, 그 사이 다른 사람이 수정했을 때 덮어쓰지 않고 409 를 응답합니다.")
 
     @PutMapping("/{postId}")
-    public ResponseEntity<UpdatePostResponse> postUpdate(@PathVariable Long postId, @RequestBody UpdatePostRequest request) {
+    public ResponseEntity<UpdatePostResponse> postUpdate(
+            @PathVariable Long postId,
+            @RequestBody UpdatePostRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        //If-Match 가 있으면 그 버전일 때만 수정한다. (그 사이 다른 요청이 먼저 수정했으면 409 Conflict)
+        Long expectedVersion = PostETags.versionOf(ifMatch, postId);
 
-        UpdatePostResponse response = postService.updatePost(postId, request);
+        UpdatePostResponse response = postService.updatePost(postId, request, expectedVersion);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        //버전을 알고 수정했으면 수정 후 버전(+1)을 ETag 로 내려줘서, 다시 조회하지 않고 이어서 수정할 수 있게 한다.
+        HttpHeaders headers = new HttpHeaders();
+        if (expectedVersion != null) {
+            headers.setETag(PostETags.of(postId, expectedVersion + 1));
+        }
+
+        return new ResponseEntity<>(response, headers, HttpStatus.OK);
     }
 
     //삭제
@@ -92,16 +167,252 @@ public class PostController { //controller 는 service 로 연결됨.
 
     //5개씩 끊어서 보여줌 => @PageableDefault(size = 몇개씩 끊어서 보냐,sort="어떤 기준으로", direction = 오름차,내림차)
     //리스트 조회
-    @Operation(summary = "모든 게시글 조회하기(리스트)")
+    @Operation(summary = "모든 게시글 조회하기(리스트)", description = "응답의 ETag 를 If-None-Match 로 보내면, 바뀐 게 없을 때 본문 없이 304 를 응답합니다.")
 
     @GetMapping
     public ResponseEntity<Page<ReadPostResponse>> postReadAll(
-            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest webRequest
     ) {
+        //내용(content) 없이 postId, version 만 조회해서 ETag 를 먼저 비교 => 바뀐 게 없으면 목록을 조회하지 않고 304
+        //If-None-Match 가 없는 요청은 비교할 게 없으니 건너뛴다. (목록 + count 쿼리를 두 번씩 보내지 않게)
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null
+                && webRequest.checkNotModified(PostETags.matching(ifNoneMatch, PostETags.ofPage(postService.readPostVersions(pageable))))) {
+            return null;
+        }
+
         Page<ReadPostResponse> responses = postService.readAllPost(pageable);
 
+        //ETag 는 실제로 내려주는 목록 기준으로 다시 계산한다. (그 사이에 수정된 글이 있어도 본문과 ETag 가 맞도록)
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(PostETags.ofPage(responses.map(response -> new PostVersion(response.getPostId(), response.getVersion()))));
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        return new ResponseEntity<>(responses, headers, HttpStatus.OK);
+
+    }
+
+    //커서 기반 리스트 조회 => after 파라미터가 있으면 이 메소드로 매핑된다. (첫 페이지는 after= 로 비워서 요청)
+    //기존 page 기반 조회(postReadAll)는 그대로 유지
+    @Operation(summary = "모든 게시글 조회하기(커서)", description = "첫 페이지는 after 를 비워서, 다음 페이지는 응답의 nextCursor 를 after 로 넘겨주세요.")
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPostResponse> postReadAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        CursorPostResponse response = postService.readPostsAfter(after, size);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //count 쿼리 없이 리스트 조회 => 전체 개수/페이지 수 대신 다음 페이지 존재 여부(last)만 내려준다.
+    @Operation(summary = "모든 게시글 조회하기(Slice)", description = "전체 개수 없이 다음 페이지 존재 여부만 알려줍니다.")
+
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<ListPostResponse>> postReadAllSlice(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        Slice<ListPostResponse> responses = postService.readAllPostSlice(pageable);
+
+        return new ResponseEntity<>(responses, HttpStatus.OK);
+
+    }
+
+    //목록 화면용 리스트 조회 => 내용 전체 대신 앞부분(preview)만 내려준다.
+    @Operation(summary = "모든 게시글 요약 조회하기", description = "postId, 제목, 내용 미리보기(최대 100자)만 조회합니다.")
+
+    @GetMapping("/summary")
+    public ResponseEntity<Slice<PostSummaryResponse>> postReadSummaries(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        Slice<PostSummaryResponse> responses = postService.readPostSummaries(pageable);
+
+        return new ResponseEntity<>(responses, HttpStatus.OK);
+
+    }
+
+    //보관된(오래된) 게시글 목록 => 다른 목록 조회는 최근 게시글(post 테이블)만 보여준다. 단건 조회는 보관된 게시글도 그대로 된다.
+    @Operation(summary = "보관된 게시글 요약 조회하기", description = "오래되어 보관된 게시글의 postId, 제목, 내용 미리보기만 조회합니다. 보관된 게시글은 수정할 수 없습니다.")
+
+    @GetMapping("/archive")
+    public ResponseEntity<Slice<PostSummaryResponse>> postReadArchived(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        Slice<PostSummaryResponse> responses = postService.readArchivedPosts(pageable);
+
+        return new ResponseEntity<>(responses, HttpStatus.OK);
+
+    }
+
+    /* 게시글 변경 알림 (SSE) => 목록을 주기적으로 다시 조회(polling)하지 않아도 등록/수정/삭제를 바로 받는다.
+     * 이벤트 이름 : created, updated, deleted, reset (reset 을 받으면 놓친 이벤트가 있으니 목록을 다시 조회)
+     * 일괄 처리/가져오기처럼 한 번에 여러 게시글이 commit 되면 postId 대신 postIds 에 모아서 이벤트 하나로 보낸다.
+     * 연결이 끊기면 EventSource 가 마지막으로 받은 id 를 Last-Event-ID 로 보내면서 다시 연결하고, 그 뒤의 이벤트부터 받는다. */
+    @Operation(summary = "게시글 변경 알림 받기(SSE)", description = "등록/수정/삭제된 게시글을 text/event-stream 으로 바로 보내줍니다. 다시 연결할 때 Last-Event-ID 를 보내면 놓친 이벤트부터 이어서 받습니다.")
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> postStream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        SseEmitter emitter = postEventStreams.open(lastEventId);
+
+        //nginx 가 응답을 모아서 보내지 않도록 (이벤트가 바로 전달되게)
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        headers.set("X-Accel-Buffering", "no");
+
+        return new ResponseEntity<>(emitter, headers, HttpStatus.OK);
+
+    }
+
+    //제목/내용 검색 => 검색 점수가 높은 순으로 정렬되어 있으니 sort 는 무시한다.
+    @Operation(summary = "게시글 검색하기", description = "제목(title)과 내용(content)에서 검색어(q)가 들어있는 게시글을 관련도 순으로 조회합니다.")
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<PostSummaryResponse>> postSearch(
+            @RequestParam String q,
+            @PageableDefault(size = 5) Pageable pageable
+    ) {
+        Page<PostSummaryResponse> responses = postService.searchPosts(q, pageable);
+
+        return new ResponseEntity<>(responses, HttpStatus.OK);
+
+    }
+
+    //인기 글 조회
+    @Operation(summary = "인기 게시글 조회하기", description = "서버를 시작한 뒤 조회수가 많은 순으로 size 개(최대 100)를 조회합니다. 조회수는 몇 초 늦게 반영되는 근사값입니다.")
+
+    @GetMapping("/popular")
+    public ResponseEntity<List<PopularPostResponse>> postReadPopular(@RequestParam(defaultValue = "10") int size) {
+
+        List<PopularPostResponse> responses = postService.readPopularPosts(size);
+
         return new ResponseEntity<>(responses, HttpStatus.OK);
 
     }
 
+    //전체 게시글 수 조회
+    @Operation(summary = "전체 게시글 수 조회하기", description = "주기적으로 갱신되는 근사값입니다.")
+
+    @GetMapping("/count")
+    public ResponseEntity<PostCountResponse> postCount() {
+
+        PostCountResponse response = postService.readPostCount();
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    /* 전체 게시글 내보내기 (NDJSON : 한 줄에 게시글 JSON 하나)
+     * 게시글을 DB 에서 읽는 대로 바로 응답으로 쓴다. => 게시글이 아무리 많아도 서버 메모리 사용량은 일정
+     * 응답 버퍼가 차면 그때그때 클라이언트로 전송된다. (전체 크기를 모르니 chunked 전송)
+     * 중간에 실패하면 이미 200 이 나간 뒤라 상태코드를 바꿀 수 없다. => 연결을 끊어서 클라이언트가 불완전한 응답임을 알 수 있게 한다. */
+    @Operation(summary = "모든 게시글 내보내기", description = "모든 게시글을 한 줄에 하나씩 JSON(application/x-ndjson)으로 내려줍니다.")
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void postExport(HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts.ndjson\"");
+
+        /* 하나의 JsonGenerator 에 이어서 쓴다.
+         * FLUSH_AFTER_WRITE_VALUE 를 끄지 않으면 게시글마다 flush 해서 작은 패킷이 건마다 나가게 된다.
+         * (버퍼가 찰 때만 보내는 게 네트워크를 더 잘 쓴다.)
+         * 루트 값 사이 구분자(기본값 공백)는 빼고 줄바꿈을 직접 쓴다. */
+        ObjectWriter writer = objectMapper.writerFor(ReadPostResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            postService.exportPosts(post -> {
+                try {
+                    writer.writeValue(generator, post);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+    }
+
+    /* 게시글 가져오기 (NDJSON 또는 CSV)
+     * 본문을 다 받은 뒤에 처리하지 않고, 받는 대로 읽어서 chunk 단위로 저장한다.
+     * 실패해도 그 앞까지 저장된 항목은 남는다. => 응답의 checkpoint 를 resumeFrom 으로 넘겨서 같은 본문을 다시 보내면 이어서 가져온다.
+     * importId 를 정해서 보내면, 진행 중이거나 연결이 끊겼을 때도 GET /import/{importId} 로 진행 상황을 확인할 수 있다. */
+    @Operation(summary = "게시글 가져오기", description = "application/x-ndjson(한 줄에 게시글 하나) 또는 text/csv(헤더 title,content) 본문을 받아서 저장합니다. 실패하면 응답의 checkpoint 를 resumeFrom 으로 넘겨서 다시 보내주세요.")
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<PostImportResponse> postImport(
+            HttpServletRequest request,
+            @RequestParam(required = false) String importId,
+            @RequestParam(defaultValue = "0") long resumeFrom
+    ) throws IOException {
+        PostImportService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? PostImportService.Format.NDJSON
+                : PostImportService.Format.CSV;
+
+        PostImportResponse response = postImportService.importPosts(importId, request.getInputStream(), format, resumeFrom);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //가져오기 진행 상황 조회
+    @Operation(summary = "게시글 가져오기 진행 상황 조회하기", description = "지금까지 읽은 항목 수, 저장된 항목 수, checkpoint 를 조회합니다.")
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<PostImportResponse> postImportProgress(@PathVariable String importId) {
+
+        PostImportResponse response = postImportService.getProgress(importId);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //일괄 등록
+    @Operation(summary = "게시글 일괄 등록하기", description = "게시글 목록을 받아서 한 번에 등록하고, 항목별 결과를 돌려줍니다. (최대 1000개)")
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPostResponse> postCreateBatch(@RequestBody List<CreatePostRequest> requests) {
+
+        BatchPostResponse response = postBatchService.createPosts(requests);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //일괄 수정
+    @Operation(summary = "게시글 일괄 수정하기", description = "postId, 제목(title), 내용(content) 목록을 받아서 한 번에 수정합니다. (최대 1000개)")
+
+    @PutMapping("/batch")
+    public ResponseEntity<BatchPostResponse> postUpdateBatch(@RequestBody List<BatchUpdatePostRequest> requests) {
+
+        BatchPostResponse response = postBatchService.updatePosts(requests);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //일괄 삭제
+    @Operation(summary = "게시글 일괄 삭제하기", description = "postId 목록을 받아서 한 번에 삭제합니다. (최대 1000개)")
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchPostResponse> postDeleteBatch(@RequestBody List<Long> postIds) {
+
+        BatchPostResponse response = postBatchService.deletePosts(postIds);
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+
+    }
+
+    //checkNotModified 는 epoch 밀리초를 받는다. (updatedAt 이 없으면 -1 => ETag 만 비교)
+    private long lastModifiedOf(ReadPostResponse response) {
+        return response.getUpdatedAt() != null ? response.getUpdatedAt().toEpochMilli() : -1;
+    }
+
 }
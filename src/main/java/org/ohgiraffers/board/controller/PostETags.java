@@ -0,0 +1,136 @@
+package org.ohgiraffers.board.controller;
+
+import org.ohgiraffers.board.domain.dto.PostVersion;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/* ETag 만들기
+ * 클라이언트는 받은 ETag 를 다음 요청의 If-None-Match 로 보내고, 값이 같으면 서버는 본문 없이 304 Not Modified 를 응답한다.
+ *
+ * 단건 : "postId.version" => 게시글이 수정될 때마다 version 이 바뀐다. (수정할 때 If-Match 로 받으면 낙관적 락 조건으로 사용)
+ * 목록 : 전체 개수 + 페이지 안의 (postId, version) 목록을 MD5 로 요약한 값
+ *        => 페이지 안의 글이 추가/수정/삭제되거나 전체 개수가 바뀌면 달라진다.
+ *
+ * 강한(strong) ETag 다. If-Match 는 강한 비교만 허용하므로(RFC 9110) 약한 ETag(W/"...") 로는 수정 조건을 걸 수 없다.
+ * gzip 으로 압축한 본문은 다른 표현(바이트가 다름)이라 압축 전용 ETag("postId.version-gzip")로 바꿔서 보낸다. (gzipVariant, CompressionConfig)
+ * 요청에서 받은 ETag 는 접미사(-gzip)를 떼고 비교한다. => 압축해서 받은 ETag 로도 If-Match, If-None-Match 를 그대로 쓸 수 있다. */
+public final class PostETags {
+
+    //압축(gzip)한 본문의 ETag 접미사
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private PostETags() {
+    }
+
+    static String of(ReadPostResponse post) {
+        return of(post.getPostId(), post.getVersion());
+    }
+
+    static String of(Long postId, long version) {
+        return "\"" + postId + "." + version + "\"";
+    }
+
+    /* If-Match 에서 수정 조건으로 쓸 version 을 꺼낸다.
+     * 헤더가 없거나 * 이면 null (version 상관없이 수정)
+     * 이 게시글의 ETag 형식("postId.version")이 아니면 InvalidRequestException (400) */
+    static Long versionOf(String ifMatch, Long postId) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String eTag = withoutEncoding(ifMatch.trim());
+        String prefix = "\"" + postId + ".";
+        if (!eTag.startsWith(prefix) || !eTag.endsWith("\"") || eTag.length() <= prefix.length() + 1) {
+            throw new InvalidRequestException("If-Match 는 이 게시글을 조회할 때 받은 ETag 하나만 보낼 수 있습니다.");
+        }
+        try {
+            return Long.parseLong(eTag.substring(prefix.length(), eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("If-Match 는 이 게시글을 조회할 때 받은 ETag 하나만 보낼 수 있습니다.");
+        }
+    }
+
+    static String ofPage(Page<PostVersion> page) {
+        StringBuilder source = new StringBuilder().append(page.getTotalElements());
+        for (PostVersion post : page.getContent()) {
+            source.append(',').append(post.getPostId()).append('.').append(post.getVersion());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /* If-None-Match 비교용 ETag
+     * 요청의 ETag 중 eTag 와 같은 버전(-gzip 접미사는 무시)이 있으면 그 값을, 없으면 eTag 를 그대로 돌려준다.
+     * => checkNotModified 에 넘기면 압축해서 받은 ETag 로 다시 요청해도(또는 반대로) 같은 버전이면 304 */
+    static String matching(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return eTag;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String requested = candidate.trim();
+            String opaque = requested.startsWith("W/") ? requested.substring(2) : requested;
+            if (withoutEncoding(opaque).equals(eTag)) {
+                return requested;
+            }
+        }
+        return eTag;
+    }
+
+    //압축한 본문에 붙일 ETag : "1.3" => "1.3-gzip"
+    public static String gzipVariant(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    public static boolean isGzipVariant(String eTag) {
+        return eTag != null && eTag.endsWith(GZIP_SUFFIX + "\"");
+    }
+
+    public static boolean isStrong(String eTag) {
+        return eTag != null && eTag.trim().startsWith("\"");
+    }
+
+    //Accept-Encoding 에 gzip 이 있는지 (gzip;q=0 은 받지 않는다는 뜻)
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return qualityOf(acceptEncoding, "gzip") > 0;
+    }
+
+    //gzip 을 받고, deflate 보다 낮게 원하지 않는지 (Netty 는 q 값이 높은 쪽으로 압축한다)
+    public static boolean prefersGzip(String acceptEncoding) {
+        double gzip = qualityOf(acceptEncoding, "gzip");
+        return gzip > 0 && gzip >= qualityOf(acceptEncoding, "deflate");
+    }
+
+    //Accept-Encoding 에서 coding 의 q 값 (없으면 0)
+    private static double qualityOf(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return 0;
+        }
+        for (String value : acceptEncoding.split(",")) {
+            String[] parts = value.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(coding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 1;
+        }
+        return 0;
+    }
+
+    private static String withoutEncoding(String eTag) {
+        String suffix = GZIP_SUFFIX + "\"";
+        return eTag.endsWith(suffix) ? eTag.substring(0, eTag.length() - suffix.length()) + "\"" : eTag;
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.ohgiraffers.board.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.domain.dto.PostEvent;
+import org.ohgiraffers.board.service.PostEventBroadcaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+
+/* SSE 연결 하나마다 이벤트를 보내는 가상 스레드를 하나씩 둔다. (GET /api/v1/posts/stream)
+ * 요청 스레드는 SseEmitter 를 돌려주고 바로 반환된다. (톰캣 비동기 요청) => 연결이 많아도 요청 스레드를 붙잡지 않는다.
+ * 보내는 스레드는 구독자의 대기열에서 이벤트를 꺼내서 쓰고, 느린 클라이언트에게 쓰는 동안 멈춰 있어도 다른 연결과 게시글 저장에는 영향이 없다.
+ *
+ * - 이벤트가 없으면 heartbeat-ms 마다 주석(:heartbeat)을 보낸다. => 프록시가 놀고 있는 연결을 끊지 않게 하고, 끊긴 클라이언트를 찾는다.
+ * - timeout-ms 가 지나면 연결을 끝낸다. 클라이언트(EventSource)는 retry-ms 뒤에 Last-Event-ID 와 함께 다시 연결한다. */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class PostEventStreams {
+
+    private final PostEventBroadcaster postEventBroadcaster;
+
+    @Value("${board.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${board.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${board.stream.retry-ms:3000}")
+    private long retryMs;
+
+    public SseEmitter open(String lastEventId) {
+
+        PostEventBroadcaster.Subscription subscription = postEventBroadcaster.subscribe(lastEventId);
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+
+        Thread.ofVirtual().name("post-event-stream").start(() -> send(emitter, subscription));
+
+        return emitter;
+
+    }
+
+    private void send(SseEmitter emitter, PostEventBroadcaster.Subscription subscription) {
+
+        try {
+            emitter.send(SseEmitter.event().comment("connected").reconnectTime(retryMs));
+            while (!subscription.isClosed()) {
+                PostEvent event = subscription.next(Duration.ofMillis(heartbeatMs));
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getEventId()))
+                        .name(event.getType().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+            //느려서 끊겼거나 서버가 종료 중 => 클라이언트가 Last-Event-ID 로 다시 연결한다.
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            //클라이언트가 연결을 끊었거나 timeout 으로 이미 끝난 연결
+            subscription.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscription.close();
+            emitter.complete();
+        }
+
+    }
+
+}
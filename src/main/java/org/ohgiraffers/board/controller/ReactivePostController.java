@@ -0,0 +1,219 @@
+package org.ohgiraffers.board.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.service.PostViewCounter;
+import org.ohgiraffers.board.service.ReactivePostService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/* 게시글 API 의 리액티브 버전 (reactive 프로필, WebFlux)
+ * PostController 와 같은 경로, 같은 요청/응답(JSON, 상태코드, ETag)을 사용한다. => 클라이언트는 어느 쪽인지 몰라도 된다.
+ * 응답을 Mono/Flux 로 돌려주면 WebFlux 가 구독해서, 결과가 준비되었을 때 이벤트 루프 스레드가 응답을 쓴다.
+ *
+ * 일괄 처리(/batch), 가져오기(/import), 변경 알림(/stream), 쓰기 지연 모드는 MVC(PostController)에서만 지원한다. */
+@Tag(name = "posts", description = "게시글 API")
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/posts")
+@RequiredArgsConstructor
+public class ReactivePostController {
+
+    private final ReactivePostService reactivePostService;
+    private final PostViewCounter postViewCounter;
+
+    @Operation(summary = "게시글 등록하기", description = "제목(title), 내용(content) 입력해주세요.")
+    @PostMapping
+    public Mono<ResponseEntity<CreatePostResponse>> postCreate(@RequestBody CreatePostRequest request) {
+
+        return reactivePostService.createPost(request)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "게시글 단건 조회하기", description = "응답의 ETag 를 If-None-Match 로 보내면, 바뀐 게 없을 때 본문 없이 304 를 응답합니다.")
+    @GetMapping("/{postId}")
+    public Mono<ResponseEntity<ReadPostResponse>> postRead(@PathVariable Long postId, ServerWebExchange exchange) {
+
+        return reactivePostService.readPostById(postId)
+                .flatMap(response -> {
+                    postViewCounter.increment(postId);
+
+                    //같은 버전이면 상태코드만 304 로 바꾸고 본문 없이 끝낸다.
+                    String eTag = PostETags.of(response);
+                    if (exchange.checkNotModified(PostETags.matching(ifNoneMatchOf(exchange), eTag), response.getUpdatedAt())) {
+                        return Mono.empty();
+                    }
+
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setETag(eTag);
+                    headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+                    if (response.getUpdatedAt() != null) {
+                        headers.setLastModified(response.getUpdatedAt());
+                    }
+
+                    return Mono.just(new ResponseEntity<>(response, headers, HttpStatus.OK));
+                });
+
+    }
+
+    @Operation(summary = "게시글 수정하기", description = "조회할 때 받은 ETag 를 If-Match 로 보내면, 그 사이 다른 사람이 수정했을 때 덮어쓰지 않고 409 를 응답합니다.")
+    @PutMapping("/{postId}")
+    public Mono<ResponseEntity<UpdatePostResponse>> postUpdate(
+            @PathVariable Long postId,
+            @RequestBody UpdatePostRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion = PostETags.versionOf(ifMatch, postId);
+
+        return reactivePostService.updatePost(postId, request, expectedVersion)
+                .map(response -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    if (expectedVersion != null) {
+                        headers.setETag(PostETags.of(postId, expectedVersion + 1));
+                    }
+                    return new ResponseEntity<>(response, headers, HttpStatus.OK);
+                });
+    }
+
+    @Operation(summary = "게시글 삭제하기")
+    @DeleteMapping("/{postId}")
+    public Mono<ResponseEntity<DeletePostResponse>> postDelete(@PathVariable Long postId) {
+
+        return reactivePostService.deletePost(postId)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+
+    }
+
+    /* 리스트 조회
+     * MVC 는 postId, version 만 먼저 조회해서 304 여부를 판단하지만, 여기서는 목록을 한 번에 조회한 뒤 ETag 를 비교한다.
+     * (쿼리 하나를 덜 보내는 대신 304 일 때도 목록을 읽는다.) */
+    @Operation(summary = "모든 게시글 조회하기(리스트)", description = "응답의 ETag 를 If-None-Match 로 보내면, 바뀐 게 없을 때 본문 없이 304 를 응답합니다.")
+    @GetMapping
+    public Mono<ResponseEntity<Page<ReadPostResponse>>> postReadAll(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable,
+            ServerWebExchange exchange
+    ) {
+        return reactivePostService.readAllPost(pageable)
+                .flatMap(responses -> {
+                    String eTag = PostETags.ofPage(responses.map(response -> new PostVersion(response.getPostId(), response.getVersion())));
+                    if (exchange.checkNotModified(PostETags.matching(ifNoneMatchOf(exchange), eTag))) {
+                        return Mono.empty();
+                    }
+
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setETag(eTag);
+                    headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+                    return Mono.just(new ResponseEntity<>(responses, headers, HttpStatus.OK));
+                });
+
+    }
+
+    @Operation(summary = "모든 게시글 조회하기(커서)", description = "첫 페이지는 after 를 비워서, 다음 페이지는 응답의 nextCursor 를 after 로 넘겨주세요.")
+    @GetMapping(params = "after")
+    public Mono<ResponseEntity<CursorPostResponse>> postReadAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        return reactivePostService.readPostsAfter(after, size)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "모든 게시글 조회하기(Slice)", description = "전체 개수 없이 다음 페이지 존재 여부만 알려줍니다.")
+    @GetMapping("/slice")
+    public Mono<ResponseEntity<Slice<ListPostResponse>>> postReadAllSlice(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        return reactivePostService.readAllPostSlice(pageable)
+                .map(responses -> new ResponseEntity<>(responses, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "모든 게시글 요약 조회하기", description = "postId, 제목, 내용 미리보기(최대 100자)만 조회합니다.")
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<Slice<PostSummaryResponse>>> postReadSummaries(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        return reactivePostService.readPostSummaries(pageable)
+                .map(responses -> new ResponseEntity<>(responses, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "게시글 검색하기", description = "제목(title)과 내용(content)에서 검색어(q)가 들어있는 게시글을 관련도 순으로 조회합니다.")
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Page<PostSummaryResponse>>> postSearch(
+            @RequestParam String q,
+            @PageableDefault(size = 5) Pageable pageable
+    ) {
+        return reactivePostService.searchPosts(q, pageable)
+                .map(responses -> new ResponseEntity<>(responses, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "인기 게시글 조회하기", description = "서버를 시작한 뒤 조회수가 많은 순으로 size 개(최대 100)를 조회합니다. 조회수는 몇 초 늦게 반영되는 근사값입니다.")
+    @GetMapping("/popular")
+    public Mono<ResponseEntity<List<PopularPostResponse>>> postReadPopular(@RequestParam(defaultValue = "10") int size) {
+
+        return reactivePostService.readPopularPosts(size)
+                .map(responses -> new ResponseEntity<>(responses, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "전체 게시글 수 조회하기", description = "주기적으로 갱신되는 근사값입니다.")
+    @GetMapping("/count")
+    public Mono<ResponseEntity<PostCountResponse>> postCount() {
+
+        return reactivePostService.readPostCount()
+                .map(response -> new ResponseEntity<>(response, HttpStatus.OK));
+
+    }
+
+    @Operation(summary = "보관된 게시글 요약 조회하기", description = "오래되어 보관된 게시글의 postId, 제목, 내용 미리보기만 조회합니다. 보관된 게시글은 수정할 수 없습니다.")
+    @GetMapping("/archive")
+    public Mono<ResponseEntity<Slice<PostSummaryResponse>>> postReadArchived(
+            @PageableDefault(size = 5, sort = "postId", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        return reactivePostService.readArchivedPosts(pageable)
+                .map(responses -> new ResponseEntity<>(responses, HttpStatus.OK));
+
+    }
+
+    /* 전체 게시글 내보내기 (NDJSON)
+     * Flux 를 그대로 돌려주면 WebFlux 가 게시글 하나마다 JSON 한 줄로 써준다.
+     * 클라이언트가 느리면 요청(request(n))이 늦게 오므로 DB 에서도 그만큼 천천히 읽는다. (backpressure) */
+    @Operation(summary = "모든 게시글 내보내기", description = "모든 게시글을 한 줄에 하나씩 JSON(application/x-ndjson)으로 내려줍니다.")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<ReadPostResponse>> postExport() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts.ndjson\"");
+
+        return new ResponseEntity<>(reactivePostService.exportPosts(), headers, HttpStatus.OK);
+
+    }
+
+    //If-None-Match 를 한 줄로 (압축 ETag 비교용, PostETags.matching)
+    private String ifNoneMatchOf(ServerWebExchange exchange) {
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().get(HttpHeaders.IF_NONE_MATCH);
+        return ifNoneMatch == null ? null : String.join(",", ifNoneMatch);
+    }
+
+}
@@ -0,0 +1,265 @@
+package org.ohgiraffers.board.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/* 강한 ETag 가 붙은 응답(게시글 단건, 목록)을 gzip 으로 압축한다. (MVC, 톰캣)
+ * 톰캣의 응답 압축(CompressionConfig)은 강한 ETag 가 있으면 압축하지 않는다. (톰캣 10.1 부터 끌 수 없음)
+ * 여기서 직접 압축하면서 ETag 를 압축 전용 값("postId.version-gzip")으로 바꾼다. (PostETags.gzipVariant)
+ * Content-Encoding 이 붙은 응답은 톰캣이 다시 압축하지 않는다.
+ *
+ * - Accept-Encoding 에 gzip 이 없거나, 본문을 쓰기 시작할 때 강한 ETag 가 없으면 그대로 통과시킨다. (SSE, 내보내기는 바로 흘러감)
+ * - 비동기 응답(startAsync 뒤에 쓰는 본문, WriteListener 로 쓰는 non-blocking 쓰기)도 압축하지 않고 원래 응답으로 바로 보낸다.
+ *   요청 스레드가 끝난 뒤에 쓰기가 끝나서 여기서 gzip 을 마무리할 수 없기 때문이다.
+ * - 압축할 종류(JSON 등)이고 min-response-size 를 넘을 때만 압축한다.
+ *   그 크기까지는 모아두었다가 결정한다. => 같은 버전의 본문은 항상 같은 결정이라 같은 ETag 에 같은 바이트가 나간다. */
+@RequiredArgsConstructor
+public class StrongETagGzipFilter extends OncePerRequestFilter {
+
+    private final List<MimeType> mimeTypes;
+    private final int minResponseSize;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        //비동기 디스패치는 처음 요청에서 감싼 응답을 그대로 이어 쓰므로 다시 감싸지 않는다.
+        if (isAsyncDispatch(request) || !PostETags.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        GzipResponse gzipResponse = new GzipResponse(request, response);
+        filterChain.doFilter(request, gzipResponse);
+        //비동기 응답(SSE)은 요청 스레드가 끝난 뒤에도 계속 쓰므로 여기서 마무리하지 않는다. (압축하지 않고 그대로 통과됨)
+        if (!request.isAsyncStarted()) {
+            gzipResponse.finish();
+        }
+    }
+
+    private class GzipResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        //압축할지 정하기 전까지 모아두는 본문
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        //정해진 뒤 본문을 쓸 곳 (원래 응답 또는 gzip), null 이면 아직 모으는 중
+        private OutputStream target;
+        //원래 응답의 출력 스트림 (target 이 정해질 때 같이 정해짐)
+        private ServletOutputStream original;
+        private boolean compressing;
+        private long contentLength = -1;
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        GzipResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() 가 이미 호출되었습니다.");
+            }
+            if (outputStream == null) {
+                outputStream = new GzipOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() 이 이미 호출되었습니다.");
+                }
+                outputStream = new GzipOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        //압축하면 길이가 바뀌므로, 압축할지 정한 뒤에 원래 응답에 넘긴다.
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (target != null) {
+                if (!compressing) {
+                    super.setContentLengthLong(len);
+                }
+                return;
+            }
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+                return;
+            }
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+                return;
+            }
+            super.addHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (flushable()) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                //끝까지 min-response-size 를 넘지 않았으면 압축하지 않는다.
+                passThrough();
+            }
+            if (compressing) {
+                ((GZIPOutputStream) target).finish();
+            }
+        }
+
+        //압축 후보는 압축할지 정하기 전에 헤더가 나가지 않게 flush 하지 않는다. (후보가 아니면 바로 통과로 정함)
+        private boolean flushable() throws IOException {
+            if (target == null) {
+                if (isCandidate()) {
+                    return false;
+                }
+                passThrough();
+            }
+            return true;
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (target == null) {
+                if (!isCandidate()) {
+                    passThrough();
+                } else {
+                    pending.write(bytes, offset, length);
+                    if (pending.size() >= minResponseSize) {
+                        compress();
+                    }
+                    return;
+                }
+            }
+            target.write(bytes, offset, length);
+        }
+
+        //강한 ETag 가 있고, 압축할 종류이고, 아직 인코딩되지 않은 200 응답 (Content-Length 를 알면 min-response-size 이상, 비동기 응답 제외)
+        private boolean isCandidate() {
+            return !request.isAsyncStarted()
+                    && getStatus() == HttpServletResponse.SC_OK
+                    && PostETags.isStrong(getHeader(HttpHeaders.ETAG))
+                    && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && (contentLength < 0 || contentLength >= minResponseSize)
+                    && getContentType() != null
+                    && mimeTypes.stream().anyMatch(MimeTypeUtils.parseMimeType(getContentType())::equalsTypeAndSubtype);
+        }
+
+        private void compress() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(HttpHeaders.ETAG, PostETags.gzipVariant(response.getHeader(HttpHeaders.ETAG)));
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            if (response.getHeaders(HttpHeaders.VARY).stream().noneMatch(vary -> vary.toLowerCase().contains("accept-encoding"))) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            compressing = true;
+            original = response.getOutputStream();
+            target = new GZIPOutputStream(original, 8192);
+            pending.writeTo(target);
+            pending.reset();
+        }
+
+        private void passThrough() throws IOException {
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            original = getResponse().getOutputStream();
+            target = original;
+            pending.writeTo(target);
+            pending.reset();
+        }
+
+        private class GzipOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                GzipResponse.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                GzipResponse.this.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (flushable()) {
+                    target.flush();
+                }
+            }
+
+            //모으는 중에는 메모리에 쓰므로 항상 쓸 수 있고, 정해진 뒤에는 원래 스트림을 따른다.
+            @Override
+            public boolean isReady() {
+                return original == null || original.isReady();
+            }
+
+            //non-blocking 쓰기는 쓰기 전에 listener 를 등록한다. => 아직 정하지 않았으면 압축하지 않기로 정하고 원래 스트림에 맡긴다.
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    if (target == null) {
+                        passThrough();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                original.setWriteListener(writeListener);
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.ohgiraffers.board.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* 강한 ETag 가 붙은 응답(게시글 단건, 목록)의 ETag 를 압축 전용 값("postId.version-gzip")으로 바꾼다. (WebFlux, Netty)
+ * Netty 는 헤더를 보낸 뒤에 압축 여부를 정하므로 그때는 ETag 를 바꿀 수 없다. => 응답을 보내기 직전(beforeCommit)에 여기서 정한다.
+ * CompressionConfig.nettyStrongETagCustomizer 가 "-gzip" ETag 응답은 항상 압축하고, 나머지 강한 ETag 응답은 압축하지 않는다.
+ *
+ * - 200 응답이고, 압축할 종류(JSON 등)이고, gzip 을 deflate 보다 원할 때만 바꾼다.
+ * - Content-Length 를 알면 min-response-size 이상일 때만 바꾼다. (StrongETagGzipFilter 와 같은 기준) */
+@RequiredArgsConstructor
+public class StrongETagGzipWebFilter implements WebFilter {
+
+    private final List<MimeType> mimeTypes;
+    private final int minResponseSize;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!PostETags.prefersGzip(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            if (isCandidate(response)) {
+                HttpHeaders headers = response.getHeaders();
+                headers.setETag(PostETags.gzipVariant(headers.getETag()));
+                if (headers.getVary().stream().noneMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase)) {
+                    List<String> vary = new ArrayList<>(headers.getVary());
+                    vary.add(HttpHeaders.ACCEPT_ENCODING);
+                    headers.setVary(vary);
+                }
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+
+    //강한 ETag 가 있고, 압축할 종류이고, 아직 인코딩되지 않은 200 응답 (상태코드를 정하지 않았으면 200)
+    private boolean isCandidate(ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        MediaType contentType = headers.getContentType();
+        return (response.getStatusCode() == null || response.getStatusCode().isSameCodeAs(HttpStatus.OK))
+                && PostETags.isStrong(headers.getETag())
+                && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                && (headers.getContentLength() < 0 || headers.getContentLength() >= minResponseSize)
+                && contentType != null
+                && mimeTypes.stream().anyMatch(contentType::equalsTypeAndSubtype);
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.ohgiraffers.board.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* 읽기/쓰기 분리 DataSource
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica 에서, 나머지는 primary 에서 커넥션을 가져온다.
+ *
+ * - replica 가 여러 개면 돌아가면서(round robin) 나눠준다.
+ * - replica 에서 커넥션을 못 가져오면 retry-interval 동안 그 replica 는 빼고 다음 replica 를 쓴다.
+ *   시간이 지나면 다시 한 번 시도해보고, 성공하면 다시 사용한다.
+ * - 쓸 수 있는 replica 가 하나도 없으면 primary 에서 읽는다. (읽기가 멈추는 것보다 primary 부하가 느는 게 낫다.)
+ * - 캐시를 채우는 조회(markCacheFill)는 쓰기 트랜잭션이 commit 되고 primary-after-write 동안 primary 에서 읽는다.
+ *   commit 직후에는 replica 에 아직 반영되지 않았을 수 있다. (복제 지연)
+ *   그 사이에 replica 에서 읽은 이전 값이 방금 비운(@CacheEvict) 단건 조회 캐시나 2차 캐시에 다시 들어가면, 만료될 때까지 이전 값이 나간다.
+ *   목록 같은 나머지 조회는 캐시에 남지 않으니 그대로 replica 에서 읽는다.
+ *   => 복제 지연보다 조금 길게 설정한다. 이 서버(인스턴스)에서 commit 한 쓰기만 알 수 있다.
+ *
+ * 트랜잭션이 readOnly 인지는 트랜잭션이 시작된 뒤에 알 수 있으므로, 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ * (첫 SQL 을 실행할 때 커넥션을 가져오게 됨 => RoutingDataSourceConfig) */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long retryIntervalNanos;
+    private final long primaryAfterWriteNanos;
+
+    //캐시를 채우는 조회인지 표시하는 트랜잭션 리소스 키
+    private static final Object CACHE_FILL = new Object();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    //이 시각(System.nanoTime)까지는 캐시를 채우는 조회도 primary 에서 한다. (마지막 쓰기 commit + primary-after-write)
+    private volatile long primaryUntil = System.nanoTime();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration retryInterval,
+                                    Duration primaryAfterWrite) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.primaryAfterWriteNanos = primaryAfterWrite.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Connection connection = connect(primary, username, password);
+            readFromPrimaryAfterCommit();
+            return connection;
+        }
+        if (replicas.isEmpty() || (TransactionSynchronizationManager.hasResource(CACHE_FILL) && System.nanoTime() - primaryUntil < 0)) {
+            return connect(primary, username, password);
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = connect(replica.dataSource, username, password);
+                replica.markUp();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(retryIntervalNanos, e);
+            }
+        }
+
+        //쓸 수 있는 replica 가 없음
+        return connect(primary, username, password);
+
+    }
+
+    //지금 읽기에 쓸 수 있는 replica 수 (상태 확인용)
+    public int availableReplicas() {
+        return (int) replicas.stream().filter(Replica::isAvailable).count();
+    }
+
+    /* 지금 트랜잭션의 조회 결과가 캐시에 들어간다고 표시한다. (첫 SQL 전에 호출)
+     * 쓰기가 막 commit 됐으면 replica 대신 primary 에서 읽는다. 트랜잭션이 끝나면 표시도 지워진다. */
+    public static void markCacheFill() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(CACHE_FILL)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(CACHE_FILL, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CACHE_FILL);
+            }
+        });
+    }
+
+    //쓰기 트랜잭션이 commit 되면 그때부터 primary-after-write 동안 캐시를 채우는 조회는 primary 에서 한다. (rollback 이면 그대로)
+    private void readFromPrimaryAfterCommit() {
+        if (primaryAfterWriteNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                primaryUntil = System.nanoTime() + primaryAfterWriteNanos;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        close(primary);
+        replicas.forEach(replica -> close(replica.dataSource));
+    }
+
+    private Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private void close(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("DataSource 를 닫지 못했습니다.", e);
+            }
+        }
+    }
+
+    private static class Replica {
+
+        private final DataSource dataSource;
+
+        //이 시각(System.nanoTime)까지는 사용하지 않는다. (0 이면 정상)
+        private volatile long downUntil;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            long until = downUntil;
+            return until == 0 || System.nanoTime() - until >= 0;
+        }
+
+        void markDown(long retryIntervalNanos, SQLException cause) {
+            downUntil = System.nanoTime() + retryIntervalNanos;
+            log.warn("replica {} 에 연결하지 못해서 잠시 제외합니다. : {}", dataSource, cause.getMessage());
+        }
+
+        void markUp() {
+            if (downUntil != 0) {
+                downUntil = 0;
+                log.info("replica {} 에 다시 연결되었습니다.", dataSource);
+            }
+        }
+
+    }
+
+}
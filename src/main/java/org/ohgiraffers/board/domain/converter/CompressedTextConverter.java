@@ -0,0 +1,143 @@
+package org.ohgiraffers.board.domain.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.ohgiraffers.board.domain.entity.Post;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/* 긴 글을 압축해서 저장하는 컨버터 (String <-> byte[])
+ * 게시글 내용이 길수록 DB 저장 공간, 버퍼 풀(메모리에 올려두는 페이지), DB 에서 서버로 보내는 바이트가 같이 늘어난다.
+ * 글은 보통 1/3 ~ 1/5 로 줄어들기 때문에 저장할 때 Deflate 로 압축하고, 읽을 때 풀어준다.
+ *
+ * 저장 형식 : [형식 1byte][본문]
+ * - PLAIN    : 본문 = UTF-8 그대로 => 짧은 글은 압축해도 거의 줄지 않고 CPU 만 쓰므로 THRESHOLD_BYTES 보다 짧으면 압축하지 않는다.
+ * - DEFLATED : 본문 = [원래 길이 4byte][Deflate 압축 데이터] => 원래 길이로 풀 배열을 한 번에 만든다.
+ * 압축했는데 오히려 커지면(이미 압축된 데이터 같은 경우) PLAIN 으로 저장한다.
+ * 원래 글은 Post.CONTENT_MAX_BYTES 까지만 저장한다. => 읽을 때 원래 길이가 그 범위를 벗어나면 손상된 값으로 보고 배열을 만들지 않는다.
+ *
+ * 압축된 값은 DB 에서 like, substring 같은 문자열 함수로 다룰 수 없다. (목록 미리보기는 Post.preview 컬럼을 따로 저장) */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte PLAIN = 0;
+    static final byte DEFLATED = 1;
+
+    //이보다 짧은 글(UTF-8 바이트 수)은 압축하지 않는다.
+    static final int THRESHOLD_BYTES = 512;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+
+        if (attribute == null) {
+            return null;
+        }
+
+        byte[] text = attribute.getBytes(StandardCharsets.UTF_8);
+        if (text.length > Post.CONTENT_MAX_BYTES) {
+            throw new IllegalArgumentException("게시글 내용은 " + Post.CONTENT_MAX_BYTES + " bytes 를 넘을 수 없습니다. (" + text.length + " bytes)");
+        }
+        if (text.length >= THRESHOLD_BYTES) {
+            byte[] compressed = deflate(text);
+            if (compressed.length < text.length) {
+                return ByteBuffer.allocate(1 + Integer.BYTES + compressed.length)
+                        .put(DEFLATED).putInt(text.length).put(compressed)
+                        .array();
+            }
+        }
+
+        byte[] column = new byte[1 + text.length];
+        column[0] = PLAIN;
+        System.arraycopy(text, 0, column, 1, text.length);
+        return column;
+
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+
+        if (dbData == null) {
+            return null;
+        }
+        if (dbData.length == 0) {
+            return "";
+        }
+
+        return switch (dbData[0]) {
+            case PLAIN -> new String(dbData, 1, dbData.length - 1, StandardCharsets.UTF_8);
+            case DEFLATED -> new String(inflate(dbData), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("알 수 없는 저장 형식입니다. : " + dbData[0]);
+        };
+
+    }
+
+    private byte[] deflate(byte[] text) {
+
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(text);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(text.length / 2);
+            byte[] buffer = new byte[Math.min(text.length, 8192)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            //Deflater/Inflater 는 네이티브 메모리를 쓰므로 GC 를 기다리지 않고 바로 돌려준다.
+            deflater.end();
+        }
+
+    }
+
+    private byte[] inflate(byte[] dbData) {
+
+        if (dbData.length < 1 + Integer.BYTES) {
+            throw new IllegalStateException("압축된 내용이 손상되었습니다. (원래 길이가 없음)");
+        }
+        //손상된 길이로 큰 배열을 만들지 않게 저장할 수 있는 범위인지 먼저 확인한다.
+        ByteBuffer column = ByteBuffer.wrap(dbData, 1, dbData.length - 1);
+        int originalLength = column.getInt();
+        if (originalLength < 0 || originalLength > Post.CONTENT_MAX_BYTES) {
+            throw new IllegalStateException("압축된 내용이 손상되었습니다. (원래 길이 " + originalLength + " bytes)");
+        }
+        byte[] text = new byte[originalLength];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(dbData, column.position(), column.remaining());
+            int length = 0;
+            while (length < text.length && !inflater.finished()) {
+                int inflated = inflater.inflate(text, length, text.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != text.length) {
+                throw new IllegalStateException("압축된 내용이 손상되었습니다. (" + length + "/" + text.length + " bytes)");
+            }
+            //원래 길이만큼 풀었으면 압축 데이터도 정확히 거기서 끝나야 한다. (더 풀리거나 뒤에 남는 바이트가 있으면 손상)
+            //배열이 딱 찼을 때는 마지막 블록의 끝 표시를 아직 읽지 않았을 수 있어 한 번 더 풀어본다.
+            if (!inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new IllegalStateException("압축된 내용이 손상되었습니다. (원래 길이 " + text.length + " bytes 보다 김)");
+            }
+            if (!inflater.finished() || inflater.getRemaining() > 0) {
+                throw new IllegalStateException("압축된 내용이 손상되었습니다. (압축 데이터가 끝나지 않았거나 뒤에 남는 바이트가 있음)");
+            }
+            return text;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("압축된 내용이 손상되었습니다.", e);
+        } finally {
+            inflater.end();
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchPostResponse { //일괄 등록/수정/삭제 결과
+
+    private int succeeded;
+    private int failed;
+    private List<BatchPostResult> results;
+
+}
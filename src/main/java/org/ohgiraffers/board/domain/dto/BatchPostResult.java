@@ -0,0 +1,31 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchPostResult { //요청 목록의 항목 하나에 대한 처리 결과
+
+    private int index; //요청 목록에서의 순서
+    private Long postId;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        OK,
+        NOT_FOUND,
+        CONFLICT, //다른 요청과 동시에 수정되어서 다시 시도해도 계속 충돌
+        FAILED
+    }
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchUpdatePostRequest { //여러 게시글을 한 번에 수정할 때는 어떤 게시글인지 postId 도 같이 받음.
+
+    private Long postId;
+    private String title;
+    private String content;
+
+}
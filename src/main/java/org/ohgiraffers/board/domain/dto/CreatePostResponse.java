@@ -1,5 +1,6 @@
 package org.ohgiraffers.board.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,4 +14,10 @@ public class CreatePostResponse {//title, content 를 받고 보여줌.
     private String title;
     private String content;
 
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
 }
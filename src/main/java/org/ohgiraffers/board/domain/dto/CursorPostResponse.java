@@ -0,0 +1,18 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPostResponse { //커서 기반 리스트 조회 결과 + 다음 페이지를 요청할 때 넘겨줄 커서
+
+    private List<ListPostResponse> posts; //내용은 앞부분(preview)만
+    private String nextCursor; //다음 페이지가 없으면 null
+    private boolean hasNext;
+
+}
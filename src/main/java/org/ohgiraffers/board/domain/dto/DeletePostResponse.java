@@ -1,5 +1,6 @@
 package org.ohgiraffers.board.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,4 +12,10 @@ public class DeletePostResponse {
 
     private Long postId;
 
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
 }
@@ -0,0 +1,14 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErrorResponse { //예외가 발생했을 때 클라이언트에게 넘겨주는 메시지
+
+    private String message;
+
+}
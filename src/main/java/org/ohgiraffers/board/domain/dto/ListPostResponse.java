@@ -0,0 +1,27 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListPostResponse { //리스트 조회용 => 압축된 내용(content) 전체 대신 앞부분(preview)만 넘겨줌. (전체 내용은 단건 조회)
+
+    private Long postId;
+    private String title;
+    private String preview;
+    private long version;      //목록 ETag
+    private Instant updatedAt;
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
+}
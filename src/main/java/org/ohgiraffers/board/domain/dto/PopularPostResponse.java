@@ -0,0 +1,24 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PopularPostResponse { //인기 글 => 서버를 시작한 뒤의 조회수가 많은 순
+
+    private Long postId;
+    private String title;
+    private String preview;
+    private long views; //근사값 (실제보다 조금 클 수 있음, PostViewCounter)
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
+}
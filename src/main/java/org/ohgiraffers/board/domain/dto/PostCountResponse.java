@@ -0,0 +1,14 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostCountResponse { //전체 게시글 수 (캐시된 근사값)
+
+    private long totalCount;
+
+}
@@ -0,0 +1,41 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostEvent { //게시글 변경 알림 => GET /api/v1/posts/stream (SSE)
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        RESET //놓친 이벤트를 이어서 보내줄 수 없음 => 목록을 다시 조회해야 한다.
+    }
+
+    private long eventId; //SSE id (Last-Event-ID 로 이어받기), 1씩 증가
+    private Type type;
+    private Long postId;  //RESET 이면 null
+    private String title; //DELETED, RESET 이면 null
+    private String preview;
+    //한 트랜잭션에서 여러 게시글이 바뀌면(일괄 처리, 가져오기, 쓰기 지연) 종류별로 모아서 이벤트 하나로 보낸다. (이때 postId, title, preview 는 null)
+    private List<Long> postIds;
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public List<String> getPostIdStrs() {
+        return postIds == null ? null : postIds.stream().map(String::valueOf).toList();
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostImportResponse { //게시글 가져오기(import) 진행 상황 / 결과
+
+    private String importId;
+    private Status status;
+    private long read;       //지금까지 읽은 항목 수 (resumeFrom 으로 건너뛴 항목 포함)
+    private long imported;   //이번 요청에서 저장(commit)된 항목 수
+    private long checkpoint; //여기까지는 저장이 끝났다. => 실패하면 같은 본문을 resumeFrom=checkpoint 로 다시 보내면 이어서 가져온다.
+    private String message;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+}
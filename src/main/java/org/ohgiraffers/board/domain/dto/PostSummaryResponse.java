@@ -0,0 +1,26 @@
+package org.ohgiraffers.board.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummaryResponse { //목록 화면용 => 내용(content) 전체 대신 앞부분(preview)만 넘겨줌.
+
+    //미리보기 글자 수
+    public static final int PREVIEW_LENGTH = 100;
+
+    private Long postId;
+    private String title;
+    private String preview;
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
+
+}
@@ -0,0 +1,15 @@
+package org.ohgiraffers.board.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostVersion { //목록 ETag 계산용, 내용(content) 없이 postId 와 version 만 담는다.
+
+    private Long postId;
+    private long version;
+
+}
@@ -1,9 +1,12 @@
 package org.ohgiraffers.board.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,5 +15,13 @@ public class ReadPostResponse { //모든 필드의 값 넘겨줌.
     private Long postId;
     private String title;
     private String content;
+    private long version;      //ETag
+    private Instant updatedAt; //Last-Modified
+
+    //postId 문자열 (SnowflakeIdGenerator 참고)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getPostIdStr() {
+        return postId == null ? null : postId.toString();
+    }
 
 }
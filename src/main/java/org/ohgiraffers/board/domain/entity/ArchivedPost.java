@@ -0,0 +1,55 @@
+package org.ohgiraffers.board.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.ohgiraffers.board.domain.converter.CompressedTextConverter;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+
+import java.time.Instant;
+
+/* 보관(archive)된 게시글 => post_archive 테이블
+ * 오래된 게시글은 PostArchiveService 가 post 테이블에서 이 테이블로 옮긴다. (post 테이블과 인덱스를 최근 글 크기로 유지)
+ *
+ * 컬럼은 Post 와 같다. => insert ... select 로 압축된 content 를 풀지 않고 그대로 옮긴다.
+ * postId 도 그대로 옮기므로 ID 생성기(@SnowflakeId)는 붙이지 않는다.
+ * 보관된 게시글은 조회/삭제만 하고 수정하지 않는다. (2차 캐시도 사용하지 않음) */
+@Entity
+@Table(name = "post_archive")
+@Builder
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedPost {
+
+    @Id
+    private Long postId;
+
+    private String title;
+
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = Post.CONTENT_MAX_BYTES)
+    private String content;
+
+    @Column(length = PostSummaryResponse.PREVIEW_LENGTH)
+    private String preview;
+
+    private Long version;
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private long viewCount;
+
+    //보관된 시각
+    private Instant archivedAt;
+
+}
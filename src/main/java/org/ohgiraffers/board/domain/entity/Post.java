@@ -1,9 +1,21 @@
 package org.ohgiraffers.board.domain.entity;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ohgiraffers.board.domain.converter.CompressedTextConverter;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.id.SnowflakeId;
+
+import java.time.Instant;
 
 /* Entity
  * 실제 세계의 객체나 개념을 소프트웨어 내에서 모델링 한 것으로, 데이터 베이스의 테이블에 해당하는 클래스
@@ -17,7 +29,15 @@ import lombok.*;
 
 /* @Entity
  * : JPA Entity라는 것을 의미한다. Id와 @GeneratedValue를 이용해 고유 식별자를 정의한다.*/
+
+/* @SnowflakeId
+ * : @GeneratedValue 만 쓰면 MySQL 에서는 hibernate_sequence 테이블을 사용해서 insert 마다 DB 를 한 번 더 다녀온다.
+ *   대신 메모리에서 시간순 ID 를 만들어서 넣어준다. (SnowflakeIdGenerator 참고)*/
 @Entity
+/* @Cache : 하이버네이트 2차 캐시에 저장한다. (SecondLevelCacheConfig)
+ * READ_WRITE : 수정 중인 엔티티는 캐시에 잠금을 걸어서, 다른 트랜잭션이 commit 전 값을 캐시에서 읽지 못하게 한다.*/
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 /* @Builder : 빌더 디자인 패턴을 자동으로 생성해준다.*/
 @Builder
 /* @Getter : 클래스의 모든 필드에 대한 getter 메소드를 자동으로 생성해준다.*/
@@ -29,16 +49,67 @@ import lombok.*;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Post {
 
+    //content 컬럼 크기 (MySQL MEDIUMBLOB 최대 크기)
+    public static final int CONTENT_MAX_BYTES = 16 * 1024 * 1024 - 1;
+
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long postId;
 
     private String title;
+
+    /* content : 긴 글도 저장할 수 있게 BLOB(MySQL 에서는 MEDIUMBLOB, 16MB) 컬럼에 압축해서 저장한다. (CompressedTextConverter)
+     * preview : 목록 화면에 보여줄 내용 앞부분 (PREVIEW_LENGTH 글자)
+     *   압축된 content 는 DB 에서 잘라낼 수 없고, 목록 조회가 BLOB 을 읽지 않게 저장할 때 따로 만들어둔다.
+     *   저장(@PrePersist), update() 할 때 채워진다. (update 문을 직접 쓰는 리액티브 모드는 previewOf() 로 넣어준다.) */
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = CONTENT_MAX_BYTES)
     private String content;
 
+    @Column(length = PostSummaryResponse.PREVIEW_LENGTH)
+    private String preview;
+
+    /* @Version : 낙관적 락(optimistic lock)
+     * 수정될 때마다 하이버네이트가 1씩 올리고, update 문에 "where version = 읽었을 때의 version" 조건을 붙인다.
+     * => 그 사이 다른 요청이 먼저 수정했으면 변경되는 행이 없어서 예외가 발생한다. (덮어쓰기 방지)
+     * HTTP ETag 로도 사용한다. (클라이언트가 가진 게시글이 최신인지 비교, If-Match 로 수정 조건 지정)
+     * 새 엔티티는 null 이어야 persist 된다. (저장할 때 0 으로 채워짐)
+     *
+     * updatedAt : 마지막으로 등록/수정된 시각 => HTTP Last-Modified 로 사용
+     * 리액티브 모드(ReactivePostRepository.updateTitleAndContent)는 update 문에서 version, updatedAt 을 직접 바꿔준다. */
+    @Version
+    private Long version;
+    private Instant updatedAt;
+
+    /* 조회수 : 조회할 때마다 수정하지 않고 PostViewCounter 가 모아서 주기적으로 더한다.
+     * updatable = false => 엔티티를 수정할 때 update 문에 들어가지 않는다. (읽어온 뒤 더해진 조회수를 덮어쓰지 않게)
+     * 조회수가 바뀌어도 version 은 그대로다. (게시글 내용이 바뀐 게 아니니 ETag 도 그대로) */
+    @Column(nullable = false, updatable = false)
+    private long viewCount;
+
+    //저장되기 직전에 호출된다.
+    @PrePersist
+    void onCreate() {
+        if (updatedAt == null) {
+            updatedAt = Instant.now();
+        }
+        preview = previewOf(content);
+    }
+
     public void update(String title, String content) {
         this.title = title;
         this.content = content;
+        this.preview = previewOf(content);
+        this.updatedAt = Instant.now();
+    }
+
+    //내용 앞부분 PREVIEW_LENGTH 글자 (이모지처럼 char 2개짜리 글자가 중간에 잘리지 않게 code point 로 센다.)
+    public static String previewOf(String content) {
+        if (content == null || content.codePointCount(0, content.length()) <= PostSummaryResponse.PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, content.offsetByCodePoints(0, PostSummaryResponse.PREVIEW_LENGTH));
     }
 
 }
@@ -0,0 +1,21 @@
+package org.ohgiraffers.board.domain.id;
+
+import org.hibernate.Interceptor;
+import org.ohgiraffers.board.domain.entity.Post;
+
+/* postId 를 미리 넣어둔 새 Post 를 새 엔티티로 판단하게 해주는 인터셉터
+ * 하이버네이트는 ID 생성기(@SnowflakeId)가 있는 엔티티에 ID 가 이미 들어있으면 이미 저장된(detached) 엔티티로 보고 persist 를 거부한다.
+ * 쓰기 지연 모드는 응답으로 postId 를 먼저 내려주고 나중에 저장하기 때문에, 그 ID 그대로 insert 되어야 한다.
+ * => @Version 이 null 이면 한 번도 저장된 적 없는 엔티티다. (저장할 때 0 으로 채워짐, 스프링 데이터의 isNew 와 같은 기준)
+ * 그 외의 엔티티는 null 을 돌려줘서 하이버네이트가 원래대로 판단하게 한다. */
+public class PreassignedIdInterceptor implements Interceptor {
+
+    @Override
+    public Boolean isTransient(Object entity) {
+        if (entity instanceof Post post && post.getPostId() != null && post.getVersion() == null) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.ohgiraffers.board.domain.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* @SnowflakeId
+ * @Id 필드에 붙이면 insert 전에 SnowflakeIdGenerator 로 만든 ID 가 들어간다.
+ * (@GeneratedValue 와 같이 쓰지 않는다.) */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
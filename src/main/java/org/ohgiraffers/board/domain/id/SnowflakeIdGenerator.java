@@ -0,0 +1,114 @@
+package org.ohgiraffers.board.domain.id;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Snowflake 방식 ID 생성기
+ * DB 에 물어보지 않고 메모리에서 바로 ID 를 만들기 때문에, insert 할 때 추가 왕복(round trip)이 없다.
+ *
+ * 64bit long = [부호 1bit][시간 41bit][워커 10bit][순번 12bit]
+ * - 시간 : EPOCH 이후 지난 밀리초 => ID 가 시간 순서대로 커진다. (postId desc 정렬 = 최신순)
+ * - 워커 : 서버(인스턴스)마다 다른 값을 주면, 여러 대가 동시에 만들어도 겹치지 않는다. (0 ~ 1023)
+ * - 순번 : 같은 밀리초 안에서 4096 개까지 만들 수 있다.
+ *
+ * 주의 : 만들어지는 ID 는 2^53 보다 크기 때문에, JavaScript 의 number 로 받으면 정밀도가 깨진다.
+ *        => 응답의 postId 는 그대로 숫자로 두고(기존 클라이언트 호환), 같은 값을 문자열 postIdStr 로도 내려준다. */
+public final class SnowflakeIdGenerator {
+
+    //2024-01-01T00:00:00Z
+    public static final long EPOCH = 1704067200000L;
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS;
+
+    /* 생성기가 만드는 가장 작은 ID (EPOCH 1ms 뒤에 만들어진 ID)
+     * 이보다 작은 postId 는 Snowflake 로 바꾸기 전(V2 마이그레이션 전, post_seq 번호)에 만들어진 게시글이다.
+     * => 시각이 들어있지 않으므로 timestampOf() 로 나이를 알 수 없다. */
+    public static final long MIN_GENERATED_ID = 1L << TIMESTAMP_SHIFT;
+
+    //시계가 이 정도(ms)까지 뒤로 가면 따라잡을 때까지 기다리고, 그보다 크면 예외
+    private static final long MAX_BACKWARD_MILLIS = 5L;
+
+    //같은 워커 번호로 생성기가 두 개 만들어지면 ID 가 겹칠 수 있으니, JVM 안에서는 워커 번호당 하나만 쓴다.
+    private static final Map<Long, SnowflakeIdGenerator> INSTANCES = new ConcurrentHashMap<>();
+
+    private final long workerId;
+
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    SnowflakeIdGenerator(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 는 0 ~ " + MAX_WORKER_ID + " 사이여야 합니다. : " + workerId);
+        }
+        this.workerId = workerId;
+    }
+
+    public static SnowflakeIdGenerator forWorker(long workerId) {
+        return INSTANCES.computeIfAbsent(workerId, SnowflakeIdGenerator::new);
+    }
+
+    public synchronized long nextId() {
+        long timestamp = currentTimeMillis();
+
+        if (timestamp < lastTimestamp) {
+            long backward = lastTimestamp - timestamp;
+            if (backward > MAX_BACKWARD_MILLIS) {
+                throw new IllegalStateException("시스템 시계가 " + backward + "ms 뒤로 이동해서 ID 를 만들 수 없습니다.");
+            }
+            timestamp = waitUntil(lastTimestamp);
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) { //이번 밀리초의 순번을 다 썼으면 다음 밀리초까지 대기
+                timestamp = waitUntil(lastTimestamp + 1);
+            }
+        } else {
+            sequence = 0L;
+        }
+
+        lastTimestamp = timestamp;
+
+        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT) | (workerId << WORKER_SHIFT) | sequence;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    //ID 가 만들어진 시각
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH);
+    }
+
+    public static long workerIdOf(long id) {
+        return (id >>> WORKER_SHIFT) & MAX_WORKER_ID;
+    }
+
+    //해당 시각 이후에 만들어진 ID 는 모두 이 값보다 크거나 같다. (시간 기준 범위 조회에 사용)
+    public static long minIdAt(Instant instant) {
+        return Math.max(instant.toEpochMilli() - EPOCH, 0L) << TIMESTAMP_SHIFT;
+    }
+
+    private long waitUntil(long targetMillis) {
+        long timestamp = currentTimeMillis();
+        while (timestamp < targetMillis) {
+            Thread.onSpinWait();
+            timestamp = currentTimeMillis();
+        }
+        return timestamp;
+    }
+
+    private long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.ohgiraffers.board.domain.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/* 하이버네이트와 SnowflakeIdGenerator 를 연결해주는 클래스
+ * 워커 번호는 하이버네이트 설정(board.id.worker-id)에서 읽는다. => JpaConfig 에서 스프링 설정값을 넣어준다. */
+public class SnowflakeIdentifierGenerator implements BeforeExecutionGenerator {
+
+    public static final String WORKER_ID_SETTING = "board.id.worker-id";
+
+    private final SnowflakeIdGenerator generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object workerId = context.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSettings()
+                .get(WORKER_ID_SETTING);
+
+        //기본값(0)을 쓰지 않는다. => 인스턴스마다 다른 값을 주지 않으면 postId 가 겹칠 수 있다.
+        if (workerId == null) {
+            throw new IllegalStateException(WORKER_ID_SETTING + " 가 설정되지 않았습니다. 인스턴스마다 다른 워커 번호(0 ~ "
+                    + SnowflakeIdGenerator.MAX_WORKER_ID + ")를 설정해주세요.");
+        }
+        this.generator = SnowflakeIdGenerator.forWorker(Long.parseLong(workerId.toString()));
+    }
+
+    //ID 를 미리 넣어둔 엔티티(쓰기 지연 모드에서 응답으로 먼저 내려준 postId)는 그 값을 그대로 쓴다.
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : generator.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+}
@@ -0,0 +1,13 @@
+package org.ohgiraffers.board.exception;
+
+/* 보관된 게시글(post_archive)을 수정하려고 할 때
+ * 요청 값은 올바르지만 게시글의 현재 상태 때문에 할 수 없는 것 => GlobalExceptionHandler 가 409 로 바꾼다. */
+public class ArchivedPostException extends IllegalStateException {
+
+    public static final String MESSAGE = "보관된 게시글은 수정할 수 없습니다.";
+
+    public ArchivedPostException() {
+        super(MESSAGE);
+    }
+
+}
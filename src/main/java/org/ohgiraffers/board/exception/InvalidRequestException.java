@@ -0,0 +1,16 @@
+package org.ohgiraffers.board.exception;
+
+/* 클라이언트가 보낸 값이 잘못된 요청 (ex. 올바르지 않은 커서, If-Match, resumeFrom, size, 검색어)
+ * GlobalExceptionHandler 가 이 예외만 400 으로 바꾸고 메시지를 그대로 보여준다.
+ * => 다른 IllegalArgumentException(설정 값 오류, 라이브러리 내부 오류)은 메시지가 클라이언트에게 나가지 않는다. */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
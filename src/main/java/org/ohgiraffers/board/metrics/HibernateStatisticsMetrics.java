@@ -0,0 +1,64 @@
+package org.ohgiraffers.board.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToDoubleFunction;
+
+/* 하이버네이트 통계(Statistics)를 hibernate.* 지표로 등록한다.
+ * hibernate-micrometer 모듈은 스프링 부트 3.1 이 쓰는 6.2 최신 버전으로 배포되지 않아서 필요한 값만 직접 연결했다.
+ * (지표 이름은 hibernate-micrometer 와 같게 맞춤)
+ *
+ * 값은 수집할 때마다 Statistics 에서 읽어 오기 때문에 요청 처리 중에 드는 비용은 없다.
+ * 통계 수집이 꺼져 있으면(board.metrics.hibernate-statistics=false) 아무것도 등록하지 않는다. */
+@RequiredArgsConstructor
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        //엔티티 단위 작업
+        counter(registry, "hibernate.entities.loads", "엔티티를 DB 에서 읽어 온 횟수", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.fetches", "지연 로딩 등으로 엔티티를 추가로 읽어 온 횟수", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.entities.inserts", "엔티티 insert 횟수", Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updates", "엔티티 update 횟수", Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deletes", "엔티티 delete 횟수", Statistics::getEntityDeleteCount);
+
+        //세션 / flush / SQL
+        counter(registry, "hibernate.sessions.open", "열린 세션 수", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.flushes", "flush 횟수 (변경 감지 후 SQL 전송)", Statistics::getFlushCount);
+        counter(registry, "hibernate.statements", "준비된(prepare) SQL 문 수", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.query.executions", "JPQL/HQL 실행 횟수", Statistics::getQueryExecutionCount);
+        Gauge.builder("hibernate.query.executions.max", statistics, Statistics::getQueryExecutionMaxTime)
+                .description("가장 오래 걸린 쿼리 실행 시간")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        //2차 캐시
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics, Statistics::getSecondLevelCacheHitCount)
+                .description("2차 캐시 조회 횟수")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics, Statistics::getSecondLevelCacheMissCount)
+                .description("2차 캐시 조회 횟수")
+                .tag("result", "miss")
+                .register(registry);
+        counter(registry, "hibernate.second.level.cache.puts", "2차 캐시 저장 횟수", Statistics::getSecondLevelCachePutCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value)
+                .description(description)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.ohgiraffers.board.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/* 요청마다 실행된 SQL 개수를 board.db.queries 지표로 남긴다.
+ * uri 태그는 http.server.requests 와 같은 값(/api/v1/posts/{postId})을 쓰기 때문에
+ * 같은 API 의 응답 시간과 SQL 개수를 나란히 볼 수 있다. (N+1 같은 문제 찾기) */
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "board.db.queries";
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        queryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long queries = queryCounter.stop();
+
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("요청 하나에서 실행된 SQL 수")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uriOf(request))
+                    .register(meterRegistry)
+                    .record(queries);
+        }
+    }
+
+    //실제 주소(/api/v1/posts/123)를 태그로 쓰면 게시글마다 지표가 생기므로, 매핑된 패턴을 사용한다.
+    private String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+}
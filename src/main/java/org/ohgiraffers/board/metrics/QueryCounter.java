@@ -0,0 +1,37 @@
+package org.ohgiraffers.board.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/* 요청 하나에서 실행된 SQL 개수 세기
+ * 하이버네이트는 SQL 을 DB 로 보내기 직전에 StatementInspector.inspect() 를 호출한다. (JpaConfig 에서 등록)
+ * start() ~ stop() 사이에 같은 스레드에서 실행된 SQL 만 센다. => 스케줄러, 검색 색인 같은 백그라운드 작업은 세지 않는다.
+ * JDBC batch 로 묶여서 나가는 insert/update 는 묶음 하나를 한 번으로 센다. */
+public class QueryCounter implements StatementInspector {
+
+    private final ThreadLocal<Count> current = new ThreadLocal<>();
+
+    public void start() {
+        current.set(new Count());
+    }
+
+    //지금까지 센 개수를 반환하고 초기화한다.
+    public long stop() {
+        Count count = current.get();
+        current.remove();
+        return count == null ? 0 : count.value;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Count count = current.get();
+        if (count != null) {
+            count.value++;
+        }
+        return sql; //SQL 은 바꾸지 않는다.
+    }
+
+    private static final class Count {
+        private long value;
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.ohgiraffers.board.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.web.context.support.RequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.StreamSupport;
+
+/* 시작 시간 보고
+ * 오토스케일러가 새 서버를 띄웠을 때 실제로 요청을 받기까지 얼마나 걸리는지 남긴다.
+ * 시간은 JVM 이 시작된 시점부터 잰다. (스프링 부트의 application.ready.time 은 main() 이후부터라 클래스 로딩(CDS 효과)이 빠진다.)
+ *
+ * board.startup.time{phase=ready}         : 요청을 받을 준비가 된 시점 (ApplicationReadyEvent)
+ * board.startup.time{phase=first-request} : 첫 요청 처리를 마친 시점 (MVC 만, 지연 초기화가 첫 요청으로 미뤄진 비용까지 포함)
+ * 준비가 되면 오래 걸린 빈 생성 단계도 로그로 남긴다. (전체 단계는 /actuator/startup, Mission01BoardApplication 의 BufferingApplicationStartup)
+ *
+ * board.startup.exit-on-ready=true 이면 준비되자마자 종료한다. => CDS 아카이브 학습 실행용 (./gradlew cdsArchive) */
+@Slf4j
+@RequiredArgsConstructor
+public class StartupReport {
+
+    public static final String METRIC_NAME = "board.startup.time";
+
+    private final MeterRegistry meterRegistry;
+    private final ConfigurableApplicationContext context;
+
+    //로그로 남길 오래 걸린 빈 생성 단계 수
+    @Value("${board.startup.slowest-steps:10}")
+    private int slowestSteps;
+
+    @Value("${board.startup.exit-on-ready:false}")
+    private boolean exitOnReady;
+
+    private final AtomicBoolean firstRequestHandled = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        record("ready", uptimeMs);
+        log.info("시작 완료 : JVM 시작부터 {}ms (스프링 부트 시작부터 {}ms)", uptimeMs, event.getTimeTaken().toMillis());
+
+        if (context.getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+            logSlowestSteps(startup.getBufferedTimeline());
+        }
+
+        if (exitOnReady) {
+            log.info("board.startup.exit-on-ready=true => 종료합니다.");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    //DispatcherServlet 이 요청 하나를 끝낼 때마다 발행한다. => 첫 번째만 기록
+    @EventListener(RequestHandledEvent.class)
+    public void onRequestHandled() {
+        if (firstRequestHandled.compareAndSet(false, true)) {
+            long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            record("first-request", uptimeMs);
+            log.info("첫 요청 처리 완료 : JVM 시작부터 {}ms", uptimeMs);
+        }
+    }
+
+    private void record(String phase, long uptimeMs) {
+        TimeGauge.builder(METRIC_NAME, () -> uptimeMs, TimeUnit.MILLISECONDS)
+                .description("JVM 시작부터 걸린 시간")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    //빈 생성 시간은 그 빈이 의존하는 빈을 만드는 시간까지 포함한다.
+    private void logSlowestSteps(StartupTimeline timeline) {
+        timeline.getEvents().stream()
+                .filter(event -> event.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestSteps)
+                .forEach(event -> log.info("  {}ms  {}", event.getDuration().toMillis(), beanNameOf(event.getStartupStep())));
+    }
+
+    private String beanNameOf(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> tag.getKey().equals("beanName"))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+
+}
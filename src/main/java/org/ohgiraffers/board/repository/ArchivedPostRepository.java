@@ -0,0 +1,66 @@
+package org.ohgiraffers.board.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.domain.entity.ArchivedPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+//보관된 게시글 (post_archive) => 조회, 삭제, 그리고 post 테이블에서 옮겨오기
+public interface ArchivedPostRepository extends JpaRepository<ArchivedPost, Long> {
+
+    @Query("select new org.ohgiraffers.board.domain.dto.ReadPostResponse(a.postId, a.title, a.content, a.version, a.updatedAt)"
+            + " from ArchivedPost a where a.postId = :postId")
+    Optional<ReadPostResponse> findResponseById(@Param("postId") Long postId);
+
+    @Query("select new org.ohgiraffers.board.domain.dto.PostSummaryResponse(a.postId, a.title, a.preview) from ArchivedPost a")
+    Slice<PostSummaryResponse> findSummariesBy(Pageable pageable);
+
+    @Query("select new org.ohgiraffers.board.domain.dto.PostSummaryResponse(a.postId, a.title, a.preview) from ArchivedPost a where a.postId in :postIds")
+    List<PostSummaryResponse> findSummariesByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    //검색 색인을 만들 때 => PostRepository.findContentsByCursor 와 같은 커서 조회 (PostSearchIndex.rebuild)
+    @Query("select new org.ohgiraffers.board.domain.dto.ReadPostResponse(a.postId, a.title, a.content, a.version, a.updatedAt)"
+            + " from ArchivedPost a where a.postId < :cursor order by a.postId desc")
+    Slice<ReadPostResponse> findContentsByCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+    /* post 테이블의 게시글을 그대로 복사한다. (insert ... select 한 문장, 애플리케이션으로 행을 가져오지 않음)
+     * content 는 압축된 그대로 옮겨진다. 같은 트랜잭션에서 PostRepository.deleteAllByPostIdIn 으로 원본을 지운다. */
+    @Modifying
+    @Query("insert into ArchivedPost (postId, title, content, preview, version, updatedAt, viewCount, archivedAt)"
+            + " select p.postId, p.title, p.content, p.preview, p.version, p.updatedAt, p.viewCount, :archivedAt"
+            + " from Post p where p.postId in :postIds")
+    int copyFromPosts(@Param("postIds") Collection<Long> postIds, @Param("archivedAt") Instant archivedAt);
+
+    @Modifying
+    @Query("delete from ArchivedPost a where a.postId = :postId")
+    int deleteDirectlyById(@Param("postId") Long postId);
+
+    //일괄 수정/삭제에서 post 테이블에 없던 postId 중 보관된 것만 골라낸다.
+    @Query("select a.postId from ArchivedPost a where a.postId in :postIds")
+    List<Long> findExistingIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("delete from ArchivedPost a where a.postId in :postIds")
+    int deleteDirectlyByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    //전체 내보내기(export)용 => PostRepository.streamAllForExport 와 같은 방식
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new org.ohgiraffers.board.domain.dto.ReadPostResponse(a.postId, a.title, a.content, a.version, a.updatedAt)"
+            + " from ArchivedPost a order by a.postId")
+    Stream<ReadPostResponse> streamAllForExport();
+
+}
@@ -1,11 +1,115 @@
 package org.ohgiraffers.board.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.ohgiraffers.board.domain.dto.ListPostResponse;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.dto.PostVersion;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
 import org.ohgiraffers.board.domain.entity.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
                                 //extends JpaRepository<entity 클래스명, primary key값 타입>
 
+    /* content 는 압축된 BLOB 이다. (CompressedTextConverter)
+     * 새 목록 조회(커서, Slice, 요약)는 content 대신 저장할 때 잘라둔 preview 를 읽는다. => 행마다 BLOB 을 읽고 압축을 풀지 않는다.
+     * content 를 읽는 건 단건 조회(findById), 기존 page 목록(findAllResponses, 하위 호환), 내보내기(streamAllForExport),
+     * 검색 색인 만들기(findContentsByCursor)뿐이다.
+     * (보관된 게시글도 ArchivedPostRepository 의 같은 이름 메소드로 읽는다.) */
+
+    /* 커서(keyset) 기반 조회
+     * OFFSET 은 앞 페이지의 행들을 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+     * postId < :cursor 조건은 PK 인덱스에서 바로 시작 위치를 찾으므로, 몇 번째 페이지든 첫 페이지와 비용이 같다.
+     * Slice 는 size + 1 개를 조회해서 다음 페이지 존재 여부만 판단한다. (count 쿼리 x) */
+    @Query("select new org.ohgiraffers.board.domain.dto.ListPostResponse(p.postId, p.title, p.preview, p.version, p.updatedAt)"
+            + " from Post p where p.postId < :cursor order by p.postId desc")
+    Slice<ListPostResponse> findByCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+    //검색 색인을 만들 때 : 위와 같은 커서 조회지만 내용(content)까지 읽는다. (PostSearchIndex.rebuild)
+    @Query("select new org.ohgiraffers.board.domain.dto.ReadPostResponse(p.postId, p.title, p.content, p.version, p.updatedAt)"
+            + " from Post p where p.postId < :cursor order by p.postId desc")
+    Slice<ReadPostResponse> findContentsByCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+    /* count 쿼리 없이 조회
+     * Page 는 전체 개수를 알기 위해 매번 count 쿼리를 실행하지만,
+     * Slice 는 size + 1 개를 조회해서 다음 페이지가 있는지만 확인한다. */
+    @Query("select new org.ohgiraffers.board.domain.dto.ListPostResponse(p.postId, p.title, p.preview, p.version, p.updatedAt) from Post p")
+    Slice<ListPostResponse> findSliceBy(Pageable pageable);
+
+    /* DTO 프로젝션 (select new ...)
+     * 엔티티 대신 필요한 컬럼만 조회해서 바로 DTO 로 만든다.
+     * => 영속성 컨텍스트에 엔티티와 스냅샷(dirty checking 용 복사본)이 쌓이지 않는다.
+     *
+     * HINT_CACHEABLE : 목록 조회 결과와 count 결과를 하이버네이트 쿼리 캐시에 저장한다. (게시글이 바뀌면 자동으로 버려짐)
+     *
+     * 기존 page 목록(GET /api/v1/posts)은 응답 형식(Page<ReadPostResponse>, 전체 content)을 바꾸지 않으려고 content 까지 읽는다.
+     * 미리보기만 필요하면 커서/Slice/요약 목록을 쓴다. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "select new org.ohgiraffers.board.domain.dto.ReadPostResponse(p.postId, p.title, p.content, p.version, p.updatedAt) from Post p",
+            countQuery = "select count(p) from Post p")
+    Page<ReadPostResponse> findAllResponses(Pageable pageable);
+
+    //목록 화면용 : 내용 대신 저장할 때 잘라둔 앞부분(preview)만 가져온다. (content BLOB 은 읽지 않음)
+    @Query("select new org.ohgiraffers.board.domain.dto.PostSummaryResponse(p.postId, p.title, p.preview) from Post p")
+    Slice<PostSummaryResponse> findSummariesBy(Pageable pageable);
+
+    /* @Modifying
+     * 엔티티를 먼저 조회(SELECT)하지 않고 UPDATE/DELETE 문 하나로 바로 변경한다. 반환값은 변경된 행 수
+     * 어떤 행이 바뀌었는지 하이버네이트가 모르므로 2차 캐시의 Post 영역 전체가 비워진다. (SecondLevelCacheConfig)
+     * => 보관(archive), 일괄 삭제(PostBatchService, deleteAllByIdInBatch)처럼 여러 건을 한 번에 바꿀 때만 쓰고,
+     *    게시글 한 건 수정/삭제는 엔티티로 한다. (PostService)
+     *
+     * 여러 건을 delete 문 하나로 삭제 (보관할 때 ArchivedPostRepository.copyFromPosts 로 복사한 뒤 원본 삭제) */
+    @Modifying
+    @Query("delete from Post p where p.postId in :postIds")
+    int deleteDirectlyByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    /* 보관 대상 : postId 가 cutoff 보다 작은(= 그 시각 이전에 만들어진, SnowflakeIdGenerator.minIdAt) 게시글을 오래된 순서로
+     * PK 범위 조회라 테이블이 커도 앞쪽부터 필요한 만큼만 읽는다.
+     * Snowflake 이전 postId(1, 2, 3 ..., SnowflakeIdGenerator.MIN_GENERATED_ID 미만)는 만들어진 시각을 알 수 없으므로
+     * updatedAt 이 updatedBefore 보다 이전일 때만 옮긴다. (이전 게시글 수만큼만 PK 앞쪽을 더 읽는다.) */
+    @Query("select p.postId from Post p"
+            + " where (p.postId >= :minGeneratedId and p.postId < :cutoff)"
+            + " or (p.postId < :minGeneratedId and p.updatedAt < :updatedBefore)"
+            + " order by p.postId")
+    List<Long> findIdsBefore(@Param("cutoff") Long cutoff, @Param("minGeneratedId") Long minGeneratedId,
+                             @Param("updatedBefore") Instant updatedBefore, Pageable pageable);
+
+    //이미 저장된 postId 만 골라낸다. (쓰기 지연 모드에서 저널을 다시 저장할 때 중복 insert 방지)
+    @Query("select p.postId from Post p where p.postId in :postIds")
+    List<Long> findExistingIds(@Param("postIds") Collection<Long> postIds);
+
+    /* 전체 내보내기(export)용 : 결과를 한 번에 List 로 만들지 않고 Stream 으로 한 건씩 꺼낸다.
+     * fetch size : DB 에서 한 번에 가져올 행 수 => 전체 행이 메모리에 올라오지 않는다.
+     *   (MySQL 은 JDBC URL 에 useCursorFetch=true 가 있어야 fetch size 만큼씩 나눠서 가져온다.)
+     * DTO 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않는다. => 테이블 크기와 상관없이 메모리 사용량이 일정
+     * Stream 은 트랜잭션 안에서 다 읽고 close 해야 한다. (try-with-resources) */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new org.ohgiraffers.board.domain.dto.ReadPostResponse(p.postId, p.title, p.content, p.version, p.updatedAt)"
+            + " from Post p order by p.postId")
+    Stream<ReadPostResponse> streamAllForExport();
+
+    /* 목록의 ETag 계산용 : 내용(content) 없이 postId 와 version 만 조회한다.
+     * 목록 조회(findAllResponses)와 같은 정렬/페이지, 같은 count 쿼리를 사용해야 같은 ETag 가 나온다. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "select new org.ohgiraffers.board.domain.dto.PostVersion(p.postId, p.version) from Post p",
+            countQuery = "select count(p) from Post p")
+    Page<PostVersion> findVersionsBy(Pageable pageable);
 
+    //검색 결과처럼 postId 목록이 정해져 있을 때 요약만 한 번에 조회 (순서는 보장되지 않음)
+    @Query("select new org.ohgiraffers.board.domain.dto.PostSummaryResponse(p.postId, p.title, p.preview) from Post p where p.postId in :postIds")
+    List<PostSummaryResponse> findSummariesByPostIdIn(@Param("postIds") Collection<Long> postIds);
 
 }
@@ -0,0 +1,250 @@
+package org.ohgiraffers.board.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.ohgiraffers.board.domain.converter.CompressedTextConverter;
+import org.ohgiraffers.board.domain.dto.ListPostResponse;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* 리액티브(R2DBC) 게시글 저장소 (reactive 프로필)
+ * PostRepository(JPA)는 쿼리가 끝날 때까지 요청 스레드를 붙잡고 기다린다.
+ * 여기서는 R2DBC 드라이버로 쿼리를 보내고 결과가 오면 이어서 처리한다. (Mono/Flux) => 기다리는 동안 스레드를 놓아준다.
+ *
+ * - JPA 가 아니므로 엔티티(Post)나 영속성 컨텍스트, 2차 캐시는 거치지 않는다. 테이블은 JPA 가 만든 post 테이블을 그대로 쓴다.
+ * - content 는 JPA 와 같은 형식으로 읽고 쓴다. (CompressedTextConverter)
+ * - 쿼리마다 커넥션을 빌려서 쓰고 끝나면 돌려준다. (Mono.usingWhen) => 풀은 r2dbc-pool (URL 의 r2dbc:pool:...)
+ * - 바인드 마커는 ? (MySQL, H2 드라이버 모두 지원) */
+public class ReactivePostRepository implements Closeable {
+
+    private static final String RESPONSE_COLUMNS = "post_id, title, content, version, updated_at";
+    //커서/Slice 목록은 압축된 content 대신 preview 만 읽는다. (PostRepository 와 같음, 기존 page 목록은 content 까지)
+    private static final String LIST_COLUMNS = "post_id, title, preview, version, updated_at";
+
+    //정렬할 수 있는 속성 => 컬럼 (Pageable 의 sort 를 그대로 SQL 에 넣지 않는다.)
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "postId", "post_id",
+            "title", "title",
+            "updatedAt", "updated_at"
+    );
+
+    private final ConnectionFactory connectionFactory;
+    private final CompressedTextConverter contentConverter = new CompressedTextConverter();
+
+    public ReactivePostRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public Mono<ReadPostResponse> findResponseById(Long postId) {
+        return query("select " + RESPONSE_COLUMNS + " from post where post_id = ?", List.of(postId), this::toResponse).next();
+    }
+
+    public Mono<Boolean> existsById(Long postId) {
+        return query("select 1 from post where post_id = ?", List.of(postId), row -> true).hasElements();
+    }
+
+    //보관된 게시글 (post_archive, PostArchiveService) => 조회/삭제만 한다.
+    public Mono<ReadPostResponse> findArchivedResponseById(Long postId) {
+        return query("select " + RESPONSE_COLUMNS + " from post_archive where post_id = ?", List.of(postId), this::toResponse).next();
+    }
+
+    public Mono<Boolean> existsArchivedById(Long postId) {
+        return query("select 1 from post_archive where post_id = ?", List.of(postId), row -> true).hasElements();
+    }
+
+    public Mono<Long> deleteArchivedById(Long postId) {
+        return update("delete from post_archive where post_id = ?", List.of(postId));
+    }
+
+    //postId 목록 중 보관된 게시글의 요약 (순서는 보장되지 않음)
+    public Flux<PostSummaryResponse> findArchivedSummariesByPostIdIn(Collection<Long> postIds) {
+        return findSummariesByPostIdIn("post_archive", postIds);
+    }
+
+    public Mono<Long> count() {
+        return query("select count(*) from post", List.of(), row -> row.get(0, Long.class)).next();
+    }
+
+    //postId 는 미리 만들어서 넣는다. (Snowflake, JPA 로 저장할 때와 같은 방식)
+    public Mono<Long> insert(Long postId, String title, String content, String preview, Instant updatedAt) {
+        return update("insert into post (post_id, title, content, preview, version, updated_at, view_count) values (?, ?, ?, ?, 0, ?, 0)",
+                List.of(postId, nullable(title, String.class), contentOf(content), nullable(preview, String.class), updatedAt));
+    }
+
+    //조회 없이 update 문 하나로 수정 (2차 캐시가 없으니 엔티티를 거칠 이유가 없음) => 변경된 행 수 (0 이면 없는 게시글)
+    public Mono<Long> updateTitleAndContent(Long postId, String title, String content, String preview, Instant updatedAt) {
+        return update("update post set title = ?, content = ?, preview = ?, version = version + 1, updated_at = ? where post_id = ?",
+                List.of(nullable(title, String.class), contentOf(content), nullable(preview, String.class), updatedAt, postId));
+    }
+
+    //If-Match 로 받은 version 일 때만 수정 => 0 이면 게시글이 없거나, 다른 요청이 먼저 수정한 것
+    public Mono<Long> updateTitleAndContentIfVersion(Long postId, long version, String title, String content, String preview,
+                                                     Instant updatedAt) {
+        return update("update post set title = ?, content = ?, preview = ?, version = version + 1, updated_at = ? where post_id = ? and version = ?",
+                List.of(nullable(title, String.class), contentOf(content), nullable(preview, String.class), updatedAt, postId, version));
+    }
+
+    public Mono<Long> deleteById(Long postId) {
+        return update("delete from post where post_id = ?", List.of(postId));
+    }
+
+    //페이지 조회 (offset) => Page 의 전체 개수는 count() 로 따로 구한다. (PostRepository.findAllResponses 와 같이 content 까지)
+    public Flux<ReadPostResponse> findAll(Pageable pageable) {
+        return query("select " + RESPONSE_COLUMNS + " from post" + orderBy(pageable.getSort()) + " limit ? offset ?",
+                List.of(pageable.getPageSize(), pageable.getOffset()), this::toResponse);
+    }
+
+    //Slice 용 : size + 1 개를 조회해서 다음 페이지가 있는지 확인한다.
+    public Flux<ListPostResponse> findSlice(Pageable pageable) {
+        return query("select " + LIST_COLUMNS + " from post" + orderBy(pageable.getSort()) + " limit ? offset ?",
+                List.of(pageable.getPageSize() + 1, pageable.getOffset()), this::toListResponse);
+    }
+
+    //커서(keyset) 조회 : postId < cursor 부터 limit 개
+    public Flux<ListPostResponse> findByCursor(Long cursor, int limit) {
+        return query("select " + LIST_COLUMNS + " from post where post_id < ? order by post_id desc limit ?",
+                List.of(cursor, limit), this::toListResponse);
+    }
+
+    //목록 화면용 Slice : content BLOB 은 읽지 않고 preview 만 (size + 1 개)
+    public Flux<PostSummaryResponse> findSummaries(Pageable pageable) {
+        return findSummaries("post", pageable);
+    }
+
+    //보관된 게시글 목록 (ArchivedPostRepository.findSummariesBy 와 같음, size + 1 개)
+    public Flux<PostSummaryResponse> findArchivedSummaries(Pageable pageable) {
+        return findSummaries("post_archive", pageable);
+    }
+
+    //postId 목록의 요약 (순서는 보장되지 않음)
+    public Flux<PostSummaryResponse> findSummariesByPostIdIn(Collection<Long> postIds) {
+        return findSummariesByPostIdIn("post", postIds);
+    }
+
+    /* 전체 내보내기 : 드라이버가 받는 대로 한 건씩 흘려보낸다.
+     * 구독자가 요청한 만큼만(backpressure) 읽으므로, 느린 클라이언트 때문에 결과 전체가 메모리에 쌓이지 않는다.
+     * 보관된 게시글(post_archive)도 쿼리 하나(union all)로 같이 읽는다. => 그 사이에 보관된 게시글이 빠지지 않는다. */
+    public Flux<ReadPostResponse> findAllForExport() {
+        return query("select " + RESPONSE_COLUMNS + " from post_archive union all select " + RESPONSE_COLUMNS + " from post order by post_id",
+                List.of(), this::toResponse);
+    }
+
+    //풀(r2dbc-pool)을 쓰고 있으면 종료할 때 커넥션을 닫는다.
+    @Override
+    public void close() {
+        if (connectionFactory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    private <T> Flux<T> query(String sql, List<?> binds, Function<Readable, T> mapper) {
+        return Flux.usingWhen(connectionFactory.create(),
+                connection -> Flux.from(bind(connection.createStatement(sql), binds).execute())
+                        .flatMap(result -> result.map(mapper)),
+                Connection::close);
+    }
+
+    private Mono<Long> update(String sql, List<?> binds) {
+        return Mono.usingWhen(connectionFactory.create(),
+                connection -> Flux.from(bind(connection.createStatement(sql), binds).execute())
+                        .flatMap(Result::getRowsUpdated)
+                        .reduce(0L, Long::sum),
+                Connection::close);
+    }
+
+    private Statement bind(Statement statement, List<?> binds) {
+        for (int i = 0; i < binds.size(); i++) {
+            if (binds.get(i) instanceof Null value) {
+                statement.bindNull(i, value.type());
+            } else {
+                statement.bind(i, binds.get(i));
+            }
+        }
+        return statement;
+    }
+
+    private String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort.stream()
+                .map(order -> {
+                    String column = SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new InvalidRequestException("정렬할 수 없는 속성입니다. : " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " asc" : " desc");
+                })
+                .collect(Collectors.joining(", ", " order by ", ""));
+    }
+
+    private ReadPostResponse toResponse(Readable row) {
+        return new ReadPostResponse(row.get("post_id", Long.class), row.get("title", String.class),
+                fromColumn(row.get("content", ByteBuffer.class)), row.get("version", Long.class), row.get("updated_at", Instant.class));
+    }
+
+    private ListPostResponse toListResponse(Readable row) {
+        return new ListPostResponse(row.get("post_id", Long.class), row.get("title", String.class), row.get("preview", String.class),
+                row.get("version", Long.class), row.get("updated_at", Instant.class));
+    }
+
+    private Flux<PostSummaryResponse> findSummaries(String table, Pageable pageable) {
+        return query("select post_id, title, preview from " + table + orderBy(pageable.getSort()) + " limit ? offset ?",
+                List.of(pageable.getPageSize() + 1, pageable.getOffset()), this::toSummary);
+    }
+
+    private Flux<PostSummaryResponse> findSummariesByPostIdIn(String table, Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return Flux.empty();
+        }
+        String markers = String.join(", ", Collections.nCopies(postIds.size(), "?"));
+        return query("select post_id, title, preview from " + table + " where post_id in (" + markers + ")", List.copyOf(postIds), this::toSummary);
+    }
+
+    private PostSummaryResponse toSummary(Readable row) {
+        return new PostSummaryResponse(row.get("post_id", Long.class), row.get("title", String.class), row.get("preview", String.class));
+    }
+
+    //R2DBC 는 바이너리 값을 ByteBuffer 로 주고받는다.
+    private Object contentOf(String content) {
+        byte[] column = contentConverter.convertToDatabaseColumn(content);
+        return column == null ? new Null(ByteBuffer.class) : ByteBuffer.wrap(column);
+    }
+
+    private String fromColumn(ByteBuffer column) {
+        if (column == null) {
+            return null;
+        }
+        byte[] bytes = new byte[column.remaining()];
+        column.get(bytes);
+        return contentConverter.convertToEntityAttribute(bytes);
+    }
+
+    //null 은 타입을 같이 알려줘야 바인딩할 수 있다. (Statement.bindNull)
+    private static Object nullable(Object value, Class<?> type) {
+        return value == null ? new Null(type) : value;
+    }
+
+    private record Null(Class<?> type) {
+    }
+
+}
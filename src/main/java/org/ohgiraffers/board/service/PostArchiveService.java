@@ -0,0 +1,125 @@
+package org.ohgiraffers.board.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ohgiraffers.board.domain.id.SnowflakeIdGenerator;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/* 오래된 게시글 보관(archive) (board.archive.enabled=true 일 때만 사용)
+ * 게시글이 계속 쌓이면 post 테이블과 PK 인덱스, 그리고 DB 메모리(InnoDB 버퍼 풀)에 올려둬야 하는 양이 같이 커진다.
+ * 대부분의 조회는 최근 글에 몰리므로, 만들어진 지 age-days 가 지난 게시글을 post_archive 테이블로 옮겨서 post 테이블을 작게 유지한다.
+ *
+ * - 나이는 postId 로 판단한다. (Snowflake ID 에 만들어진 시각이 들어있음 => PK 범위 조회, updatedAt 인덱스 불필요)
+ *   Snowflake 이전 postId(V2 마이그레이션 전 게시글)는 시각이 없으므로 updatedAt 으로 판단한다. (마이그레이션할 때 그 시각으로 채워짐)
+ * - batch-size 개씩 트랜잭션 하나로 insert ... select 후 delete => 중간에 실패해도 두 테이블에 같이 있거나 빠지는 게시글이 없다.
+ * - 트랜잭션을 짧게 나누고 사이에 batch-pause-ms 만큼 쉬어서, 잠금과 복제 지연이 한 번에 커지지 않게 한다.
+ * - 보관된 게시글도 PostService.readPostById 로 그대로 조회되고(post 에 없으면 post_archive 조회), 삭제할 수 있다. 수정은 할 수 없다.
+ * - 목록 조회(readAllPost 등)와 게시글 수(PostCountCache)는 post 테이블(최근 글)만 대상으로 한다. 보관된 목록은 readArchivedPosts
+ * - 검색(PostSearchIndex)은 보관된 게시글도 찾는다. postId 와 내용이 그대로 옮겨지므로 색인은 바꾸지 않고, 검색 결과의 요약은 post_archive 에서도 조회한다.
+ * - 보관된 게시글의 조회수는 더 이상 늘지 않는다. (PostViewCounter 는 post 테이블에만 더함)
+ *
+ * 여러 서버에서 같이 켜면 같은 게시글을 동시에 옮기려다 한쪽이 실패(중복 키)하고 다음 주기에 다시 시도한다. => 한 서버에서만 켜는 것을 권장 */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "board.archive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PostArchiveService {
+
+    private final PostRepository postRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+    private final PostCountCache postCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    //만들어진 지 이 기간이 지난 게시글을 옮긴다.
+    @Value("${board.archive.age-days:365}")
+    private long ageDays;
+
+    //트랜잭션 하나로 옮길 게시글 수
+    @Value("${board.archive.batch-size:500}")
+    private int batchSize;
+
+    //트랜잭션 사이에 쉬는 시간
+    @Value("${board.archive.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    //한 번 실행할 때 옮길 최대 트랜잭션 수 (처음 켰을 때 밀린 게시글을 여러 주기에 나눠서 옮긴다.)
+    @Value("${board.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    private Counter archived;
+
+    @PostConstruct
+    void init() {
+        if (batchSize < 1 || maxBatchesPerRun < 1 || ageDays < 0) {
+            throw new IllegalArgumentException("board.archive.batch-size, max-batches-per-run 은 1 이상, age-days 는 0 이상이어야 합니다.");
+        }
+        archived = Counter.builder("board.archive.posts")
+                .description("post_archive 로 옮긴 게시글 수")
+                .register(meterRegistry);
+    }
+
+    //board.archive.interval-ms 마다 실행 (기본 1시간) => 반환값 : 옮긴 게시글 수
+    @Scheduled(fixedDelayString = "${board.archive.interval-ms:3600000}", initialDelayString = "${board.archive.initial-delay-ms:60000}")
+    public long archive() throws InterruptedException {
+
+        Instant now = Instant.now();
+        Instant before = now.minus(Duration.ofDays(ageDays));
+        long cutoff = SnowflakeIdGenerator.minIdAt(before);
+
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = moveBatch(cutoff, before, now);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            Thread.sleep(batchPauseMs);
+        }
+
+        if (total > 0) {
+            log.info("게시글 {}건을 post_archive 로 옮겼습니다. ({}일 이전)", total, ageDays);
+        }
+        return total;
+
+    }
+
+    private int moveBatch(long cutoff, Instant before, Instant archivedAt) {
+
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> postIds = postRepository.findIdsBefore(cutoff, SnowflakeIdGenerator.MIN_GENERATED_ID, before,
+                    PageRequest.of(0, batchSize));
+            if (postIds.isEmpty()) {
+                return 0;
+            }
+            int copied = archivedPostRepository.copyFromPosts(postIds, archivedAt);
+            int deleted = postRepository.deleteDirectlyByIdIn(postIds);
+            //그 사이 삭제된 게시글이 있으면 두 수가 같이 줄어든다. 다르면 복사되지 않은 게시글을 지우게 되므로 되돌린다.
+            if (copied != deleted) {
+                throw new IllegalStateException("보관 중 게시글 수가 맞지 않습니다. (복사 " + copied + ", 삭제 " + deleted + ")");
+            }
+            return deleted;
+        });
+
+        int count = moved == null ? 0 : moved;
+        postCountCache.decrement(count);
+        archived.increment(count);
+        return count;
+
+    }
+
+}
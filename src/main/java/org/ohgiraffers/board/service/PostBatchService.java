@@ -0,0 +1,289 @@
+package org.ohgiraffers.board.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.config.CacheConfig;
+import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* 일괄(batch) 등록/수정/삭제
+ * 요청 목록을 chunk-size 개씩 잘라서, chunk 하나를 트랜잭션 하나로 처리한다.
+ * => 항목마다 commit 하지 않고, 하이버네이트 JDBC batch(hibernate.jdbc.batch_size)로 insert/update 를 묶어서 보낸다.
+ *
+ * chunk 처리 중 예외가 나면 그 chunk 는 rollback 되고, 어떤 항목이 문제인지 찾기 위해 하나씩 다시 처리한다.
+ * 결과는 요청 순서대로 항목마다 OK / NOT_FOUND / CONFLICT / FAILED 로 돌려준다.
+ *
+ * chunk 마다 트랜잭션을 따로 열어야 해서 @Transactional 대신 TransactionTemplate 을 사용한다. */
+@Service
+@RequiredArgsConstructor
+public class PostBatchService {
+
+    //요청 한 번에 처리할 수 있는 최대 항목 수
+    static final int MAX_BATCH_ITEMS = 1000;
+
+    private final PostRepository postRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+    private final PostCountCache postCountCache;
+    private final PostSearchIndex postSearchIndex;
+    private final PostEventBroadcaster postEventBroadcaster;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    //트랜잭션 하나에서 처리할 항목 수
+    @Value("${board.batch.chunk-size:100}")
+    private int chunkSize;
+
+    //낙관적 락 충돌로 실패한 항목을 다시 처리할 최대 횟수 (0 이면 다시 처리하지 않음)
+    @Value("${board.batch.optimistic-lock-retries:3}")
+    private int optimisticLockRetries;
+
+    @Timed(value = PostService.TIMER_NAME, extraTags = {"operation", "batch.create"})
+    public BatchPostResponse createPosts(List<CreatePostRequest> requests) {
+
+        return writeInChunks(requests, request -> null, (chunk, offset) -> {
+
+            List<Post> posts = insertPosts(chunk);
+
+            List<BatchPostResult> results = new ArrayList<>(posts.size());
+            for (int i = 0; i < posts.size(); i++) {
+                results.add(new BatchPostResult(offset + i, posts.get(i).getPostId(), BatchPostResult.Status.OK, null));
+            }
+            return results;
+        });
+
+    }
+
+    @Timed(value = PostService.TIMER_NAME, extraTags = {"operation", "batch.update"})
+    public BatchPostResponse updatePosts(List<BatchUpdatePostRequest> requests) {
+
+        return writeInChunks(requests, BatchUpdatePostRequest::getPostId, (chunk, offset) -> {
+
+            //chunk 에 들어있는 게시글을 한 번에 조회
+            Map<Long, Post> foundPosts = findAllById(chunk.stream().map(BatchUpdatePostRequest::getPostId).toList());
+            Set<Long> archivedIds = findArchivedIds(chunk.stream().map(BatchUpdatePostRequest::getPostId)
+                    .filter(postId -> !foundPosts.containsKey(postId)).toList());
+            Cache cache = postCache();
+
+            List<BatchPostResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                BatchUpdatePostRequest request = chunk.get(i);
+                Post foundPost = foundPosts.get(request.getPostId());
+
+                if (foundPost == null) {
+                    //보관된 게시글은 단건 수정(PostService.updatePost)과 같이 수정할 수 없다.
+                    results.add(archivedIds.contains(request.getPostId())
+                            ? new BatchPostResult(offset + i, request.getPostId(), BatchPostResult.Status.FAILED, ArchivedPostException.MESSAGE)
+                            : notFound(offset + i, request.getPostId()));
+                    continue;
+                }
+
+                // Dirty Checking => flush 할 때 update 문이 batch 로 묶여서 실행된다.
+                foundPost.update(request.getTitle(), request.getContent());
+                cache.evict(request.getPostId());
+                postSearchIndex.indexAfterCommit(request.getPostId(), request.getTitle(), request.getContent());
+                postEventBroadcaster.publishAfterCommit(PostEvent.Type.UPDATED, request.getPostId(), request.getTitle(), foundPost.getPreview());
+                results.add(new BatchPostResult(offset + i, request.getPostId(), BatchPostResult.Status.OK, null));
+            }
+
+            flushAndClear();
+            return results;
+        });
+
+    }
+
+    @Timed(value = PostService.TIMER_NAME, extraTags = {"operation", "batch.delete"})
+    public BatchPostResponse deletePosts(List<Long> postIds) {
+
+        return writeInChunks(postIds, Function.identity(), (chunk, offset) -> {
+
+            //존재하는지만 확인하면 되니까 엔티티(내용 BLOB 포함) 대신 postId 만 조회
+            Set<Long> existingIds = new HashSet<>(postRepository.findExistingIds(chunk));
+
+            //존재하는 게시글만 delete ... where post_id in (...) 한 번으로 삭제
+            List<Long> foundIds = chunk.stream().filter(existingIds::contains).distinct().toList();
+            postRepository.deleteAllByIdInBatch(foundIds);
+            postCountCache.decrementAfterCommit(foundIds.size());
+
+            //post 테이블에 없으면 보관된 게시글에서 삭제 (단건 삭제와 같이, 게시글 수는 줄이지 않음)
+            Set<Long> archivedIds = findArchivedIds(chunk.stream().filter(postId -> !existingIds.contains(postId)).distinct().toList());
+            if (!archivedIds.isEmpty()) {
+                archivedPostRepository.deleteDirectlyByIdIn(archivedIds);
+                existingIds.addAll(archivedIds);
+            }
+            List<Long> deletedIds = chunk.stream().filter(existingIds::contains).distinct().toList();
+
+            Cache cache = postCache();
+            deletedIds.forEach(cache::evict);
+            deletedIds.forEach(postSearchIndex::removeAfterCommit);
+            deletedIds.forEach(postId -> postEventBroadcaster.publishAfterCommit(PostEvent.Type.DELETED, postId, null, null));
+
+            List<BatchPostResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long postId = chunk.get(i);
+                results.add(existingIds.contains(postId)
+                        ? new BatchPostResult(offset + i, postId, BatchPostResult.Status.OK, null)
+                        : notFound(offset + i, postId));
+            }
+            return results;
+        });
+
+    }
+
+    /* 게시글 목록을 insert 한다. 호출하는 쪽의 트랜잭션 안에서 실행해야 한다.
+     * 일괄 등록(createPosts)과 가져오기(PostImportService)가 같이 사용한다. */
+    List<Post> insertPosts(List<CreatePostRequest> requests) {
+
+        List<Post> posts = requests.stream()
+                .map(request -> Post.builder()
+                        .title(request.getTitle())
+                        .content(request.getContent())
+                        .build())
+                .toList();
+
+        return persistPosts(posts);
+
+    }
+
+    /* 새 게시글 엔티티를 insert 한다. (postId 를 미리 넣어둔 엔티티도 그 ID 그대로 저장된다. => PostWriteBehindService)
+     * 호출하는 쪽의 트랜잭션 안에서 실행해야 한다. */
+    List<Post> persistPosts(List<Post> posts) {
+
+        postRepository.saveAll(posts);
+        flushAndClear();
+        postCountCache.incrementAfterCommit(posts.size());
+        posts.forEach(post -> {
+            postSearchIndex.indexAfterCommit(post.getPostId(), post.getTitle(), post.getContent());
+            postEventBroadcaster.publishAfterCommit(PostEvent.Type.CREATED, post.getPostId(), post.getTitle(), post.getPreview());
+        });
+
+        return posts;
+
+    }
+
+    private <T> BatchPostResponse writeInChunks(List<T> items, Function<T, Long> postIdOf, ChunkWriter<T> writer) {
+
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("처리할 항목이 없습니다.");
+        }
+        if (items.size() > MAX_BATCH_ITEMS) {
+            throw new InvalidRequestException("한 번에 최대 " + MAX_BATCH_ITEMS + "개까지 처리할 수 있습니다.");
+        }
+
+        List<BatchPostResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, items.size());
+            results.addAll(writeChunk(items.subList(from, to), from, postIdOf, writer));
+        }
+
+        int succeeded = (int) results.stream()
+                .filter(result -> result.getStatus() == BatchPostResult.Status.OK)
+                .count();
+
+        return new BatchPostResponse(succeeded, results.size() - succeeded, results);
+
+    }
+
+    private <T> List<BatchPostResult> writeChunk(List<T> chunk, int offset, Function<T, Long> postIdOf, ChunkWriter<T> writer) {
+
+        try {
+            return transactionTemplate.execute(status -> writer.write(chunk, offset));
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                return retryOrFail(chunk, offset, postIdOf, writer, e);
+            }
+
+            //chunk 전체가 rollback 되었으니, 실패한 항목만 골라내기 위해 하나씩 다시 처리
+            List<BatchPostResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.addAll(writeChunk(chunk.subList(i, i + 1), offset + i, postIdOf, writer));
+            }
+            return results;
+        }
+
+    }
+
+    /* 항목 하나가 실패했을 때
+     * 낙관적 락 충돌(다른 요청이 같은 게시글을 먼저 수정)이면 새 트랜잭션에서 최신 버전을 다시 읽어서 최대 optimisticLockRetries 번 다시 처리한다.
+     * 일괄 수정은 "이 제목/내용으로 바꾼다" 라서 몇 번을 다시 처리해도 결과가 같다. (멱등 => 다시 처리해도 안전)
+     * 그래도 충돌하면 CONFLICT, 다른 예외는 FAILED 로 돌려준다. */
+    private <T> List<BatchPostResult> retryOrFail(List<T> item, int offset, Function<T, Long> postIdOf, ChunkWriter<T> writer,
+                                                  RuntimeException failure) {
+
+        RuntimeException lastFailure = failure;
+        for (int attempt = 0; attempt < optimisticLockRetries && isOptimisticLockFailure(lastFailure); attempt++) {
+            try {
+                return transactionTemplate.execute(status -> writer.write(item, offset));
+            } catch (RuntimeException e) {
+                lastFailure = e;
+            }
+        }
+
+        BatchPostResult.Status status = isOptimisticLockFailure(lastFailure)
+                ? BatchPostResult.Status.CONFLICT
+                : BatchPostResult.Status.FAILED;
+        return List.of(new BatchPostResult(offset, postIdOf.apply(item.get(0)), status, lastFailure.getMessage()));
+
+    }
+
+    //flush 중에는 JPA 예외(OptimisticLockException), commit 중에는 스프링 예외(OptimisticLockingFailureException)로 올라온다.
+    private boolean isOptimisticLockFailure(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException || e instanceof OptimisticLockException;
+    }
+
+    private Map<Long, Post> findAllById(List<Long> postIds) {
+
+        return postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(Post::getPostId, Function.identity()));
+
+    }
+
+    private Set<Long> findArchivedIds(List<Long> postIds) {
+
+        return postIds.isEmpty() ? Set.of() : new HashSet<>(archivedPostRepository.findExistingIds(postIds));
+
+    }
+
+    //모아둔 insert/update 를 DB 로 보내고, 다 쓴 엔티티는 영속성 컨텍스트에서 비워서 메모리가 쌓이지 않게 한다.
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Cache postCache() {
+        return cacheManager.getCache(CacheConfig.POST_CACHE);
+    }
+
+    private BatchPostResult notFound(int index, Long postId) {
+        return new BatchPostResult(index, postId, BatchPostResult.Status.NOT_FOUND, "해당 postId로 조회된 게시글이 없습니다.");
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+
+        //offset : chunk 의 첫 항목이 요청 목록에서 몇 번째인지
+        List<BatchPostResult> write(List<T> chunk, int offset);
+
+    }
+
+}
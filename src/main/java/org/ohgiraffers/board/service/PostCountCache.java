@@ -0,0 +1,77 @@
+package org.ohgiraffers.board.service;
+
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/* 전체 게시글 수 캐시
+ * Page 로 조회하면 요청마다 SELECT COUNT(*) 가 실행된다. (InnoDB 에서는 인덱스 전체를 읽음)
+ * 게시글 수는 정확하지 않아도 되는 경우가 많으니, 메모리에 들고 있다가
+ * 등록/삭제 시에는 직접 더하고 빼고, 일정 주기마다 DB 값으로 다시 맞춘다.
+ * 등록/삭제 트랜잭션 안에서는 commit 된 뒤에 더하고 뺀다. (rollback 된 등록/삭제가 세어지지 않게)
+ * => 서버가 여러 대여도 갱신 주기 안에서만 오차가 생긴다.
+ * 보관된 게시글(post_archive)은 세지 않는다. (목록 조회와 같은 기준, PostArchiveService) */
+@Component
+@RequiredArgsConstructor
+public class PostCountCache {
+
+    //아직 한 번도 DB에서 읽어오지 않은 상태
+    private static final long UNKNOWN = -1L;
+
+    private final PostRepository postRepository;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public long get() {
+        long current = count.get();
+
+        return current == UNKNOWN ? refresh() : current;
+    }
+
+    //board.post-count.refresh-interval-ms 로 갱신 주기 설정 (기본 1분)
+    @Scheduled(fixedDelayString = "${board.post-count.refresh-interval-ms:60000}")
+    public long refresh() {
+        long current = postRepository.count();
+        count.set(current);
+
+        return current;
+    }
+
+    public void increment(long delta) {
+        //아직 읽어온 적이 없으면 다음 get() 에서 DB 값을 읽으니까 건드리지 않는다.
+        count.getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : Math.max(current + delta, 0));
+    }
+
+    public void decrement(long delta) {
+        increment(-delta);
+    }
+
+    //트랜잭션 안에서 호출되면 commit 된 뒤에 반영한다. (rollback 되면 반영하지 않음, 트랜잭션 밖이면 바로 반영)
+    public void incrementAfterCommit(long delta) {
+        afterCommit(() -> increment(delta));
+    }
+
+    public void decrementAfterCommit(long delta) {
+        afterCommit(() -> decrement(delta));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
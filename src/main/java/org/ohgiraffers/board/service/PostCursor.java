@@ -0,0 +1,40 @@
+package org.ohgiraffers.board.service;
+
+import org.ohgiraffers.board.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/* 커서 인코딩/디코딩
+ * 클라이언트에게는 postId 를 그대로 보여주지 않고, Base64(URL-safe) 로 감싼 불투명(opaque) 문자열을 준다.
+ * => 나중에 정렬 기준이 바뀌어도(ex. 작성일 + postId) 클라이언트 코드는 그대로 쓸 수 있다. */
+final class PostCursor {
+
+    private static final String PREFIX = "p:";
+
+    private PostCursor() {
+    }
+
+    static String encode(Long postId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + postId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    //커서가 비어있으면 첫 페이지 => 가장 큰 값부터 시작
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("올바르지 않은 커서입니다.");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) { //NumberFormatException 도 여기서 잡힘
+            throw new InvalidRequestException("올바르지 않은 커서입니다.", e);
+        }
+    }
+
+}
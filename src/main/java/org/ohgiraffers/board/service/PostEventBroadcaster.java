@@ -0,0 +1,265 @@
+package org.ohgiraffers.board.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.domain.dto.PostEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/* 게시글 변경 이벤트 전달 (GET /api/v1/posts/stream, SSE)
+ * 클라이언트가 새 글을 확인하려고 몇 초마다 목록을 조회(polling)하는 대신, 등록/수정/삭제가 commit 될 때 연결된 클라이언트에게 바로 알려준다.
+ *
+ * - 구독자마다 크기가 정해진 대기열(subscriber-buffer)을 둔다. 이벤트를 넣을 때(publish) 기다리지 않는다.
+ *   => 느린 클라이언트 하나 때문에 게시글 저장이나 다른 클라이언트가 느려지지 않는다.
+ * - 대기열이 가득 찬(느린) 구독자는 끊는다. 클라이언트(EventSource)는 마지막으로 받은 id 를 Last-Event-ID 로 보내면서 다시 연결한다.
+ * - 최근 이벤트 replay-size 개를 링 버퍼에 들고 있다가, 다시 연결하면 그 뒤의 이벤트부터 이어서 보내준다.
+ *   링 버퍼에서 이미 밀려난 id 거나 서버가 다시 시작되어 모르는 id 면 RESET 이벤트를 보낸다. => 클라이언트는 목록을 한 번 다시 조회
+ * - 한 트랜잭션에서 바뀐 게시글은 commit 된 뒤 종류(등록/수정/삭제)별로 이벤트 하나로 묶어서 보낸다.
+ *   => 가져오기/일괄 처리처럼 한 번에 수백 건이 commit 돼도 이벤트는 몇 개뿐이라 구독자의 대기열이 넘치지 않는다.
+ * - 이벤트 id 는 서버가 시작된 시각(ms * 1000)부터 1씩 증가한다. => 다시 시작하기 전의 id 는 항상 링 버퍼보다 오래된 id 로 판단된다.
+ *
+ * 이벤트는 이 서버에서 저장한 게시글만 알 수 있다. (서버 안에서만 전달)
+ * 서버가 여러 대면 다른 서버에서 저장한 게시글은 전달되지 않으므로, 여러 서버를 잇는 메시지 브로커(Redis pub/sub 등)가 따로 필요하다. */
+@Component
+@RequiredArgsConstructor
+public class PostEventBroadcaster {
+
+    private final MeterRegistry meterRegistry;
+
+    //다시 연결했을 때 이어서 보내줄 수 있는 최근 이벤트 수
+    @Value("${board.stream.replay-size:1000}")
+    private int replaySize;
+
+    //구독자마다 아직 보내지 못한 이벤트를 쌓아둘 수 있는 수 (넘치면 연결을 끊는다.)
+    @Value("${board.stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    //동시에 연결할 수 있는 최대 구독자 수 (넘으면 503)
+    @Value("${board.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    //이벤트 추가, 구독, 구독 해제는 이 잠금 안에서 한다. => 다시 연결하는 사이에 빠지거나 두 번 받는 이벤트가 없다.
+    private final Object lock = new Object();
+
+    //eventId % replaySize 자리에 저장 (id 가 1씩 증가하므로 따로 찾지 않고 바로 꺼낼 수 있다.)
+    private PostEvent[] recent;
+    private long firstEventId;
+    private long lastEventId;
+
+    private final Set<Subscription> subscriptions = new LinkedHashSet<>();
+
+    private Counter published;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        if (replaySize < 1 || subscriberBuffer < 1 || maxSubscribers < 1) {
+            throw new IllegalArgumentException("board.stream.replay-size, subscriber-buffer, max-subscribers 는 1 이상이어야 합니다.");
+        }
+        recent = new PostEvent[replaySize];
+        lastEventId = System.currentTimeMillis() * 1000;
+        firstEventId = lastEventId + 1;
+
+        published = Counter.builder("board.stream.events")
+                .description("SSE 로 보낸 게시글 변경 이벤트 수")
+                .register(meterRegistry);
+        dropped = Counter.builder("board.stream.dropped")
+                .description("대기열이 가득 차서 끊은 구독자 수")
+                .register(meterRegistry);
+        Gauge.builder("board.stream.subscribers", this, PostEventBroadcaster::subscriberCount)
+                .description("연결된 SSE 구독자 수")
+                .register(meterRegistry);
+    }
+
+    /* 트랜잭션 안에서 호출되면 commit 된 뒤에 보낸다. (rollback 되면 보내지 않음)
+     * 같은 트랜잭션에서 여러 번 호출되면 모아뒀다가 종류별로 이벤트 하나씩만 보낸다. */
+    public void publishAfterCommit(PostEvent.Type type, Long postId, String title, String preview) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(type, postId, title, preview);
+            return;
+        }
+
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingEvents registered = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registered.publish();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PostEventBroadcaster.this);
+                }
+            });
+            pending = registered;
+        }
+        pending.add(new PostEvent(0, type, postId, title, preview, null));
+    }
+
+    public void publish(PostEvent.Type type, Long postId, String title, String preview) {
+        publish(type, postId, title, preview, null);
+    }
+
+    //여러 게시글을 이벤트 하나로 알린다.
+    public void publishAll(PostEvent.Type type, List<Long> postIds) {
+        publish(type, null, null, null, List.copyOf(postIds));
+    }
+
+    private void publish(PostEvent.Type type, Long postId, String title, String preview, List<Long> postIds) {
+        synchronized (lock) {
+            PostEvent event = new PostEvent(++lastEventId, type, postId, title, preview, postIds);
+            recent[slotOf(event.getEventId())] = event;
+
+            //대기열에 넣기만 한다. (보내는 건 구독자마다 따로) 넣을 자리가 없으면 끊는다.
+            Iterator<Subscription> it = subscriptions.iterator();
+            while (it.hasNext()) {
+                Subscription subscription = it.next();
+                if (!subscription.queue.offer(event)) {
+                    it.remove();
+                    subscription.closed = true;
+                    dropped.increment();
+                }
+            }
+        }
+        published.increment();
+    }
+
+    /* 구독 시작
+     * lastEventIdHeader(Last-Event-ID) : 처음 연결하면 null, 다시 연결하면 마지막으로 받은 이벤트 id => 그 뒤의 이벤트부터 대기열에 넣어준다. */
+    public Subscription subscribe(String lastEventIdHeader) {
+        synchronized (lock) {
+            if (subscriptions.size() >= maxSubscribers) {
+                throw new RejectedExecutionException("연결된 구독자가 너무 많습니다. 잠시 후 다시 시도해주세요.");
+            }
+            Subscription subscription = new Subscription(subscriberBuffer);
+            if (lastEventIdHeader != null && !lastEventIdHeader.isBlank()) {
+                replay(subscription, lastEventIdHeader.trim());
+            }
+            subscriptions.add(subscription);
+            return subscription;
+        }
+    }
+
+    public int subscriberCount() {
+        synchronized (lock) {
+            return subscriptions.size();
+        }
+    }
+
+    //종료할 때 연결을 모두 끊는다. => 클라이언트는 다른 서버로 다시 연결해서 RESET 을 받는다.
+    @PreDestroy
+    public void closeAll() {
+        synchronized (lock) {
+            subscriptions.forEach(subscription -> subscription.closed = true);
+            subscriptions.clear();
+        }
+    }
+
+    private void replay(Subscription subscription, String lastEventIdHeader) {
+        long resumeFrom;
+        try {
+            resumeFrom = Long.parseLong(lastEventIdHeader);
+        } catch (NumberFormatException e) {
+            resumeFrom = -1;
+        }
+
+        //링 버퍼에 남아있는 가장 오래된 이벤트 바로 앞 ~ 마지막 이벤트 사이여야 빠짐없이 이어서 보낼 수 있다.
+        long oldest = Math.max(firstEventId, lastEventId - replaySize + 1);
+        if (resumeFrom < oldest - 1 || resumeFrom > lastEventId) {
+            reset(subscription);
+            return;
+        }
+        for (long eventId = resumeFrom + 1; eventId <= lastEventId; eventId++) {
+            if (!subscription.queue.offer(recent[slotOf(eventId)])) {
+                reset(subscription);
+                return;
+            }
+        }
+    }
+
+    //밀린 이벤트 대신 RESET 하나만 보낸다. (id 는 마지막 이벤트 => 다음에 다시 연결하면 지금부터 이어받음)
+    private void reset(Subscription subscription) {
+        subscription.queue.clear();
+        subscription.queue.offer(new PostEvent(lastEventId, PostEvent.Type.RESET, null, null, null, null));
+    }
+
+    private int slotOf(long eventId) {
+        return (int) (eventId % replaySize);
+    }
+
+    //트랜잭션 하나에서 모은 이벤트 => 종류별로 한 건이면 그대로, 여러 건이면 postIds 로 묶어서 보낸다.
+    private class PendingEvents {
+
+        private final Map<PostEvent.Type, List<PostEvent>> byType = new LinkedHashMap<>();
+
+        void add(PostEvent event) {
+            byType.computeIfAbsent(event.getType(), type -> new ArrayList<>()).add(event);
+        }
+
+        void publish() {
+            byType.forEach((type, events) -> {
+                if (events.size() == 1) {
+                    PostEvent event = events.get(0);
+                    PostEventBroadcaster.this.publish(type, event.getPostId(), event.getTitle(), event.getPreview());
+                } else {
+                    publishAll(type, events.stream().map(PostEvent::getPostId).toList());
+                }
+            });
+        }
+
+    }
+
+    /* 구독자 하나 (SSE 연결 하나)
+     * 보내는 쪽(PostEventStreams)은 next 로 이벤트를 하나씩 꺼내서 보내고, isClosed 면 연결을 끝낸다. */
+    public class Subscription {
+
+        private final BlockingQueue<PostEvent> queue;
+        private volatile boolean closed;
+
+        private Subscription(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        //다음 이벤트 (timeout 동안 없으면 null)
+        public PostEvent next(Duration timeout) throws InterruptedException {
+            return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        //느려서 끊겼거나 서버가 종료 중이면 true
+        public boolean isClosed() {
+            return closed;
+        }
+
+        //클라이언트가 연결을 끊었을 때
+        public void close() {
+            synchronized (lock) {
+                closed = true;
+                subscriptions.remove(this);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,244 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.PostImportResponse;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* 게시글 가져오기(import) : NDJSON / CSV 본문을 읽으면서 바로 저장한다.
+ *
+ * 요청 스레드(읽기)  --chunk--> [ 크기가 정해진 큐 ] --chunk--> 저장 스레드(insert + commit)
+ *
+ * - 본문 전체를 메모리에 올리지 않고 한 항목씩 읽어서 chunk-size 개씩 묶는다.
+ * - 읽기와 저장이 서로 다른 스레드라서, 다음 chunk 를 읽는 동안 이전 chunk 가 저장된다.
+ * - 큐가 가득 차면(저장이 느리면) 읽기가 멈춘다. => 요청 본문도 더 읽지 않으니 클라이언트 전송도 느려진다. (backpressure)
+ * - chunk 하나가 트랜잭션 하나다. (PostBatchService.insertPosts 로 JDBC batch insert)
+ *
+ * 실패하면 (형식이 잘못된 항목, DB 오류, 연결 끊김) 거기서 멈추고, 저장이 끝난 위치(checkpoint)를 알려준다.
+ * 같은 본문을 resumeFrom=checkpoint 로 다시 보내면 앞부분은 읽기만 하고 건너뛴다. => 중복 저장 없이 이어서 가져온다.
+ * 진행 상황은 importId 로 조회할 수 있다. (연결이 끊겨서 응답을 못 받았을 때도 checkpoint 확인 가능) */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostImportService {
+
+    //요청 본문 형식
+    public enum Format {
+        NDJSON, //한 줄에 게시글 JSON 하나 (export 결과를 그대로 넣을 수 있음)
+        CSV     //첫 줄은 헤더(title,content)
+    }
+
+    //읽기 스레드가 더 보낼 chunk 가 없다는 표시
+    private static final List<CreatePostRequest> END = List.of();
+
+    private final PostBatchService postBatchService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    //트랜잭션 하나에서 저장할 항목 수
+    @Value("${board.import.chunk-size:500}")
+    private int chunkSize;
+
+    //저장을 기다릴 수 있는 chunk 수 => 읽기가 저장보다 앞서 갈 수 있는 최대 양 (메모리 사용량의 상한)
+    @Value("${board.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final ThreadFactory writerThreads = Thread.ofPlatform().name("post-import-writer-", 0).factory();
+
+    //진행 중이거나 끝난 가져오기 작업 (끝나고 1시간 동안 조회 가능)
+    private final Cache<String, ImportJob> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /* importId   : 진행 상황 조회용 ID (없으면 새로 만든다.)
+     * resumeFrom : 앞에서부터 건너뛸 항목 수 (이전 실패 응답의 checkpoint) */
+    @Timed(value = PostService.TIMER_NAME, extraTags = {"operation", "import"})
+    public PostImportResponse importPosts(String importId, InputStream body, Format format, long resumeFrom) {
+
+        if (resumeFrom < 0) {
+            throw new InvalidRequestException("resumeFrom 은 0 이상이어야 합니다.");
+        }
+
+        ImportJob job = start(importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId);
+        BlockingQueue<List<CreatePostRequest>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Thread writer = writerThreads.newThread(() -> write(job, queue));
+        writer.start();
+
+        List<CreatePostRequest> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<CreatePostRequest> records = reader(format).readValues(body)) {
+            //저장 스레드가 실패하면 더 읽지 않는다.
+            while (!job.isFailed() && records.hasNextValue()) {
+                CreatePostRequest record = records.nextValue();
+                if (job.read.getAndIncrement() < resumeFrom) {
+                    job.skipped.incrementAndGet();
+                    continue;
+                }
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    queue.put(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            //형식이 잘못된 항목 / 연결 끊김 : 그 앞까지 읽은 항목은 저장하고 멈춘다.
+            job.fail((job.read.get() + 1) + "번째 항목을 읽지 못했습니다. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("가져오기가 중단되었습니다.");
+        } finally {
+            finish(queue, chunk, writer, job);
+        }
+
+        return job.toResponse();
+
+    }
+
+    public PostImportResponse getProgress(String importId) {
+
+        ImportJob job = jobs.getIfPresent(importId);
+        if (job == null) {
+            throw new EntityNotFoundException("해당 importId로 조회된 가져오기 작업이 없습니다.");
+        }
+        return job.toResponse();
+
+    }
+
+    private ImportJob start(String importId) {
+
+        ImportJob job = new ImportJob(importId);
+        ImportJob running = jobs.asMap().compute(importId, (id, previous) ->
+                previous != null && previous.status == PostImportResponse.Status.RUNNING ? previous : job);
+        if (running != job) {
+            throw new InvalidRequestException("같은 importId 로 진행 중인 가져오기가 있습니다.");
+        }
+        return job;
+
+    }
+
+    //남은 chunk 와 끝 표시를 넣고, 저장 스레드가 큐를 다 비울 때까지 기다린다.
+    private void finish(BlockingQueue<List<CreatePostRequest>> queue, List<CreatePostRequest> chunk, Thread writer, ImportJob job) {
+
+        try {
+            if (!chunk.isEmpty()) {
+                queue.put(chunk);
+            }
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+            job.fail("가져오기가 중단되었습니다.");
+        }
+        job.complete();
+        log.info("게시글 가져오기 {} : {} (저장 {}건, checkpoint {})", job.importId, job.status, job.imported.get(), job.checkpoint());
+
+    }
+
+    /* 저장 스레드
+     * 실패한 뒤에도 END 를 받을 때까지 큐를 계속 비운다. (읽기 스레드가 put 에서 멈춰 있지 않도록)
+     * 읽기 쪽에서 실패한 경우에는 이미 큐에 들어온 chunk 까지 저장한다. (checkpoint 를 최대한 뒤로) */
+    private void write(ImportJob job, BlockingQueue<List<CreatePostRequest>> queue) {
+
+        boolean writeFailed = false;
+        try {
+            List<CreatePostRequest> chunk;
+            while ((chunk = queue.take()) != END) {
+                if (writeFailed) {
+                    continue;
+                }
+                try {
+                    List<CreatePostRequest> posts = chunk;
+                    transactionTemplate.executeWithoutResult(status -> postBatchService.insertPosts(posts));
+                    job.imported.addAndGet(chunk.size());
+                } catch (RuntimeException e) {
+                    writeFailed = true;
+                    job.fail((job.checkpoint() + 1) + "번째 항목부터 저장하지 못했습니다. " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+    }
+
+    private ObjectReader reader(Format format) {
+
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(CreatePostRequest.class);
+            case CSV -> csvMapper.readerFor(CreatePostRequest.class).with(CsvSchema.emptySchema().withHeader());
+        };
+
+    }
+
+    //가져오기 작업 하나의 진행 상황 (읽기/저장 스레드가 같이 갱신한다.)
+    private static class ImportJob {
+
+        private final String importId;
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private volatile PostImportResponse.Status status = PostImportResponse.Status.RUNNING;
+        private volatile String message;
+
+        private ImportJob(String importId) {
+            this.importId = importId;
+        }
+
+        //건너뛴 항목 + 저장된 항목 = 다음에 건너뛸 항목 수
+        long checkpoint() {
+            return skipped.get() + imported.get();
+        }
+
+        boolean isFailed() {
+            return message != null;
+        }
+
+        //처음 실패한 이유만 남긴다.
+        synchronized void fail(String reason) {
+            if (message == null) {
+                message = reason;
+            }
+        }
+
+        void complete() {
+            status = isFailed() ? PostImportResponse.Status.FAILED : PostImportResponse.Status.COMPLETED;
+        }
+
+        PostImportResponse toResponse() {
+            return new PostImportResponse(importId, status, read.get(), imported.get(), checkpoint(), message);
+        }
+
+    }
+
+}
@@ -0,0 +1,483 @@
+package org.ohgiraffers.board.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+/* 게시글 검색용 역색인(inverted index)
+ * 토큰(bigram, 글자 하나) => 그 토큰이 들어있는 게시글과 가중치 목록을 메모리에 들고 있다.
+ * LIKE '%검색어%' 처럼 테이블 전체를 읽지 않고, 검색어 토큰들의 목록만 보고 결과를 찾는다.
+ *
+ * - 메모리 : 게시글은 색인에 넣은 순서대로 번호(doc, int)를 받고, 토큰마다 doc 과 가중치를 int 배열 두 개에 이어 붙인다. (Postings)
+ *   => 게시글 하나의 토큰 하나가 8 바이트 (HashMap<Long, Integer> 로 들고 있으면 엔트리와 박싱 객체로 수십 바이트)
+ *   doc 은 계속 커지기만 하므로 배열은 항상 정렬되어 있고, 추가는 끝에 붙이기만 하면 된다.
+ * - 수정/삭제 : 예전 doc 을 지운 것으로 표시만 하고 목록에서는 빼지 않는다. => 게시글마다 토큰 목록을 따로 들고 있지 않아도 된다.
+ *   지운 doc 은 검색할 때 건너뛰고, 다시 만들 때(rebuild) 사라진다.
+ * - 시작할 때, 그리고 resync-interval-ms 마다 : DB 의 게시글(보관된 게시글 post_archive 포함)을 커서 방식으로 읽어서 새 색인을 만들고 바꿔 끼운다.
+ *   만드는 동안(별도 스레드)에는 이전 색인으로 검색하고, 그 사이의 등록/수정/삭제는 새 색인에도 다시 반영한 뒤 바꿔 끼운다.
+ *   (시작 직후 처음 만들기 전까지는 검색 결과가 없다. 만드는 동안에는 색인 두 개만큼 메모리를 쓴다.)
+ * - 보관(PostArchiveService) : postId 와 내용이 그대로 옮겨지므로 색인은 바꾸지 않는다.
+ * - 등록/수정/삭제 : 트랜잭션이 commit 된 뒤 색인에 반영한다.
+ * - 정렬 : 검색어 토큰이 모두 들어있는 게시글만 골라서 TF-IDF 점수 순으로 정렬 (제목에 있는 토큰은 가중치를 더 준다.)
+ *
+ * 색인은 서버마다 따로 있고, 그 서버에서 저장한 게시글만 바로 반영된다. (PostEventBroadcaster 와 같은 한계)
+ * 서버가 여러 대면 다른 서버에서 등록/수정/삭제한 게시글은 다음 resync 때까지 검색 결과에 늦게 반영된다.
+ * => 바로 반영하려면 서버 사이의 변경 알림(Redis pub/sub 등)이나 외부 검색 엔진이 필요하다. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostSearchIndex {
+
+    //제목에 들어있는 토큰은 내용보다 이만큼 더 쳐준다.
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //지금 검색에 쓰는 색인
+    private Segment current = new Segment();
+    //새 색인을 만드는 동안 들어온 변경 (만들고 있지 않으면 null) => 바꿔 끼우기 전에 새 색인에 다시 반영
+    private List<Change> changesWhileBuilding;
+
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildInBackground();
+    }
+
+    //board.search.resync-interval-ms 로 다시 만드는 주기 설정 (기본 10분) => 다른 서버에서 바뀐 게시글 반영, 지운 doc 정리
+    @Scheduled(fixedDelayString = "${board.search.resync-interval-ms:600000}", initialDelayString = "${board.search.resync-interval-ms:600000}")
+    public void resync() {
+        rebuildInBackground();
+    }
+
+    //스케줄러 스레드(조회수 저장 등과 같이 씀)를 오래 붙잡지 않게 별도 스레드에서 만든다.
+    private void rebuildInBackground() {
+        Thread builder = new Thread(this::rebuild, "post-search-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public void rebuild() {
+        //이미 만들고 있으면 그쪽 결과를 쓴다.
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        long indexed = 0;
+
+        lock.writeLock().lock();
+        try {
+            changesWhileBuilding = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            //post 를 먼저, post_archive 를 나중에 읽는다. (읽는 도중 보관(archive)으로 옮겨진 게시글도 post_archive 에서 읽힘)
+            Segment next = new Segment();
+            indexed += indexAll(next, postRepository::findContentsByCursor);
+            indexed += indexAll(next, archivedPostRepository::findContentsByCursor);
+
+            lock.writeLock().lock();
+            try {
+                changesWhileBuilding.forEach(change -> change.applyTo(next));
+                next.trimToSize();
+                current = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("게시글 검색 색인 완료 : {}건, {}ms", indexed, System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            //이전 색인을 그대로 쓴다.
+            log.error("게시글 검색 색인 중 오류가 발생했습니다. ({}건까지 읽음)", indexed, e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesWhileBuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            building.set(false);
+        }
+    }
+
+    //커서 방식으로 끝까지 읽으면서 색인 => 반환값 : 읽은 게시글 수
+    private long indexAll(Segment segment, BiFunction<Long, Pageable, Slice<ReadPostResponse>> findContentsByCursor) {
+        long indexed = 0;
+        Long cursor = Long.MAX_VALUE;
+        Slice<ReadPostResponse> chunk;
+        do {
+            chunk = findContentsByCursor.apply(cursor, PageRequest.of(0, BUILD_CHUNK_SIZE));
+            for (ReadPostResponse post : chunk) {
+                segment.put(post.getPostId(), weigh(post.getTitle(), post.getContent()));
+                cursor = post.getPostId();
+            }
+            indexed += chunk.getNumberOfElements();
+        } while (chunk.hasNext());
+        return indexed;
+    }
+
+    //트랜잭션 안에서 호출되면 commit 된 뒤에 반영한다. (rollback 되면 반영하지 않음)
+    public void indexAfterCommit(Long postId, String title, String content) {
+        afterCommit(() -> index(postId, title, content));
+    }
+
+    public void removeAfterCommit(Long postId) {
+        afterCommit(() -> remove(postId));
+    }
+
+    public void index(Long postId, String title, String content) {
+        apply(new Change(postId, weigh(title, content)));
+    }
+
+    public void remove(Long postId) {
+        apply(new Change(postId, null));
+    }
+
+    /* 검색
+     * offset, limit : 몇 번째 결과부터 몇 개를 가져올지 (페이지 처리)
+     * 반환값 : 해당 페이지의 postId 목록(점수 순) + 전체 결과 수 */
+    public SearchResult search(String query, long offset, int limit) {
+        List<String> queryTokens = List.copyOf(new LinkedHashSet<>(PostTokenizer.tokenizeQuery(query)));
+        if (queryTokens.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            return current.search(queryTokens, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(current);
+            if (changesWhileBuilding != null) {
+                changesWhileBuilding.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> weigh(String title, String content) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : PostTokenizer.tokenize(title)) {
+            weights.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : PostTokenizer.tokenize(content)) {
+            weights.merge(token, 1, Integer::sum);
+        }
+        return weights;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+
+        private List<Long> postIds;
+        private long total;
+
+    }
+
+    //등록/수정(weights 가 있음) 또는 삭제(weights 가 null)
+    private record Change(Long postId, Map<String, Integer> weights) {
+
+        void applyTo(Segment segment) {
+            if (weights == null) {
+                segment.remove(postId);
+            } else {
+                segment.put(postId, weights);
+            }
+        }
+
+    }
+
+    //검색 결과 하나 (점수, 점수가 같으면 최신 게시글(postId 가 큰 것)이 앞)
+    private record Hit(long postId, double score) {
+
+        //나쁜 결과가 앞 => 우선순위 큐의 맨 앞(peek)이 지금까지 모은 결과 중 가장 나쁜 것
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::postId);
+
+    }
+
+    /* 색인 하나 (잠금은 PostSearchIndex 가 잡는다.)
+     * doc : 색인에 넣을 때마다 1씩 커지는 번호, postIds[doc] = postId (수정/삭제되어 지운 doc 은 REMOVED) */
+    private static class Segment {
+
+        private static final long REMOVED = -1L;
+
+        //토큰 => 그 토큰이 들어있는 doc 목록
+        private final Map<String, Postings> postings = new HashMap<>();
+        //postId => 지금 살아있는 doc
+        private final PostIdMap docs = new PostIdMap();
+        private long[] postIds = new long[1024];
+        private int nextDoc;
+
+        void put(long postId, Map<String, Integer> weights) {
+            remove(postId);
+
+            int doc = nextDoc++;
+            if (doc == postIds.length) {
+                postIds = Arrays.copyOf(postIds, postIds.length + (postIds.length >> 1));
+            }
+            postIds[doc] = postId;
+            docs.put(postId, doc);
+            weights.forEach((token, weight) -> postings.computeIfAbsent(token, key -> new Postings()).add(doc, weight));
+        }
+
+        void remove(long postId) {
+            int doc = docs.remove(postId);
+            if (doc >= 0) {
+                postIds[doc] = REMOVED;
+            }
+        }
+
+        int size() {
+            return docs.size();
+        }
+
+        void trimToSize() {
+            postIds = Arrays.copyOf(postIds, Math.max(nextDoc, 1));
+            postings.values().forEach(Postings::trimToSize);
+        }
+
+        /* 가장 짧은 목록을 돌면서 나머지 목록에도 모두 있는 doc 만 점수 계산
+         * 목록이 모두 doc 순으로 정렬되어 있으니, 나머지 목록은 앞에서 찾은 위치부터 이진 탐색한다.
+         * 결과는 offset + limit 개만 우선순위 큐에 남기고(더 나쁜 결과는 버림), 전체 결과 수는 세기만 한다. */
+        SearchResult search(List<String> queryTokens, long offset, int limit) {
+            Postings[] lists = new Postings[queryTokens.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(queryTokens.get(i));
+                if (lists[i] == null) { //하나라도 없는 토큰이 있으면 결과 없음
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+            //목록 길이에는 지운 doc 도 들어있다. (다시 만들 때까지의 근사값)
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + (double) size() / lists[i].size());
+            }
+
+            int keep = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(Math.min(keep, 1024), 1), Hit.WORST_FIRST);
+            int[] from = new int[lists.length];
+            long total = 0;
+
+            Postings shortest = lists[0];
+            candidates:
+            for (int i = 0; i < shortest.size(); i++) {
+                int doc = shortest.docs[i];
+                if (postIds[doc] == REMOVED) {
+                    continue;
+                }
+                double score = (1 + Math.log(shortest.weights[i])) * idf[0];
+                for (int j = 1; j < lists.length; j++) {
+                    int found = lists[j].find(doc, from[j]);
+                    if (found < 0) {
+                        from[j] = -found - 1;
+                        continue candidates;
+                    }
+                    from[j] = found + 1;
+                    score += (1 + Math.log(lists[j].weights[found])) * idf[j];
+                }
+
+                total++;
+                if (keep > 0) {
+                    Hit hit = new Hit(postIds[doc], score);
+                    if (top.size() < keep) {
+                        top.add(hit);
+                    } else if (Hit.WORST_FIRST.compare(hit, top.peek()) > 0) {
+                        top.poll();
+                        top.add(hit);
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Hit.WORST_FIRST.reversed());
+            List<Long> page = hits.stream()
+                    .skip(offset)
+                    .map(Hit::postId)
+                    .toList();
+
+            return new SearchResult(page, total);
+        }
+
+    }
+
+    //토큰 하나의 doc 목록 (doc 오름차순) 과 doc 별 가중치
+    private static class Postings {
+
+        private int[] docs = new int[2];
+        private int[] weights = new int[2];
+        private int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                int capacity = size + Math.max(size >> 1, 2);
+                docs = Arrays.copyOf(docs, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        //from 부터 doc 을 찾는다. => 위치, 없으면 -(들어갈 위치) - 1
+        int find(int doc, int from) {
+            return Arrays.binarySearch(docs, from, size, doc);
+        }
+
+        void trimToSize() {
+            docs = Arrays.copyOf(docs, size);
+            weights = Arrays.copyOf(weights, size);
+        }
+
+    }
+
+    /* postId => doc (long => int)
+     * HashMap<Long, Integer> 처럼 엔트리마다 객체를 만들지 않고 배열 두 개에 바로 넣는다. (open addressing, linear probing)
+     * 지울 때는 빈 칸 뒤에 밀려나 있던 값들을 앞으로 당긴다. => 지운 표시(tombstone) 없이 찾기가 끊기지 않는다. */
+    private static class PostIdMap {
+
+        private static final long EMPTY = -1L; //postId 는 음수가 아니다.
+
+        private long[] keys = newKeys(16);
+        private int[] values = new int[16];
+        private int size;
+
+        void put(long postId, int doc) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int slot = find(postId);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = postId;
+                size++;
+            }
+            values[slot] = doc;
+        }
+
+        //지운 doc, 없으면 -1
+        int remove(long postId) {
+            int gap = find(postId);
+            if (keys[gap] == EMPTY) {
+                return -1;
+            }
+            int removed = values[gap];
+            size--;
+
+            int mask = keys.length - 1;
+            for (int slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                //원래 자리(home)에서 gap 까지가 slot 까지보다 가까우면 gap 으로 당겨도 찾을 수 있다.
+                int home = home(keys[slot], mask);
+                if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                    keys[gap] = keys[slot];
+                    values[gap] = values[slot];
+                    gap = slot;
+                }
+            }
+            keys[gap] = EMPTY;
+            return removed;
+        }
+
+        int size() {
+            return size;
+        }
+
+        //postId 가 있는 칸, 없으면 넣을 빈 칸
+        private int find(long postId) {
+            int mask = keys.length - 1;
+            int slot = home(postId, mask);
+            while (keys[slot] != EMPTY && keys[slot] != postId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(capacity);
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        //Snowflake postId 는 아래 비트(순번, 워커)가 자주 겹치므로 섞어서 칸을 고른다.
+        private static int home(long postId, int mask) {
+            return (int) ((postId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+    }
+
+}
@@ -1,15 +1,38 @@
 package org.ohgiraffers.board.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.config.CacheConfig;
+import org.ohgiraffers.board.datasource.ReplicaRoutingDataSource;
 import org.ohgiraffers.board.domain.dto.*;
 import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
 import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /* Service 를 인터페이스와 구현체로 나누는 이유(기능이 추가와 변경이 많을 것 같은 프로젝트면 인터페이스와 클래스로 나누는 게 좋고, 그렇지 않으면 굳이 나누지 않고 사용)
  * 1. 다형성과 OCP원칙을 지키기 위해
  *    인터페이스와 구현체가 나누어지면, 구현체는 외부로부터 독립되어, 구현체의 수정이나 확장이 자유로워진다.
@@ -32,8 +55,24 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor//final 사용할 때, required 생성자 필요
 public class PostService {//서비스는 repository랑 연결
 
+    //커서 조회 시 한 번에 가져올 수 있는 최대 개수
+    static final int MAX_CURSOR_SIZE = 100;
+
+    //인기 글 조회 시 한 번에 가져올 수 있는 최대 개수
+    static final int MAX_POPULAR_SIZE = 100;
+
+    /* 메소드별 실행 시간 지표 이름 (operation 태그로 구분)
+     * /actuator/metrics/board.post.service?tag=operation:read */
+    public static final String TIMER_NAME = "board.post.service";
+
     private final PostRepository postRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+    private final PostCountCache postCountCache;
+    private final PostSearchIndex postSearchIndex;
+    private final PostViewCounter postViewCounter;
+    private final PostEventBroadcaster postEventBroadcaster;
 
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "create"})
     @Transactional
     public CreatePostResponse createPost(CreatePostRequest request) {
 
@@ -45,60 +84,250 @@ public class PostService {//서비스는 repository랑 연결
 
         //입력한 데이터 저장
         Post savedPost = postRepository.save(post);
+        postCountCache.incrementAfterCommit(1);
+        postSearchIndex.indexAfterCommit(savedPost.getPostId(), savedPost.getTitle(), savedPost.getContent());
+        postEventBroadcaster.publishAfterCommit(PostEvent.Type.CREATED, savedPost.getPostId(), savedPost.getTitle(), savedPost.getPreview());
 
         return new CreatePostResponse(savedPost.getPostId(), savedPost.getTitle(), savedPost.getContent());
     }
 
+    /* @Cacheable : 같은 postId 로 다시 조회하면 DB 대신 캐시에 저장된 결과를 반환한다.
+     * sync = true : 캐시에 없는 인기 게시글에 요청이 몰려도 DB 조회는 한 번만 실행된다.
+     * 캐시 프록시가 @Timed 보다 바깥에서 실행되므로 operation=read 지표는 캐시 miss(DB 조회)만 잰다.
+     * (캐시 hit 까지 포함한 응답 시간은 http.server.requests, hit/miss 횟수는 cache.gets)
+     * post 테이블에 없으면 보관된 게시글(post_archive)에서 한 번 더 찾는다. (PostArchiveService)
+     * 조회 결과가 캐시(단건 조회 캐시, 2차 캐시)에 들어가므로, 쓰기 직후에는 replica 대신 primary 에서 읽는다. (ReplicaRoutingDataSource) */
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "read"})
+    @Cacheable(cacheNames = CacheConfig.POST_CACHE, key = "#postId", sync = true)
     public ReadPostResponse readPostById(Long postId) { //조회만 할 것이니까 @Transactional 필요 x
 
+        ReplicaRoutingDataSource.markCacheFill();
+
         //예외 처리
-        Post foundPost = postRepository.findById(postId)
+        return postRepository.findById(postId)
+                .map(foundPost -> new ReadPostResponse(foundPost.getPostId(), foundPost.getTitle(), foundPost.getContent(),
+                        foundPost.getVersion(), foundPost.getUpdatedAt()))
+                .or(() -> archivedPostRepository.findResponseById(postId))
                 .orElseThrow(() -> new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."));
 
-        return new ReadPostResponse(foundPost.getPostId(), foundPost.getTitle(), foundPost.getContent());
-
     }
 
+    //수정/삭제되면 캐시에 남아있는 이전 게시글을 지운다.
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "update"})
+    @CacheEvict(cacheNames = CacheConfig.POST_CACHE, key = "#postId")
     @Transactional //데이터베이스의 상태 변경하니까 붙여줌.
-    public UpdatePostResponse updatePost(Long postId, UpdatePostRequest request) {
-
-        //id가 있는지 확인
-        Post foundPost = postRepository.findById(postId)
-                .orElseThrow(() -> new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."));
+    public UpdatePostResponse updatePost(Long postId, UpdatePostRequest request, Long expectedVersion) {
 
-        // Dirty Checking : DB에서 변경된 사항이 감지되면 자동으로 변경해줌.
-        // update => PostRepository에서 DB의 변경된 사항이 감지되면 자동으로 변경
-        foundPost.update(request.getTitle(), request.getContent());
+        /* 엔티티를 조회해서 바꾸면 commit 할 때 dirty checking 으로 update 문이 나간다.
+         * JPQL update 와 달리 2차 캐시에서 이 게시글만 바뀐다. (SecondLevelCacheConfig)
+         * expectedVersion(If-Match) 이 있으면 그 version 일 때만 수정한다. => 다르면 다른 요청이 먼저 수정한 것(409)
+         * 조회한 뒤 commit 전에 다른 요청이 먼저 수정해도 update 문의 version 조건(@Version) 때문에 409 가 된다. */
+        Post post = postRepository.findById(postId).orElseThrow(() -> {
+            if (archivedPostRepository.existsById(postId)) {
+                return new ArchivedPostException();
+            }
+            return new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다.");
+        });
+        if (expectedVersion != null && !expectedVersion.equals(post.getVersion())) {
+            throw new OptimisticLockingFailureException("다른 요청에서 게시글이 먼저 수정되었습니다. 다시 조회한 뒤 수정해주세요.");
+        }
+        post.update(request.getTitle(), request.getContent());
+        postSearchIndex.indexAfterCommit(postId, request.getTitle(), request.getContent());
+        postEventBroadcaster.publishAfterCommit(PostEvent.Type.UPDATED, postId, request.getTitle(), post.getPreview());
 
-        return new UpdatePostResponse(foundPost.getPostId(), foundPost.getTitle(), foundPost.getContent());
+        return new UpdatePostResponse(postId, request.getTitle(), request.getContent());
 
     }
 
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "delete"})
+    @CacheEvict(cacheNames = CacheConfig.POST_CACHE, key = "#postId")
     @Transactional
     public DeletePostResponse deletePost(Long postId) {
 
-        //id가 있는지 확인
-        Post foundPost = postRepository.findById(postId)
-                .orElseThrow(() -> new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."));
+        //엔티티를 조회해서 삭제 => 2차 캐시에서 이 게시글만 지워진다. (JPQL delete 는 Post 영역 전체를 비움)
+        //post 테이블에 없으면 보관된 게시글에서 삭제, 거기도 없으면 없는 게시글
+        Optional<Post> post = postRepository.findById(postId);
+        if (post.isPresent()) {
+            postRepository.delete(post.get());
+            postCountCache.decrementAfterCommit(1);
+        } else if (archivedPostRepository.deleteDirectlyById(postId) == 0) {
+            throw new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다.");
+        }
+        postSearchIndex.removeAfterCommit(postId);
+        postEventBroadcaster.publishAfterCommit(PostEvent.Type.DELETED, postId, null, null);
 
-        postRepository.delete(foundPost);
-
-        return new DeletePostResponse(foundPost.getPostId());
+        return new DeletePostResponse(postId);
 
     }
 
     //list 조회
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list"})
     public Page<ReadPostResponse> readAllPost(Pageable pageable) {
 
         //Page<T> : 페이지 정보를 담게 되는 인터페이스
         //Pageable : 페이지 처리에 필요한 정보를 담게 되는 인터페이스
 
-        //Post 클래스를 타입으로 페이징처리,,
-        Page<Post> postsPage = postRepository.findAll(pageable);
+        //엔티티(Post)를 조회해서 map() 으로 바꾸는 대신, DB 에서 바로 ReadPostResponse 로 조회 (DTO 프로젝션)
+        //=> 영속성 컨텍스트에 Post 엔티티가 올라가지 않는다.
+        //기존 응답 형식(전체 content)은 그대로 유지하고, 미리보기(preview)만 필요하면 커서/Slice/요약 목록을 쓴다.
+        return postRepository.findAllResponses(pageable);
+
+    }
+
+    //목록 ETag 계산용 : 내용 없이 postId, version 만 조회 (readAllPost 와 같은 페이지)
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list.version"})
+    public Page<PostVersion> readPostVersions(Pageable pageable) {
+
+        return postRepository.findVersionsBy(pageable);
+
+    }
+
+    //커서 기반 list 조회
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list.cursor"})
+    public CursorPostResponse readPostsAfter(String after, int size) {
+
+        //after : 이전 응답에서 받은 nextCursor (첫 페이지는 비워서 요청)
+        Long cursor = PostCursor.decode(after);
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_SIZE);
+
+        //정렬은 쿼리에 들어있으니 Pageable 에는 개수만 넘겨준다. (offset 은 항상 0)
+        Slice<ListPostResponse> postsSlice = postRepository.findByCursor(cursor, PageRequest.of(0, pageSize));
+
+        List<ListPostResponse> posts = postsSlice.getContent();
+
+        //다음 페이지가 있으면 마지막 postId 를 커서로 만들어 준다.
+        String nextCursor = postsSlice.hasNext() && !posts.isEmpty()
+                ? PostCursor.encode(posts.get(posts.size() - 1).getPostId())
+                : null;
+
+        return new CursorPostResponse(posts, nextCursor, nextCursor != null);
+
+    }
+
+    //count 쿼리 없는 list 조회
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list.slice"})
+    public Slice<ListPostResponse> readAllPostSlice(Pageable pageable) {
+
+        return postRepository.findSliceBy(pageable);
+
+    }
+
+    //목록 화면용 list 조회 : postId, 제목, 내용 미리보기만 조회 (count 쿼리 x)
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list.summary"})
+    public Slice<PostSummaryResponse> readPostSummaries(Pageable pageable) {
+
+        return postRepository.findSummariesBy(pageable);
+
+    }
+
+    //제목/내용 검색 : 메모리의 역색인에서 점수 순으로 postId 를 찾고, 해당 페이지의 게시글 요약만 DB 에서 조회
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "search"})
+    public Page<PostSummaryResponse> searchPosts(String query, Pageable pageable) {
+
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("검색어를 입력해주세요.");
+        }
+
+        PostSearchIndex.SearchResult result = postSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize());
+        if (result.getPostIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.getTotal());
+        }
+
+        //in 조회는 순서를 보장하지 않으니 검색 점수 순서대로 다시 정렬
+        Map<Long, PostSummaryResponse> summaries = findSummaries(result.getPostIds());
+
+        List<PostSummaryResponse> content = result.getPostIds().stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(content, pageable, result.getTotal());
+
+    }
+
+    //인기 글 : 메모리에서 조회수 상위 postId 를 찾고, 그 게시글 요약만 DB 에서 조회 (삭제된 게시글은 빠짐)
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "popular"})
+    public List<PopularPostResponse> readPopularPosts(int size) {
+
+        if (size < 1 || size > MAX_POPULAR_SIZE) {
+            throw new InvalidRequestException("size 는 1 ~ " + MAX_POPULAR_SIZE + " 사이여야 합니다.");
+        }
+
+        List<Map.Entry<Long, Long>> top = postViewCounter.top(size);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, PostSummaryResponse> summaries = findSummaries(top.stream().map(Map.Entry::getKey).toList());
+
+        return top.stream()
+                .filter(entry -> summaries.containsKey(entry.getKey()))
+                .map(entry -> {
+                    PostSummaryResponse summary = summaries.get(entry.getKey());
+                    return new PopularPostResponse(summary.getPostId(), summary.getTitle(), summary.getPreview(), entry.getValue());
+                })
+                .toList();
+
+    }
+
+    /* 전체 게시글 내보내기 : 한 건씩 읽어서 바로 writer 에 넘긴다. (목록을 메모리에 모으지 않음)
+     * 보관된 게시글(post_archive, 오래된 글)을 먼저, 그다음 post 테이블을 postId 순으로 내보낸다.
+     * 두 조회가 같은 읽기 트랜잭션이라 (MySQL REPEATABLE READ) 그 사이에 보관(archive)된 게시글이 빠지거나 두 번 나오지 않는다.
+     * Stream 은 DB 커서를 물고 있으므로 이 메소드(트랜잭션) 안에서 끝까지 읽고 닫아야 한다.
+     * 내보내는 동안 커넥션 하나를 계속 쓰므로, 느린 클라이언트는 그만큼 커넥션을 오래 잡는다.
+     * 반환값 : 내보낸 게시글 수 */
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "export"})
+    public long exportPosts(Consumer<ReadPostResponse> writer) {
+
+        long count = 0;
+        try (Stream<ReadPostResponse> archived = archivedPostRepository.streamAllForExport()) {
+            count += export(archived, writer);
+        }
+        try (Stream<ReadPostResponse> posts = postRepository.streamAllForExport()) {
+            count += export(posts, writer);
+        }
+        return count;
+
+    }
+
+    //전체 게시글 수 (캐시된 근사값) => 페이지 수가 꼭 필요한 클라이언트만 따로 요청
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "count"})
+    public PostCountResponse readPostCount() {
+
+        return new PostCountResponse(postCountCache.get());
+
+    }
+
+    //보관된 게시글 목록 (post_archive) : 요약만 조회 (count 쿼리 x)
+    @Timed(value = TIMER_NAME, extraTags = {"operation", "list.archive"})
+    public Slice<PostSummaryResponse> readArchivedPosts(Pageable pageable) {
+
+        return archivedPostRepository.findSummariesBy(pageable);
+
+    }
+
+    private long export(Stream<ReadPostResponse> posts, Consumer<ReadPostResponse> writer) {
+
+        long count = 0;
+        for (Iterator<ReadPostResponse> it = posts.iterator(); it.hasNext(); count++) {
+            writer.accept(it.next());
+        }
+        return count;
+
+    }
+
+    //postId 목록의 요약 : post 테이블에 없는 것만 post_archive 에서 한 번 더 조회 (순서는 보장되지 않음)
+    private Map<Long, PostSummaryResponse> findSummaries(List<Long> postIds) {
+
+        Map<Long, PostSummaryResponse> summaries = postRepository.findSummariesByPostIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostSummaryResponse::getPostId, Function.identity(), (a, b) -> a, HashMap::new));
 
-        //findAll(pageable) => 필드를 다 찾겠다.// 다 찾은 값들=postsPage를 post필드로 5개씩 묶을 거다.
-        //map() : 모든 값들을 다 선언하면서 일일이 postPage에 넣어 줄 수 없으니, map 함수를 활용하여 값들을 postId,title,content 3개가 묶여서 여러개가 저장됨.
-        return postsPage.map(post -> new ReadPostResponse(post.getPostId(), post.getTitle(), post.getContent()));
+        if (summaries.size() < postIds.size()) {
+            List<Long> missing = postIds.stream().filter(postId -> !summaries.containsKey(postId)).toList();
+            archivedPostRepository.findSummariesByPostIdIn(missing)
+                    .forEach(summary -> summaries.put(summary.getPostId(), summary));
+        }
+        return summaries;
 
     }
 
@@ -0,0 +1,71 @@
+package org.ohgiraffers.board.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/* 검색용 토큰 분리기 (bigram)
+ * 한국어는 띄어쓰기 단위로 자르면 조사가 붙어서("게시판에", "게시판을") 검색이 잘 안 되기 때문에,
+ * 글자/숫자가 이어진 단어를 두 글자씩 겹쳐서 자른다.
+ * ex) "게시판에" => [게시, 시판, 판에] , "board" => [bo, oa, ar, rd]
+ * 한 글자짜리 단어는 그대로 토큰이 된다.
+ *
+ * 색인할 때(tokenize)는 글자 하나하나(unigram)도 토큰으로 넣는다. => 한 글자 검색어("글")가 긴 단어("게시글") 안에서도 찾아진다.
+ * 검색할 때(tokenizeQuery)는 두 글자 이상인 단어면 bigram 만 쓴다. (bigram 이 있는 게시글에는 그 글자들도 항상 있으니 목록만 늘어남) */
+final class PostTokenizer {
+
+    private PostTokenizer() {
+    }
+
+    //색인용 : bigram + 모든 글자
+    static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    //검색어용 : bigram (한 글자 단어만 그 글자)
+    static List<String> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<String> tokenize(String text, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        //전각/반각, 호환 문자 등을 같은 문자로 맞추고 소문자로 바꾼다.
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        int wordStart = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letterOrDigit = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+
+            if (letterOrDigit && wordStart < 0) {
+                wordStart = i;
+            } else if (!letterOrDigit && wordStart >= 0) {
+                addTokens(normalized.substring(wordStart, i), unigrams, tokens);
+                wordStart = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private static void addTokens(String word, boolean unigrams, List<String> tokens) {
+        if (word.length() == 1) {
+            tokens.add(word);
+            return;
+        }
+
+        for (int i = 0; i + 2 <= word.length(); i++) {
+            tokens.add(word.substring(i, i + 2));
+        }
+        if (unigrams) {
+            for (int i = 0; i < word.length(); i++) {
+                tokens.add(word.substring(i, i + 1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package org.ohgiraffers.board.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* 게시글 조회수
+ * 조회할 때마다 UPDATE post SET view_count = view_count + 1 을 실행하면 인기 글의 행 잠금에 요청이 줄을 서게 된다.
+ * 대신 조회수는 메모리(postId 별 LongAdder)에 더해두고, 일정 주기마다 모인 만큼만 한 번에 DB 에 더한다.
+ * => 인기 글에 조회가 1000번 몰려도 DB 에는 주기마다 update 한 번
+ *
+ * - LongAdder : 여러 스레드가 동시에 더해도 서로 다른 칸(cell)에 더하기 때문에 AtomicLong 처럼 한 값을 두고 경쟁하지 않는다.
+ * - 저장(flush)은 board.views.flush-interval-ms 마다, 그리고 종료할 때(@PreDestroy) 한 번 더 한다.
+ *   저장에 실패하면 다음 주기에 다시 더한다. (서버가 갑자기 죽으면 마지막 주기의 조회수는 잃는다.)
+ * - view_count 는 엔티티 수정(dirty checking)으로 덮어쓰지 않는다. (Post.viewCount 의 updatable = false)
+ *
+ * 인기 글 : 저장할 때 모인 조회수로 상위 게시글을 메모리에서 추려둔다. (TopK, 서버를 시작한 뒤의 조회수 기준) */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostViewCounter {
+
+    private static final String FLUSH_SQL = "update post set view_count = view_count + ? where post_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    //update 문을 몇 개씩 묶어서 보낼지 (JDBC batch)
+    @Value("${board.views.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    //인기 글 후보를 몇 개까지 들고 있을지 (조회할 수 있는 최대 인기 글 수)
+    @Value("${board.views.top-k-capacity:100}")
+    private int topKCapacity;
+
+    //아직 DB 에 더하지 않은 조회수
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private TopK topK;
+
+    @PostConstruct
+    void init() {
+        topK = new TopK(topKCapacity);
+    }
+
+    //조회 1번 (요청 스레드에서 호출, 잠금 없음)
+    public void increment(Long postId) {
+        LongAdder adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        adder.increment();
+        //꺼낸 뒤 더하기 전에 flush 가 비운(evict) LongAdder 였으면, 더한 조회수를 map 에 있는 LongAdder 로 옮긴다.
+        if (pending.get(postId) != adder) {
+            drain(postId, adder);
+        }
+    }
+
+    //조회수가 많은 순으로 size 개의 (postId, 조회수) => 조회수는 최대 한 주기만큼 늦게 반영된다.
+    public List<Map.Entry<Long, Long>> top(int size) {
+        return topK.top(size);
+    }
+
+    @Scheduled(fixedDelayString = "${board.views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+
+        //postId 순으로 update => 여러 서버가 동시에 저장해도 같은 순서로 행을 잠가서 교착(deadlock)이 생기지 않는다.
+        List<Object[]> deltas = new ArrayList<>();
+        pending.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    long delta = entry.getValue().sumThenReset();
+                    if (delta > 0) {
+                        deltas.add(new Object[]{delta, entry.getKey()});
+                    } else {
+                        //한 주기 동안 조회가 없었던 게시글은 비운다. (map 이 계속 커지지 않게)
+                        evict(entry.getKey(), entry.getValue());
+                    }
+                });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, deltas, flushBatchSize,
+                    (ps, delta) -> {
+                        ps.setLong(1, (Long) delta[0]);
+                        ps.setLong(2, (Long) delta[1]);
+                    }));
+        } catch (RuntimeException e) {
+            //다음 주기에 다시 더한다.
+            deltas.forEach(delta -> pending.computeIfAbsent((Long) delta[1], id -> new LongAdder()).add((Long) delta[0]));
+            log.warn("조회수 {}건을 저장하지 못했습니다. 다음 주기에 다시 저장합니다. : {}", deltas.size(), e.getMessage());
+            return;
+        }
+
+        deltas.forEach(delta -> topK.add((Long) delta[1], (Long) delta[0]));
+
+    }
+
+    //종료할 때 남은 조회수 저장
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /* 조회가 없는지 확인하고 지우는 것을 한 번에 한다. (computeIfPresent : 그 사이에 같은 postId 의 computeIfAbsent 가 끼어들지 않음)
+     * 이미 LongAdder 를 꺼내간 increment 가 지운 뒤에 더할 수 있으니, 지운 LongAdder 에 남은 조회수도 다시 옮긴다.
+     * => 여기서 옮기거나, 더한 쪽(increment)이 map 에서 빠진 걸 보고 옮긴다. (sumThenReset 이 칸마다 getAndSet 이라 두 번 세지 않음) */
+    private void evict(Long postId, LongAdder adder) {
+        pending.computeIfPresent(postId, (id, current) -> current == adder && current.sum() == 0 ? null : current);
+        if (pending.get(postId) != adder) {
+            drain(postId, adder);
+        }
+    }
+
+    //map 에서 빠진 LongAdder 에 남은 조회수를 map 에 있는 LongAdder 로 옮긴다.
+    private void drain(Long postId, LongAdder removed) {
+        long late = removed.sumThenReset();
+        if (late > 0) {
+            pending.computeIfAbsent(postId, id -> new LongAdder()).add(late);
+        }
+    }
+
+    /* 상위 K 개 게시글 (Space-Saving 알고리즘)
+     * 모든 게시글의 조회수를 들고 있지 않고 capacity 개의 칸만 쓴다.
+     * 칸이 다 찼는데 새 게시글이 들어오면 가장 적은 칸을 그 게시글에게 넘겨주고, 원래 있던 수에 이어서 더한다.
+     * => 실제보다 크게 셀 수는 있어도(최대 넘겨받은 수만큼) 정말 많이 조회된 게시글은 빠지지 않는다.
+     * flush 할 때만 더하기 때문에(주기마다 한 번) 잠금(synchronized)이 조회 요청을 막지 않는다. */
+    private static class TopK {
+
+        private final int capacity;
+        private final Map<Long, Long> counts = new HashMap<>();
+
+        private TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void add(Long postId, long delta) {
+            Long count = counts.get(postId);
+            if (count != null || counts.size() < capacity) {
+                counts.put(postId, (count == null ? 0 : count) + delta);
+                return;
+            }
+
+            Map.Entry<Long, Long> min = counts.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+            counts.remove(min.getKey());
+            counts.put(postId, min.getValue() + delta);
+        }
+
+        synchronized List<Map.Entry<Long, Long>> top(int size) {
+            return counts.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                    .limit(size)
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+
+    }
+
+}
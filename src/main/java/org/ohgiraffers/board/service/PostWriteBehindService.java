@@ -0,0 +1,301 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.JDBCConnectionException;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.CreatePostResponse;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.domain.id.SnowflakeIdGenerator;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/* 쓰기 지연(write-behind) 모드의 게시글 등록 (board.write-behind.enabled=true 일 때만 사용)
+ *
+ * 요청 스레드 : postId 를 미리 만들고 => 저널(파일)에 덧붙이고 => 큐에 넣고 => 바로 202 Accepted
+ * 저장 스레드 : 큐에 쌓인 게시글을 최대 batch-size 개씩 꺼내서 트랜잭션 하나로 insert (JDBC batch)
+ *
+ * - DB commit 을 기다리지 않으니 등록 응답이 빨라지고, 몰려서 들어온 게시글은 한 번에 묶어서 저장된다.
+ * - 대신 202 를 받은 직후에는 아직 조회되지 않을 수 있다. (보통 수 ms ~ 저장 스레드가 따라잡을 때까지)
+ * - 큐에는 queue-capacity 개까지만 쌓는다. 가득 차면 503 으로 거절한다. (메모리 보호 + 클라이언트가 속도를 줄이게)
+ * - 서버가 죽으면 큐는 사라지지만 저널은 남는다. => 다시 시작할 때 저널을 읽어서 아직 저장되지 않은 게시글을 저장한다.
+ *   postId 를 미리 정해뒀기 때문에 이미 저장된 게시글은 postId 로 골라내서 두 번 저장하지 않는다.
+ * - DB 연결 문제는 저장될 때까지 간격을 늘려가며 다시 시도하고, 데이터 문제로 실패한 게시글은 저널의 dead-letter 파일에 남긴다. */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "board.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PostWriteBehindService {
+
+    //DB 연결 문제로 실패했을 때 다시 시도하는 간격 (두 배씩 늘려서 최대 30초)
+    private static final Duration MIN_RETRY_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final PostBatchService postBatchService;
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${board.id.worker-id}")
+    private long workerId;
+
+    //저장을 기다릴 수 있는 최대 게시글 수
+    @Value("${board.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    //트랜잭션 하나로 묶어서 저장할 최대 게시글 수
+    @Value("${board.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${board.write-behind.journal-dir:./data/write-behind}")
+    private Path journalDir;
+
+    @Value("${board.write-behind.fsync:true}")
+    private boolean fsync;
+
+    //종료할 때 큐에 남은 게시글을 저장하며 기다리는 최대 시간 (못 끝낸 게시글은 저널에 남아서 다음 시작 때 저장)
+    @Value("${board.write-behind.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    private final BlockingQueue<PostWriteJournal.Entry> queue = new LinkedBlockingQueue<>();
+
+    //저널 append 와 큐에 넣는 순서를 같게 맞춘다. (큐 순서 = 순번 순서여야 markCommitted 가 맞음)
+    private final Object appendLock = new Object();
+
+    private Semaphore permits;
+    private SnowflakeIdGenerator idGenerator;
+    private PostWriteJournal journal;
+    private Thread writer;
+    private Counter deadLetters;
+    private Counter syncFailures;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() throws IOException {
+
+        permits = new Semaphore(queueCapacity);
+        idGenerator = SnowflakeIdGenerator.forWorker(workerId);
+        journal = new PostWriteJournal(journalDir, fsync, objectMapper);
+
+        //이전 실행에서 저장하지 못한 게시글 (용량 제한 없이 먼저 넣는다.)
+        List<PostWriteJournal.Entry> recovered = journal.recover();
+        queue.addAll(recovered);
+        if (!recovered.isEmpty()) {
+            log.info("쓰기 지연 저널에서 게시글 {}건을 다시 저장합니다.", recovered.size());
+        }
+
+        Gauge.builder("board.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("저장을 기다리는 게시글 수")
+                .register(meterRegistry);
+        deadLetters = Counter.builder("board.write-behind.dead-letters")
+                .description("저장하지 못해서 dead-letter 파일에 남긴 게시글 수")
+                .register(meterRegistry);
+        syncFailures = Counter.builder("board.write-behind.journal.sync-failures")
+                .description("저널 fsync 에 실패했지만 큐에 넣어서 202 를 응답한 게시글 수")
+                .register(meterRegistry);
+
+        running = true;
+        writer = Thread.ofPlatform().name("post-write-behind").start(this::drain);
+
+    }
+
+    /* 게시글을 저장 대기열에 넣고 미리 만든 postId 를 돌려준다.
+     * 저널에 기록된 뒤에 돌아오므로, 응답을 받은 게시글은 서버가 죽어도 사라지지 않는다.
+     * (fsync 가 실패했을 때만 예외 : 아래 참고) */
+    public CreatePostResponse accept(CreatePostRequest request) {
+
+        if (!running) {
+            throw new RejectedExecutionException("서버가 종료 중이라 게시글을 받을 수 없습니다.");
+        }
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("저장 대기 중인 게시글이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        PostWriteJournal.Entry entry = new PostWriteJournal.Entry(idGenerator.nextId(), request.getTitle(), request.getContent(), Instant.now());
+        long seq;
+        try {
+            synchronized (appendLock) {
+                seq = journal.append(entry);
+                queue.add(entry);
+            }
+        } catch (IOException e) {
+            permits.release();
+            throw new UncheckedIOException("쓰기 지연 저널에 기록하지 못했습니다.", e);
+        }
+
+        /* 디스크에 기록된 뒤에 응답한다. (동시에 들어온 요청들과 fsync 를 같이 함)
+         * fsync 가 실패해도 게시글은 이미 큐에 있어서 저장 스레드가 저장한다.
+         * => 에러(500)를 응답하면 클라이언트가 다시 보내서 두 번 저장되므로, 202 를 응답하고 기록만 남긴다.
+         *    (DB 에 저장되기 전에 OS 까지 죽으면 잃을 수 있는 게시글 => sync-failures 지표로 확인)
+         * 큐에서 다시 빼지 않는 이유 : 큐 순서가 저널 순번 순서여야 markCommitted 가 맞다. */
+        try {
+            journal.sync(seq);
+        } catch (IOException e) {
+            syncFailures.increment();
+            log.error("쓰기 지연 저널을 디스크에 기록하지 못했습니다. 게시글은 DB 에 저장될 때까지 메모리에만 있습니다. (postId={})",
+                    entry.getPostId(), e);
+        }
+
+        return new CreatePostResponse(entry.getPostId(), entry.getTitle(), entry.getContent());
+
+    }
+
+    //큐가 빌 때까지 저장하고, 그래도 남은 게시글은 저널에 둔 채로 종료한다.
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+
+        running = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("저장하지 못한 게시글 {}건은 저널에 남겨두고 다음 시작 때 저장합니다.", queue.size());
+        }
+        journal.close();
+
+    }
+
+    //저장 스레드 : 종료 신호를 받아도 큐가 빌 때까지는 계속 저장한다.
+    private void drain() {
+
+        List<PostWriteJournal.Entry> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PostWriteJournal.Entry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                //그 사이 쌓인 게시글을 같이 꺼내서 한 번에 저장
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                if (!write(batch)) {
+                    //종료 중에 DB 가 복구되지 않음 => 남은 게시글은 저널에 남긴다.
+                    return;
+                }
+                journal.markCommitted(batch.get(batch.size() - 1).getSeq());
+                permits.release((int) batch.stream().filter(entry -> !entry.isReplayed()).count());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("쓰기 지연 저널을 정리하지 못했습니다.", e);
+        }
+
+    }
+
+    /* batch 를 트랜잭션 하나로 저장한다.
+     * DB 연결 문제 : 간격을 늘려가며 다시 시도 (종료 중이면 포기하고 false)
+     * 그 외 문제   : 어떤 게시글이 문제인지 찾기 위해 하나씩 저장하고, 실패한 게시글은 dead-letter 로 */
+    private boolean write(List<PostWriteJournal.Entry> batch) throws InterruptedException, IOException {
+
+        long delay = MIN_RETRY_DELAY.toMillis();
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(batch));
+                return true;
+            } catch (RuntimeException e) {
+                if (!isConnectionFailure(e)) {
+                    writeOneByOne(batch);
+                    return true;
+                }
+                if (!running) {
+                    return false;
+                }
+                log.warn("게시글 {}건 저장 실패, {}ms 후 다시 시도합니다. : {}", batch.size(), delay, e.getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY.toMillis());
+            }
+        }
+
+    }
+
+    private void writeOneByOne(List<PostWriteJournal.Entry> batch) throws IOException {
+
+        for (PostWriteJournal.Entry entry : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+            } catch (RuntimeException e) {
+                journal.deadLetter(entry, e.getMessage());
+                deadLetters.increment();
+            }
+        }
+
+    }
+
+    private void insert(List<PostWriteJournal.Entry> entries) {
+
+        //저널에서 다시 읽은 게시글은 죽기 전에 이미 저장됐을 수 있다.
+        Set<Long> existing = new HashSet<>();
+        List<Long> replayedIds = entries.stream().filter(PostWriteJournal.Entry::isReplayed).map(PostWriteJournal.Entry::getPostId).toList();
+        if (!replayedIds.isEmpty()) {
+            existing.addAll(postRepository.findExistingIds(replayedIds));
+        }
+
+        List<Post> posts = entries.stream()
+                .filter(entry -> !existing.contains(entry.getPostId()))
+                .map(entry -> Post.builder()
+                        .postId(entry.getPostId())
+                        .title(entry.getTitle())
+                        .content(entry.getContent())
+                        .updatedAt(entry.getAcceptedAt())
+                        .build())
+                .toList();
+
+        if (!posts.isEmpty()) {
+            postBatchService.persistPosts(posts);
+        }
+
+    }
+
+    //커넥션을 얻지 못함 / 연결 끊김 / 일시적인 오류 => 다시 시도하면 성공할 수 있다.
+    private boolean isConnectionFailure(Throwable e) {
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+
+    }
+
+}
@@ -0,0 +1,258 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/* 쓰기 지연(write-behind) 모드의 로컬 저널 (PostWriteBehindService)
+ * 202 를 응답하기 전에 게시글을 파일 끝에 한 줄(JSON)씩 덧붙여 둔다. => DB 에 저장되기 전에 서버가 죽어도 다시 시작할 때 저장할 수 있다.
+ *
+ * - 파일(segment)에는 덧붙이기만 한다. 중간을 고치지 않으니 쓰다가 죽어도 마지막 줄만 깨진다. (읽을 때 건너뜀)
+ * - 항목마다 순번(seq)을 붙이고, DB 에 commit 된 순번까지 알려주면(markCommitted) 다 저장된 파일은 지운다.
+ *   순번은 실행마다 0 부터 다시 세지만, 파일 번호는 디렉터리에 남은 가장 큰 번호 다음부터 이어서 붙인다.
+ *   => 이전 실행의 파일(다시 저장 중인 항목)에 새 항목을 덧붙였다가 같이 지우는 일이 없다.
+ * - fsync=true 면 응답 전에 디스크까지 내려보낸다. (OS 가 죽어도 남음, 대신 느림)
+ *   동시에 들어온 요청들은 fsync 한 번으로 같이 내려보낸다. (group commit => fsync 횟수 < 요청 수)
+ *   false 면 OS 버퍼까지만 쓴다. (프로세스가 죽는 건 괜찮지만 전원이 나가면 잃을 수 있음)
+ * - 저장하다가 계속 실패하는 항목은 dead-letter 파일에 따로 남긴다. (다시 읽지 않으니 직접 확인해서 처리) */
+@Slf4j
+class PostWriteJournal implements Closeable {
+
+    static final String SEGMENT_PREFIX = "posts-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+
+    //segment 하나의 최대 크기 => 넘으면 새 파일에 쓴다. (저장이 끝난 앞쪽 파일부터 지울 수 있게)
+    private static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    //다 쓴 segment (앞에서부터 순번 순서)
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+
+    //지금 쓰고 있는 segment
+    private FileChannel active;
+    private Path activePath;
+    private long activeFirstSeq = -1;
+    private long activeLastSeq = -1;
+
+    private long nextSeq = 0;
+
+    //다음에 만들 segment 파일 번호 (이전 실행의 파일 번호보다 항상 크다.)
+    private long nextSegmentNo;
+
+    //fsync 는 한 번에 하나씩, 여기까지는 디스크에 기록됐다.
+    private final Object syncLock = new Object();
+    private long syncedSeq = -1;
+
+    PostWriteJournal(Path directory, boolean fsync, ObjectMapper objectMapper) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        this.nextSegmentNo = listSegments().stream().mapToLong(PostWriteJournal::segmentNoOf).max().orElse(-1) + 1;
+    }
+
+    /* 이전 실행에서 남은 항목을 파일 순서대로 읽는다. (시작할 때 한 번, append 전에 호출)
+     * 읽은 파일은 다 쓴 segment 로 등록해서, 다시 저장이 끝나면(markCommitted) 지워지게 한다. */
+    synchronized List<Entry> recover() throws IOException {
+
+        List<Path> files = listSegments();
+
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Entry entry = objectMapper.readValue(line, Entry.class);
+                        entry.seq = nextSeq++;
+                        entry.replayed = true;
+                        entries.add(entry);
+                    } catch (IOException e) {
+                        //쓰는 도중에 죽어서 깨진 줄 => 202 를 응답하기 전이었으니 버려도 된다.
+                        log.warn("저널 {} 의 깨진 줄을 건너뜁니다. : {}", file.getFileName(), e.getMessage());
+                    }
+                }
+            }
+            closedSegments.add(new Segment(file, nextSeq - 1));
+        }
+        return entries;
+
+    }
+
+    //파일 끝에 덧붙이고 순번을 돌려준다. (OS 버퍼까지, 디스크까지 쓰려면 sync 호출)
+    synchronized long append(Entry entry) throws IOException {
+
+        if (active == null) {
+            //CREATE_NEW : 남아있는 파일을 열어서 덧붙이지 않는다. (이름이 겹치면 실패)
+            activePath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNo++, SEGMENT_SUFFIX));
+            active = FileChannel.open(activePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            activeFirstSeq = nextSeq;
+        }
+
+        entry.seq = nextSeq;
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            active.write(line);
+        }
+
+        activeLastSeq = nextSeq++;
+        if (active.size() >= MAX_SEGMENT_BYTES) {
+            closeActive();
+        }
+        return entry.seq;
+
+    }
+
+    /* seq 까지 디스크에 기록될 때까지 기다린다. (fsync=false 면 바로 돌아옴)
+     * fsync 하는 동안에도 다른 요청은 append 할 수 있고, 그 요청들은 다음 fsync 한 번에 같이 기록된다.
+     * 이미 다른 요청의 fsync 에 포함됐으면 기다리기만 하고 fsync 하지 않는다. */
+    void sync(long seq) throws IOException {
+
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+
+            FileChannel channel;
+            long target;
+            synchronized (this) {
+                channel = active;
+                target = activeLastSeq;
+                //이미 닫힌 segment (닫을 때 fsync 함) 이거나, DB 저장이 끝나서 지워진 segment
+                if (channel == null || seq < activeFirstSeq) {
+                    return;
+                }
+            }
+
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                //fsync 도중에 segment 가 닫힘 => 닫을 때 fsync 했거나 DB 저장이 끝난 경우라 괜찮다.
+            }
+            syncedSeq = target;
+        }
+
+    }
+
+    //seq 까지 모두 DB 에 저장됐다. => 그 안쪽 항목만 들어있는 파일은 지운다.
+    synchronized void markCommitted(long seq) throws IOException {
+
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSeq() <= seq) {
+            Path closed = closedSegments.pollFirst().path();
+            //쓰고 있는 파일은 아래에서 activeLastSeq 로만 판단한다.
+            if (!closed.equals(activePath)) {
+                Files.deleteIfExists(closed);
+            }
+        }
+        //쓰고 있던 파일까지 다 저장됐으면 지우고, 다음 append 때 새 파일을 만든다.
+        if (active != null && activeLastSeq <= seq) {
+            active.close();
+            Files.deleteIfExists(activePath);
+            active = null;
+            activePath = null;
+        }
+
+    }
+
+    //저장하지 못한 항목을 따로 남긴다.
+    synchronized void deadLetter(Entry entry, String reason) throws IOException {
+
+        String line = objectMapper.writeValueAsString(entry) + "\n";
+        Files.writeString(directory.resolve(DEAD_LETTER_FILE), line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.error("게시글 {} 을(를) 저장하지 못해서 {} 에 남겼습니다. : {}", entry.getPostId(), DEAD_LETTER_FILE, reason);
+
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            closeActive();
+        }
+    }
+
+    private void closeActive() throws IOException {
+        if (fsync) {
+            active.force(false);
+        }
+        active.close();
+        closedSegments.add(new Segment(activePath, activeLastSeq));
+        active = null;
+        activePath = null;
+    }
+
+    //파일 이름에 번호를 0 으로 채워서 넣었으니 이름 순서 = 쓴 순서
+    private List<Path> listSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static long segmentNoOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Segment(Path path, long lastSeq) {
+    }
+
+    //저널 한 줄 = 아직 DB 에 저장되지 않았을 수 있는 게시글 하나
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Entry {
+
+        @JsonIgnore
+        private long seq;
+        private Long postId; //미리 만들어서 응답한 ID
+        private String title;
+        private String content;
+        private Instant acceptedAt;
+
+        //이전 실행의 저널에서 읽은 항목 (이미 저장됐을 수도 있음)
+        @JsonIgnore
+        private boolean replayed;
+
+        Entry(Long postId, String title, String content, Instant acceptedAt) {
+            this(0, postId, title, content, acceptedAt, false);
+        }
+
+    }
+
+}
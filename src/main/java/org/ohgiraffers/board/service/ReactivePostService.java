@@ -0,0 +1,263 @@
+package org.ohgiraffers.board.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.domain.id.SnowflakeIdGenerator;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ReactivePostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* PostService 의 리액티브 버전 (reactive 프로필)
+ * 결과를 바로 돌려주지 않고 Mono/Flux 로 돌려준다. => 컨트롤러(WebFlux)가 구독하면 그때 쿼리가 실행된다.
+ * DB 를 기다리는 동안 스레드를 붙잡지 않으므로, 적은 수의 이벤트 루프 스레드로 많은 연결을 처리할 수 있다.
+ * => 여기서는 블로킹 호출(JPA, JDBC)을 하면 안 된다. (이벤트 루프 스레드가 멈추면 그 스레드의 모든 연결이 멈춤)
+ *
+ * 예외는 PostService 와 같은 것을 던진다. => GlobalExceptionHandler 가 같은 상태코드로 바꿔준다.
+ * 게시글 캐시(@Cacheable)와 하이버네이트 2차 캐시는 거치지 않는다.
+ * 검색 색인(PostSearchIndex), 조회수(PostViewCounter), 게시글 수(PostCountCache), 변경 이벤트(PostEventBroadcaster)는
+ * 메모리에서만 동작하니 그대로 같이 쓴다. => 등록/수정/삭제할 때 PostService 와 똑같이 반영해야 /search, /count 가 어긋나지 않는다.
+ * (트랜잭션이 없으니 afterCommit 대신 쿼리가 끝난 뒤 바로 반영한다.)
+ * 검색 색인은 ReentrantReadWriteLock 으로 막는(블로킹) 구조라, 색인/검색은 이벤트 루프가 아닌 boundedElastic 스레드에서 한다. */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePostService {
+
+    private final ReactivePostRepository reactivePostRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final PostViewCounter postViewCounter;
+    private final PostCountCache postCountCache;
+    private final PostEventBroadcaster postEventBroadcaster;
+
+    //JPA 로 저장할 때와 같은 Snowflake postId (SnowflakeIdentifierGenerator 와 같은 워커 번호)
+    @Value("${board.id.worker-id}")
+    private long workerId;
+
+    private SnowflakeIdGenerator idGenerator;
+
+    @PostConstruct
+    void init() {
+        idGenerator = SnowflakeIdGenerator.forWorker(workerId);
+    }
+
+    public Mono<CreatePostResponse> createPost(CreatePostRequest request) {
+
+        Long postId = idGenerator.nextId();
+        String preview = Post.previewOf(request.getContent());
+
+        return reactivePostRepository.insert(postId, request.getTitle(), request.getContent(), preview, Instant.now())
+                .then(offEventLoop(() -> {
+                    postCountCache.increment(1);
+                    postSearchIndex.index(postId, request.getTitle(), request.getContent());
+                    postEventBroadcaster.publish(PostEvent.Type.CREATED, postId, request.getTitle(), preview);
+                }))
+                .thenReturn(new CreatePostResponse(postId, request.getTitle(), request.getContent()));
+    }
+
+    //PostService.readPostById 와 같음 : post 에 없으면 보관된 게시글(post_archive)에서 찾는다.
+    public Mono<ReadPostResponse> readPostById(Long postId) {
+
+        return reactivePostRepository.findResponseById(postId)
+                .switchIfEmpty(Mono.defer(() -> reactivePostRepository.findArchivedResponseById(postId)))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다.")));
+    }
+
+    //PostService.updatePost 와 같음 : expectedVersion(If-Match) 이 있으면 그 version 일 때만 수정
+    public Mono<UpdatePostResponse> updatePost(Long postId, UpdatePostRequest request, Long expectedVersion) {
+
+        String preview = Post.previewOf(request.getContent());
+        Mono<Long> updatedRows = expectedVersion == null
+                ? reactivePostRepository.updateTitleAndContent(postId, request.getTitle(), request.getContent(), preview, Instant.now())
+                : reactivePostRepository.updateTitleAndContentIfVersion(postId, expectedVersion, request.getTitle(), request.getContent(),
+                        preview, Instant.now());
+
+        return updatedRows.flatMap(rows -> {
+            if (rows > 0) {
+                return offEventLoop(() -> {
+                    postSearchIndex.index(postId, request.getTitle(), request.getContent());
+                    postEventBroadcaster.publish(PostEvent.Type.UPDATED, postId, request.getTitle(), preview);
+                }).thenReturn(new UpdatePostResponse(postId, request.getTitle(), request.getContent()));
+            }
+            //변경된 행이 없으면 게시글이 있는지 확인해서 충돌(409), 보관된 게시글(409), 없는 게시글(404)을 구분한다.
+            Mono<Boolean> conflict = expectedVersion == null ? Mono.just(false) : reactivePostRepository.existsById(postId);
+            return conflict.flatMap(exists -> exists
+                    ? Mono.error(new OptimisticLockingFailureException("다른 요청에서 게시글이 먼저 수정되었습니다. 다시 조회한 뒤 수정해주세요."))
+                    : reactivePostRepository.existsArchivedById(postId)
+                            .flatMap(archived -> Mono.error(archived
+                                    ? new ArchivedPostException()
+                                    : new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."))));
+        });
+    }
+
+    public Mono<DeletePostResponse> deletePost(Long postId) {
+
+        //post 에 없으면 보관된 게시글에서 삭제 (보관된 게시글은 게시글 수에 세지 않는다.)
+        return reactivePostRepository.deleteById(postId)
+                .flatMap(rows -> {
+                    if (rows > 0) {
+                        postCountCache.decrement(1);
+                        return Mono.just(rows);
+                    }
+                    return reactivePostRepository.deleteArchivedById(postId);
+                })
+                .flatMap(rows -> {
+                    if (rows == 0) {
+                        return Mono.error(new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."));
+                    }
+                    return offEventLoop(() -> {
+                        postSearchIndex.remove(postId);
+                        postEventBroadcaster.publish(PostEvent.Type.DELETED, postId, null, null);
+                    }).thenReturn(new DeletePostResponse(postId));
+                });
+    }
+
+    //list 조회 : 목록과 전체 개수를 동시에 조회해서 Page 로 합친다.
+    public Mono<Page<ReadPostResponse>> readAllPost(Pageable pageable) {
+
+        return Mono.zip(reactivePostRepository.findAll(pageable).collectList(), reactivePostRepository.count())
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    //커서 기반 list 조회 (PostService.readPostsAfter 와 같은 커서 형식)
+    public Mono<CursorPostResponse> readPostsAfter(String after, int size) {
+
+        Long cursor;
+        try {
+            cursor = PostCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        int pageSize = Math.min(Math.max(size, 1), PostService.MAX_CURSOR_SIZE);
+
+        return reactivePostRepository.findByCursor(cursor, pageSize + 1).collectList()
+                .map(found -> {
+                    boolean hasNext = found.size() > pageSize;
+                    List<ListPostResponse> posts = hasNext ? found.subList(0, pageSize) : found;
+                    String nextCursor = hasNext ? PostCursor.encode(posts.get(posts.size() - 1).getPostId()) : null;
+                    return new CursorPostResponse(posts, nextCursor, hasNext);
+                });
+    }
+
+    //count 쿼리 없는 list 조회
+    public Mono<Slice<ListPostResponse>> readAllPostSlice(Pageable pageable) {
+
+        return reactivePostRepository.findSlice(pageable).collectList()
+                .map(found -> toSlice(found, pageable));
+    }
+
+    //목록 화면용 list 조회 : postId, 제목, 내용 미리보기만
+    public Mono<Slice<PostSummaryResponse>> readPostSummaries(Pageable pageable) {
+
+        return reactivePostRepository.findSummaries(pageable).collectList()
+                .map(found -> toSlice(found, pageable));
+    }
+
+    //제목/내용 검색 : 메모리의 역색인에서 postId 를 찾고, 요약만 DB 에서 조회
+    public Mono<Page<PostSummaryResponse>> searchPosts(String query, Pageable pageable) {
+
+        if (query == null || query.isBlank()) {
+            return Mono.error(new InvalidRequestException("검색어를 입력해주세요."));
+        }
+
+        //in 조회는 순서를 보장하지 않으니 검색 점수 순서대로 다시 정렬
+        return Mono.fromCallable(() -> postSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(result -> findSummaries(result.getPostIds())
+                        .map(summaries -> new PageImpl<>(result.getPostIds().stream().map(summaries::get).filter(Objects::nonNull).toList(),
+                                pageable, result.getTotal())));
+    }
+
+    //인기 글 : 메모리에서 조회수 상위 postId 를 찾고, 그 게시글 요약만 DB 에서 조회 (삭제된 게시글은 빠짐)
+    public Mono<List<PopularPostResponse>> readPopularPosts(int size) {
+
+        if (size < 1 || size > PostService.MAX_POPULAR_SIZE) {
+            return Mono.error(new InvalidRequestException("size 는 1 ~ " + PostService.MAX_POPULAR_SIZE + " 사이여야 합니다."));
+        }
+
+        List<Map.Entry<Long, Long>> top = postViewCounter.top(size);
+
+        return findSummaries(top.stream().map(Map.Entry::getKey).toList())
+                .map(summaries -> top.stream()
+                        .filter(entry -> summaries.containsKey(entry.getKey()))
+                        .map(entry -> {
+                            PostSummaryResponse summary = summaries.get(entry.getKey());
+                            return new PopularPostResponse(summary.getPostId(), summary.getTitle(), summary.getPreview(), entry.getValue());
+                        })
+                        .collect(Collectors.toList()));
+    }
+
+    //전체 게시글 내보내기 : 구독자(응답)가 받는 속도에 맞춰서 한 건씩 흘려보낸다.
+    public Flux<ReadPostResponse> exportPosts() {
+
+        return reactivePostRepository.findAllForExport();
+    }
+
+    //전체 게시글 수 (PostService.readPostCount 와 같은 PostCountCache)
+    //처음 한 번은 JDBC 로 count 를 읽으므로(블로킹) 이벤트 루프가 아닌 스레드에서 꺼낸다.
+    public Mono<PostCountResponse> readPostCount() {
+
+        return Mono.fromCallable(postCountCache::get)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(PostCountResponse::new);
+    }
+
+    //보관된 게시글 목록 (post_archive) : 요약만 조회 (count 쿼리 x)
+    public Mono<Slice<PostSummaryResponse>> readArchivedPosts(Pageable pageable) {
+
+        return reactivePostRepository.findArchivedSummaries(pageable).collectList()
+                .map(found -> toSlice(found, pageable));
+    }
+
+    //PostService.findSummaries 와 같음 : post 테이블에 없는 것만 post_archive 에서 한 번 더 조회 (순서는 보장되지 않음)
+    private Mono<Map<Long, PostSummaryResponse>> findSummaries(List<Long> postIds) {
+
+        return reactivePostRepository.findSummariesByPostIdIn(postIds)
+                .collectMap(PostSummaryResponse::getPostId, Function.identity(), HashMap::new)
+                .flatMap(summaries -> {
+                    if (summaries.size() >= postIds.size()) {
+                        return Mono.just(summaries);
+                    }
+                    List<Long> missing = postIds.stream().filter(postId -> !summaries.containsKey(postId)).toList();
+                    return reactivePostRepository.findArchivedSummariesByPostIdIn(missing)
+                            .doOnNext(summary -> summaries.put(summary.getPostId(), summary))
+                            .then(Mono.just(summaries));
+                });
+    }
+
+    //검색 색인처럼 락을 기다릴 수 있는 반영은 이벤트 루프가 아닌 스레드에서 한다.
+    private Mono<Void> offEventLoop(Runnable task) {
+        return Mono.fromRunnable(task)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    //size + 1 개를 조회했으면 다음 페이지가 있다.
+    private <T> Slice<T> toSlice(List<T> found, Pageable pageable) {
+        boolean hasNext = found.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? found.subList(0, pageable.getPageSize()) : found, pageable, hasNext);
+    }
+
+}
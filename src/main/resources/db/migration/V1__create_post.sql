@@ -0,0 +1,16 @@
+-- 처음 배포된 post 테이블 (하이버네이트 ddl-auto 로 만들어지던 것과 같음)
+-- 이미 이 테이블이 있는 DB 는 V1 을 실행하지 않고 기준(baseline)으로 삼는다. (application-fast-start.yml 의 baseline-on-migrate)
+
+create table post (
+    post_id bigint not null,
+    title varchar(255),
+    content varchar(255),
+    primary key (post_id)
+) engine=InnoDB;
+
+-- @GeneratedValue 가 postId 를 만들 때 사용하던 테이블
+create table post_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into post_seq values (1);
@@ -0,0 +1,42 @@
+-- 게시글 테이블 변경
+-- preview     : 목록에 보여줄 내용 앞부분 100글자 (Post.preview)
+-- version     : 낙관적 락, ETag (Post.version)
+-- updated_at  : 마지막 등록/수정 시각, Last-Modified (Post.updatedAt)
+-- view_count  : 조회수 (PostViewCounter)
+alter table post
+    add column preview varchar(100),
+    add column version bigint,
+    add column updated_at datetime(6),
+    add column view_count bigint not null default 0;
+
+-- 기존 게시글 : content 가 아직 글자(varchar)일 때 미리보기를 채운다.
+update post
+set preview    = left(content, 100),
+    version    = 0,
+    updated_at = now(6);
+
+-- content : 압축해서 저장하는 MEDIUMBLOB 으로 변경 (CompressedTextConverter)
+-- 기존 글은 압축하지 않은 형식(PLAIN : 0x00 + UTF-8 본문)으로 바꿔둔다. (읽을 때 그대로 풀림, 다음 수정 때 압축됨)
+alter table post
+    modify content mediumblob;
+
+update post
+set content = concat(x'00', content)
+where content is not null;
+
+-- postId 는 Snowflake 생성기(SnowflakeIdGenerator)가 메모리에서 만든다. => 기존 번호 테이블은 사용하지 않는다.
+-- Snowflake 값은 기존 postId 보다 훨씬 크므로 겹치지 않는다.
+drop table post_seq;
+
+-- 보관된 게시글 (PostArchiveService, ArchivedPost) : 컬럼은 post 와 같다. (insert ... select 로 그대로 옮김)
+create table post_archive (
+    post_id bigint not null,
+    title varchar(255),
+    content mediumblob,
+    preview varchar(100),
+    version bigint,
+    updated_at datetime(6),
+    view_count bigint not null,
+    archived_at datetime(6),
+    primary key (post_id)
+) engine=InnoDB;
@@ -0,0 +1,130 @@
+package org.ohgiraffers.board.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.controller.StrongETagGzipFilter;
+import org.ohgiraffers.board.controller.StrongETagGzipWebFilter;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 실제 서버(톰캣, Netty)를 띄워서 강한 ETag 가 붙은 응답이 압축 전용 ETag("-gzip")로 압축되는지 확인한다. */
+public class CompressionConfigTest {
+
+    //최소 크기(1KB)보다 큰 JSON
+    private static final byte[] BODY = ("{\"content\":\"" + "가".repeat(1000) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final CompressionConfig compressionConfig = new CompressionConfig();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private WebServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("톰캣 : 강한 ETag 가 붙은 응답은 ETag 를 \"-gzip\" 으로 바꿔서 압축하고, 나머지 JSON 은 그대로 압축하는지 테스트")
+    void tomcat_compresses_strong_etag_with_gzip_etag() throws Exception {
+        //given
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        compressionConfig.responseCompressionCustomizer(noServerProperties(), true, DataSize.ofKilobytes(1)).customize(factory);
+        StrongETagGzipFilter filter = compressionConfig.strongETagGzipFilter(DataSize.ofKilobytes(1)).getFilter();
+        server = factory.getWebServer(servletContext -> {
+            servletContext.addFilter("strongETagGzip", filter).addMappingForUrlPatterns(null, false, "/*");
+            servletContext.addServlet("posts", new HttpServlet() {
+                @Override
+                protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    Optional.ofNullable(request.getParameter("etag")).ifPresent(eTag -> response.setHeader(HttpHeaders.ETAG, eTag));
+                    response.getOutputStream().write(BODY);
+                }
+            }).addMapping("/*");
+        });
+        server.start();
+
+        //when & then
+        assertCompressed(get(null, "gzip"), null);
+        assertCompressed(get("\"1.3\"", "gzip"), "\"1.3-gzip\"");
+        assertNotCompressed(get("\"1.3\"", "identity"), "\"1.3\"");
+    }
+
+    @Test
+    @DisplayName("Netty : 강한 ETag 가 붙은 응답은 ETag 를 \"-gzip\" 으로 바꿔서 압축하고, 나머지 JSON 은 그대로 압축하는지 테스트")
+    void netty_compresses_strong_etag_with_gzip_etag() throws Exception {
+        //given
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(0);
+        compressionConfig.responseCompressionCustomizer(noServerProperties(), true, DataSize.ofKilobytes(1)).customize(factory);
+        factory.addServerCustomizers(compressionConfig.nettyStrongETagCustomizer());
+        StrongETagGzipWebFilter filter = compressionConfig.strongETagGzipWebFilter(DataSize.ofKilobytes(1));
+        server = factory.getWebServer(WebHttpHandlerBuilder.webHandler(exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            Optional.ofNullable(exchange.getRequest().getQueryParams().getFirst("etag")).ifPresent(eTag -> response.getHeaders().set(HttpHeaders.ETAG, eTag));
+            DataBuffer buffer = response.bufferFactory().wrap(BODY);
+            return response.writeWith(Mono.just(buffer));
+        }).filter(filter).build());
+        server.start();
+
+        //when & then
+        assertCompressed(get(null, "gzip"), null);
+        assertCompressed(get("\"1.3\"", "gzip"), "\"1.3-gzip\"");
+        assertCompressed(get("W/\"1.3\"", "gzip"), "W/\"1.3\"");
+        assertNotCompressed(get("\"1.3\"", "identity"), "\"1.3\"");
+        assertCompressed(get("\"1.3\"", "gzip, deflate"), "\"1.3-gzip\"");
+    }
+
+    private HttpResponse<byte[]> get(String eTag, String acceptEncoding) throws Exception {
+        String query = eTag == null ? "" : "?etag=" + java.net.URLEncoder.encode(eTag, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/posts" + query))
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private void assertCompressed(HttpResponse<byte[]> response, String eTag) throws IOException {
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).isEqualTo(Optional.ofNullable(eTag));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+    }
+
+    private void assertNotCompressed(HttpResponse<byte[]> response, String eTag) {
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).contains(eTag);
+        assertThat(response.body()).isEqualTo(BODY);
+    }
+
+    private org.springframework.beans.factory.ObjectProvider<ServerProperties> noServerProperties() {
+        return new DefaultListableBeanFactory().getBeanProvider(ServerProperties.class);
+    }
+
+}
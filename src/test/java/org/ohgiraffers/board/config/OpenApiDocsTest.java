@@ -0,0 +1,60 @@
+package org.ohgiraffers.board.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* API 문서(OpenAPI)를 빌드할 때 미리 만든다.
+ * 서버를 띄우지 않고 MockMvc 로 /v3/api-docs/{그룹} 을 요청해서 받은 JSON 을 파일로 쓴다.
+ * => ./gradlew generateOpenApiDocs 가 board.openapi.output-dir 를 넘겨주고, bootJar 가 static/openapi/ 에 넣는다.
+ * 일반 테스트(./gradlew test)에서는 파일을 쓰지 않고 문서가 만들어지는지만 확인한다.
+ * MySQL 없이 빌드할 수 있도록 메모리 DB(H2)를 사용한다. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:openapi;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "board.id.worker-id=0",
+        "springdoc.api-docs.enabled=true"
+})
+@AutoConfigureMockMvc
+public class OpenApiDocsTest {
+
+    //빌드 결과(static/openapi/)에 들어갈 파일 이름
+    static final String POSTS_DOCS_FILE = "posts.json";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("게시글 API 문서를 만들고, output-dir 가 있으면 파일로 저장하는지 테스트")
+    void generate_posts_docs() throws Exception {
+        //when
+        String docs = mockMvc.perform(get("/v3/api-docs/{group}", SwaggerConfig.POSTS_GROUP))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        //then
+        assertThat(docs).contains("\"/api/v1/posts\"", "\"/api/v1/posts/{postId}\"");
+
+        String outputDir = System.getProperty("board.openapi.output-dir");
+        if (outputDir != null) {
+            Path file = Path.of(outputDir, POSTS_DOCS_FILE);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, docs);
+        }
+    }
+
+}
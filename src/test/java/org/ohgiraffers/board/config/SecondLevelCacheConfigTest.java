@@ -0,0 +1,61 @@
+package org.ohgiraffers.board.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SecondLevelCacheConfigTest {
+
+    //@Value 로 "30m" 같은 Duration 값을 받으려면 스프링 부트의 ConversionService 가 필요하다. (애플리케이션 실행 시에는 자동 등록)
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(SecondLevelCacheConfig.class);
+
+    @Test
+    @DisplayName("설정한 크기와 만료 시간으로 2차 캐시 영역이 만들어지는지 테스트")
+    void create_regions() {
+        contextRunner
+                .withPropertyValues("board.cache.second-level.post.maximum-size=500",
+                        "board.cache.second-level.post.expire-after-write=1m")
+                .run(context -> {
+                    CacheManager cacheManager = context.getBean(CacheManager.class);
+
+                    CaffeineConfiguration<?, ?> post = cacheManager
+                            .getCache(SecondLevelCacheConfig.POST_REGION)
+                            .getConfiguration(CaffeineConfiguration.class);
+                    assertThat(post.getMaximumSize()).hasValue(500);
+                    assertThat(post.getExpireAfterWrite()).hasValue(Duration.ofMinutes(1).toNanos());
+
+                    assertThat(cacheManager.getCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)).isNotNull();
+                    assertThat(cacheManager.getCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)).isNotNull();
+                });
+    }
+
+    @Test
+    @DisplayName("컨텍스트가 여러 개 떠도 2차 캐시 영역이 겹치지 않는지 테스트")
+    void separate_cache_manager_per_context() {
+        contextRunner.run(first -> contextRunner.run(second ->
+                assertThat(first.getBean(CacheManager.class)).isNotSameAs(second.getBean(CacheManager.class))));
+    }
+
+    @Test
+    @DisplayName("board.cache.second-level.enabled=false 이면 2차 캐시를 설정하지 않는지 테스트")
+    void disabled() {
+        contextRunner
+                .withPropertyValues("board.cache.second-level.enabled=false")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(CacheManager.class);
+                    assertThat(context).doesNotHaveBean(HibernatePropertiesCustomizer.class);
+                });
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.ohgiraffers.board.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class)
+            .withBean("dataSource", HikariDataSource.class, HikariDataSource::new);
+
+    @Test
+    @DisplayName("설정하지 않으면 가상 스레드 모드가 적용되지 않는지 테스트")
+    void disabled_by_default() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize()).isNotEqualTo(30);
+        });
+    }
+
+    @Test
+    @DisplayName("board.threads.virtual=true 이면 가상 스레드에서 실행되고, 커넥션 풀 크기가 맞춰지는지 테스트")
+    void enabled() {
+        contextRunner
+                .withPropertyValues("board.threads.virtual=true", "board.threads.hikari.maximum-pool-size=40")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+
+                    AsyncTaskExecutor executor = context.getBean(
+                            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+                    Future<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual());
+                    assertThat(virtual.get()).isTrue();
+
+                    assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(40);
+                });
+    }
+
+}
@@ -1,26 +1,53 @@
 package org.ohgiraffers.board.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.service.PostBatchService;
+import org.ohgiraffers.board.service.PostImportService;
 import org.ohgiraffers.board.service.PostService;
+import org.ohgiraffers.board.service.PostViewCounter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,6 +84,18 @@ public class PostControllerTest {
     @MockBean
     PostService postService; //가짜 객체
 
+    @MockBean
+    PostBatchService postBatchService;
+
+    @MockBean
+    PostImportService postImportService;
+
+    @MockBean
+    PostViewCounter postViewCounter;
+
+    @MockBean
+    PostEventStreams postEventStreams;
+
     /* ObjectMapper
      * 특정 객체를 json 형태로 바꾸기 위해 사용한다.
      * */
@@ -102,7 +141,7 @@ public class PostControllerTest {
         //given : 어떤 것을 조회할지 지정
 
         Long postId = 1L;
-        ReadPostResponse response = new ReadPostResponse(1L, "테스트 제목", "테스트 내용");
+        ReadPostResponse response = new ReadPostResponse(1L, "테스트 제목", "테스트 내용", 0L, null);
 
         given(postService.readPostById(any())).willReturn(response);
 
@@ -110,6 +149,7 @@ public class PostControllerTest {
         mockMvc.perform(get("/api/v1/posts/{postId}",postId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.postId").value(1L))
+                .andExpect(jsonPath("$.postIdStr").value("1"))
                 .andExpect(jsonPath("$.title").value("테스트 제목"))
                 .andExpect(jsonPath("$.content").value("테스트 내용"))
                 .andDo(print());
@@ -126,7 +166,7 @@ public class PostControllerTest {
         UpdatePostResponse response = new UpdatePostResponse(1L, "변경 제목", "변경 내용"); //업데이트 된 내용
 
         //서비스를 가짜로 만들었으니까
-        given(postService.updatePost(any(Long.class),any(UpdatePostRequest.class))).willReturn(response);
+        given(postService.updatePost(any(Long.class),any(UpdatePostRequest.class), any())).willReturn(response);
 
         //when & then
         mockMvc.perform(put("/api/v1/posts/{postId}",postId)
@@ -141,6 +181,96 @@ public class PostControllerTest {
 
     }
 
+    @Test
+    @DisplayName("If-Match 의 버전으로 수정하고, 수정 후 버전을 ETag 로 내려주는지 테스트")
+    void update_post_if_match_test() throws Exception {
+
+        //given
+        UpdatePostRequest request = new UpdatePostRequest("변경 제목", "변경 내용");
+        given(postService.updatePost(eq(1L), any(UpdatePostRequest.class), eq(3L)))
+                .willReturn(new UpdatePostResponse(1L, "변경 제목", "변경 내용"));
+
+        //when & then
+        mockMvc.perform(put("/api/v1/posts/{postId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1.3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.4\""));
+
+        //압축해서 받은 ETag("-gzip")도 같은 버전으로 수정한다.
+        mockMvc.perform(put("/api/v1/posts/{postId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1.3-gzip\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.4\""));
+
+        //다른 게시글의 ETag => 400
+        mockMvc.perform(put("/api/v1/posts/{postId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2.3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest());
+
+        //약한 ETag 는 If-Match 에 쓸 수 없다. (강한 비교) => 400
+        mockMvc.perform(put("/api/v1/posts/{postId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1.3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("다른 요청이 먼저 수정했거나 보관된 게시글이면 409, 없는 게시글이면 404 를 응답하는지 테스트")
+    void update_post_conflict_test() throws Exception {
+
+        //given
+        UpdatePostRequest request = new UpdatePostRequest("변경 제목", "변경 내용");
+        given(postService.updatePost(eq(1L), any(UpdatePostRequest.class), any()))
+                .willThrow(new OptimisticLockingFailureException("다른 요청에서 게시글이 먼저 수정되었습니다."));
+        given(postService.updatePost(eq(2L), any(UpdatePostRequest.class), any()))
+                .willThrow(new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다."));
+        given(postService.updatePost(eq(3L), any(UpdatePostRequest.class), any()))
+                .willThrow(new ArchivedPostException());
+
+        //when & then
+        mockMvc.perform(put("/api/v1/posts/{postId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1.3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("다른 요청에서 게시글이 먼저 수정되었습니다."));
+
+        mockMvc.perform(put("/api/v1/posts/{postId}", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/api/v1/posts/{postId}", 3L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(ArchivedPostException.MESSAGE));
+    }
+
+    @Test
+    @DisplayName("InvalidRequestException 만 400 으로 바꾸고, 그 밖의 IllegalArgumentException 은 400 으로 응답하지 않는지 테스트")
+    void invalid_request_test() throws Exception {
+
+        //given
+        given(postService.readPostsAfter(eq("bad"), anyInt())).willThrow(new InvalidRequestException("올바르지 않은 커서입니다."));
+        given(postService.readPostsAfter(eq("internal"), anyInt())).willThrow(new IllegalArgumentException("내부 오류 메시지"));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts").param("after", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("올바르지 않은 커서입니다."));
+
+        //처리되지 않은 예외로 남는다. (서버에서는 500, 메시지는 응답에 나가지 않음)
+        assertThrows(ServletException.class, () -> mockMvc.perform(get("/api/v1/posts").param("after", "internal")));
+    }
+
     @Test
     @DisplayName("게시글을 삭제하는 테스트")
     void delete_post_test() throws Exception{
@@ -171,7 +301,7 @@ public class PostControllerTest {
 
         PageRequest pageRequest = PageRequest.of(0, 5);
 
-        ReadPostResponse readPostResponse = new ReadPostResponse(1L, "리스트 제목","리스트 내용");
+        ReadPostResponse readPostResponse = new ReadPostResponse(1L, "리스트 제목","리스트 내용", 0L, null);
 
         List<ReadPostResponse> responses = new ArrayList<>();
         responses.add(readPostResponse);
@@ -189,6 +319,303 @@ public class PostControllerTest {
                 .andExpect(jsonPath("$.content[0].content").value(readPostResponse.getContent()))
                 .andDo(print());
 
+        //If-None-Match 가 없으면 버전 목록을 미리 조회하지 않는다.
+        verify(postService, never()).readPostVersions(any());
+
+    }
+
+    @Test
+    @DisplayName("게시글 단건 조회 시 ETag, Last-Modified 를 내려주고, 같은 버전이면 304 를 응답하는 테스트")
+    void read_post_not_modified_test() throws Exception {
+
+        //given
+        Instant updatedAt = Instant.parse("2024-05-01T10:15:30Z");
+        given(postService.readPostById(any())).willReturn(new ReadPostResponse(1L, "테스트 제목", "테스트 내용", 3L, updatedAt));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/{postId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, updatedAt.toEpochMilli()));
+
+        mockMvc.perform(get("/api/v1/posts/{postId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"1.3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        //압축해서 받은 ETag 로 다시 요청해도 같은 버전이면 304
+        mockMvc.perform(get("/api/v1/posts/{postId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"1.3-gzip\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.3-gzip\""));
+
+        mockMvc.perform(get("/api/v1/posts/{postId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"1.2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3L));
+
+        //304 도 조회수에 포함된다.
+        verify(postViewCounter, times(4)).increment(1L);
+    }
+
+    @Test
+    @DisplayName("목록이 바뀌지 않았으면 목록을 조회하지 않고 304 를 응답하는 테스트")
+    void read_all_post_not_modified_test() throws Exception {
+
+        //given
+        PageRequest pageRequest = PageRequest.of(0, 5);
+        given(postService.readPostVersions(any()))
+                .willReturn(new PageImpl<>(List.of(new PostVersion(1L, 2L)), pageRequest, 1));
+        given(postService.readAllPost(any()))
+                .willReturn(new PageImpl<>(List.of(new ReadPostResponse(1L, "리스트 제목", "리스트 내용", 2L, null)), pageRequest, 1));
+
+        String eTag = mockMvc.perform(get("/api/v1/posts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/posts").header(HttpHeaders.IF_NONE_MATCH, PostETags.gzipVariant(eTag)))
+                .andExpect(status().isNotModified());
+
+        verify(postService, times(1)).readAllPost(any());
+        verify(postService, times(2)).readPostVersions(any());
+    }
+
+    @Test
+    @DisplayName("게시글을 커서 기반으로 조회하는 테스트")
+    void read_posts_after_test() throws Exception {
+
+        //given
+        ListPostResponse listPostResponse = new ListPostResponse(3L, "커서 제목", "커서 내용", 0L, null);
+        CursorPostResponse response = new CursorPostResponse(List.of(listPostResponse), "next", true);
+
+        given(postService.readPostsAfter(any(), anyInt())).willReturn(response);
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts").param("after", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].postId").value(3L))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("게시글을 count 쿼리 없이 전체 조회하는 테스트")
+    void read_all_post_slice_test() throws Exception {
+
+        //given
+        ListPostResponse listPostResponse = new ListPostResponse(1L, "리스트 제목", "리스트 내용", 0L, null);
+
+        given(postService.readAllPostSlice(any()))
+                .willReturn(new SliceImpl<>(List.of(listPostResponse), PageRequest.of(0, 5), false));
+
+        //when & then //Slice 는 totalElements 가 없다.
+        mockMvc.perform(get("/api/v1/posts/slice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].postId").value(1L))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("전체 게시글 수를 조회하는 테스트")
+    void read_post_count_test() throws Exception {
+
+        //given
+        given(postService.readPostCount()).willReturn(new PostCountResponse(42L));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(42L))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("인기 게시글을 조회하는 테스트")
+    void read_popular_posts_test() throws Exception {
+
+        //given
+        given(postService.readPopularPosts(2)).willReturn(List.of(
+                new PopularPostResponse(2L, "제목2", "내용2", 30L),
+                new PopularPostResponse(1L, "제목1", "내용1", 10L)));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/popular").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].postId").value(2L))
+                .andExpect(jsonPath("$[0].views").value(30L))
+                .andExpect(jsonPath("$[1].postId").value(1L))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("게시글을 일괄 등록하는 테스트")
+    void create_posts_batch_test() throws Exception {
+
+        //given
+        List<CreatePostRequest> requests = List.of(
+                new CreatePostRequest("제목1", "내용1"),
+                new CreatePostRequest("제목2", "내용2"));
+        BatchPostResponse response = new BatchPostResponse(1, 1, List.of(
+                new BatchPostResult(0, 1L, BatchPostResult.Status.OK, null),
+                new BatchPostResult(1, null, BatchPostResult.Status.FAILED, "실패")));
+
+        given(postBatchService.createPosts(any())).willReturn(response);
+
+        //when & then
+        mockMvc.perform(post("/api/v1/posts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(requests))
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].postId").value(1L))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("목록 화면용 게시글 요약을 조회하는 테스트")
+    void read_post_summaries_test() throws Exception {
+
+        //given
+        PostSummaryResponse summary = new PostSummaryResponse(1L, "리스트 제목", "리스트 내용 미리보기");
+
+        given(postService.readPostSummaries(any()))
+                .willReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 5), false));
+
+        //when & then //내용 전체(content)는 내려주지 않는다.
+        mockMvc.perform(get("/api/v1/posts/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].postId").value(1L))
+                .andExpect(jsonPath("$.content[0].preview").value("리스트 내용 미리보기"))
+                .andExpect(jsonPath("$.content[0].content").doesNotExist())
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("게시글을 검색하는 테스트")
+    void search_posts_test() throws Exception {
+
+        //given
+        PostSummaryResponse summary = new PostSummaryResponse(1L, "검색 제목", "검색 내용");
+
+        given(postService.searchPosts(any(), any()))
+                .willReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 5), 1));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/search").param("q", "검색"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].postId").value(1L))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("모든 게시글을 NDJSON 으로 내보내는 테스트")
+    void export_posts_test() throws Exception {
+
+        //given : 서비스가 게시글 두 개를 차례로 넘겨준다.
+        given(postService.exportPosts(any())).willAnswer(invocation -> {
+            Consumer<ReadPostResponse> writer = invocation.getArgument(0);
+            writer.accept(new ReadPostResponse(1L, "제목1", "내용1", 0L, null));
+            writer.accept(new ReadPostResponse(2L, "제목2", "내용2", 3L, null));
+            return 2L;
+        });
+
+        //when & then //한 줄에 게시글 하나
+        String body = mockMvc.perform(get("/api/v1/posts/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith(MediaType.APPLICATION_NDJSON_VALUE)))
+                .andDo(print())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("postId").asLong());
+        assertEquals("제목1", objectMapper.readTree(lines[0]).get("title").asText());
+        assertTrue(body.endsWith("\n"));
+
+    }
+
+    @Test
+    @DisplayName("CSV 본문으로 게시글을 가져오는 테스트")
+    void import_posts_csv_test() throws Exception {
+
+        //given
+        given(postImportService.importPosts(eq("job-1"), any(), eq(PostImportService.Format.CSV), eq(10L)))
+                .willReturn(new PostImportResponse("job-1", PostImportResponse.Status.COMPLETED, 12, 2, 12, null));
+
+        //when & then
+        mockMvc.perform(post("/api/v1/posts/import")
+                        .param("importId", "job-1")
+                        .param("resumeFrom", "10")
+                        .contentType("text/csv")
+                        .content("title,content\n제목,내용\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.checkpoint").value(12))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("없는 가져오기 작업의 진행 상황을 조회하면 404 를 응답하는지 테스트")
+    void import_progress_not_found_test() throws Exception {
+
+        //given
+        given(postImportService.getProgress("unknown")).willThrow(new EntityNotFoundException("없음"));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/import/{importId}", "unknown"))
+                .andExpect(status().isNotFound())
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID 를 넘겨서 게시글 변경 알림(SSE) 연결을 여는 테스트")
+    void post_stream_test() throws Exception {
+
+        //given //연결되자마자 보내는 주석 (실제로는 PostEventStreams 가 보낸다.)
+        SseEmitter emitter = new SseEmitter();
+        emitter.send(SseEmitter.event().comment("connected"));
+        given(postEventStreams.open("42")).willReturn(emitter);
+
+        //when & then //비동기 요청으로 시작하고, 프록시가 응답을 모아두지 않도록 헤더를 붙인다.
+        mockMvc.perform(get("/api/v1/posts/stream")
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"))
+                .andExpect(content().string(":connected\n\n"))
+                .andDo(print());
+
+    }
+
+    @Test
+    @DisplayName("SSE 구독자가 너무 많으면 503 과 Retry-After 를 응답하는지 테스트")
+    void post_stream_rejected_test() throws Exception {
+
+        //given
+        given(postEventStreams.open(null)).willThrow(new RejectedExecutionException("구독자가 너무 많습니다."));
+
+        //when & then
+        mockMvc.perform(get("/api/v1/posts/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andDo(print());
+
     }
 
 }
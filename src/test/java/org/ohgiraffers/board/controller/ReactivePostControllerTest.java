@@ -0,0 +1,176 @@
+package org.ohgiraffers.board.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.service.PostViewCounter;
+import org.ohgiraffers.board.service.ReactivePostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/* @WebFluxTest
+ * @WebMvcTest 의 WebFlux 버전. 서버를 띄우지 않고 WebTestClient 로 요청을 보내서 컨트롤러를 테스트한다.
+ * ReactivePostController 는 reactive 프로필에서만 등록되므로 프로필을 켜준다. */
+@WebFluxTest(ReactivePostController.class)
+@ActiveProfiles("reactive")
+public class ReactivePostControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    ReactivePostService reactivePostService;
+
+    @MockBean
+    PostViewCounter postViewCounter;
+
+    @Test
+    @DisplayName("게시글 작성 기능 테스트")
+    void create_post_test() {
+        //given
+        given(reactivePostService.createPost(any())).willReturn(Mono.just(new CreatePostResponse(1L, "테스트 제목", "테스트 내용")));
+
+        //when & then
+        webTestClient.post().uri("/api/v1/posts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreatePostRequest("테스트 제목", "테스트 내용"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.postId").isEqualTo(1)
+                .jsonPath("$.title").isEqualTo("테스트 제목");
+    }
+
+    @Test
+    @DisplayName("단건 조회 시 ETag 를 내려주고, If-None-Match 가 같으면 304 를 응답하는지 테스트")
+    void read_post_not_modified_test() {
+        //given
+        given(reactivePostService.readPostById(1L))
+                .willReturn(Mono.just(new ReadPostResponse(1L, "테스트 제목", "테스트 내용", 3L, Instant.parse("2024-05-01T00:00:00Z"))));
+
+        //when & then
+        webTestClient.get().uri("/api/v1/posts/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1.3\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().jsonPath("$.content").isEqualTo("테스트 내용");
+
+        webTestClient.get().uri("/api/v1/posts/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        //압축해서 받은 ETag 로 다시 요청해도 같은 버전이면 304
+        webTestClient.get().uri("/api/v1/posts/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.3-gzip\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        //304 도 조회수에 포함
+        verify(postViewCounter, times(3)).increment(1L);
+    }
+
+    @Test
+    @DisplayName("없는 게시글은 404, 버전이 다르거나 보관된 게시글이면 409, 잘못된 요청 값만 400 을 응답하는지 테스트")
+    void error_status_test() {
+        //given
+        given(reactivePostService.readPostById(404L)).willReturn(Mono.error(new EntityNotFoundException("해당 postId로 조회된 게시글이 없습니다.")));
+        given(reactivePostService.updatePost(eq(1L), any(), eq(2L)))
+                .willReturn(Mono.error(new OptimisticLockingFailureException("다른 요청에서 게시글이 먼저 수정되었습니다.")));
+        given(reactivePostService.updatePost(eq(3L), any(), any())).willReturn(Mono.error(new ArchivedPostException()));
+        given(reactivePostService.readPostsAfter(eq("internal"), anyInt())).willReturn(Mono.error(new IllegalArgumentException("내부 오류 메시지")));
+
+        //when & then
+        webTestClient.get().uri("/api/v1/posts/404").exchange().expectStatus().isNotFound();
+
+        webTestClient.put().uri("/api/v1/posts/1")
+                .header(HttpHeaders.IF_MATCH, "\"1.2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdatePostRequest("변경된 제목", "변경된 내용"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.put().uri("/api/v1/posts/1")
+                .header(HttpHeaders.IF_MATCH, "\"2.2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdatePostRequest("변경된 제목", "변경된 내용"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.put().uri("/api/v1/posts/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdatePostRequest("변경된 제목", "변경된 내용"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.message").isEqualTo(ArchivedPostException.MESSAGE);
+
+        //InvalidRequestException 이 아닌 IllegalArgumentException 은 500 이고 메시지가 응답에 나가지 않는다.
+        webTestClient.get().uri("/api/v1/posts?after=internal")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody(String.class).value(body -> assertThat(body).doesNotContain("내부 오류 메시지"));
+    }
+
+    @Test
+    @DisplayName("목록 조회 시 기본 페이지(5개, postId 내림차순)로 조회하는지 테스트")
+    void read_all_post_test() {
+        //given
+        Pageable pageable = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "postId"));
+        List<ReadPostResponse> posts = List.of(new ReadPostResponse(2L, "제목2", "내용2", 0L, null), new ReadPostResponse(1L, "제목1", "내용1", 0L, null));
+        given(reactivePostService.readAllPost(pageable)).willReturn(Mono.just(new PageImpl<>(posts, pageable, 2)));
+
+        //when & then
+        webTestClient.get().uri("/api/v1/posts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.content[0].postId").isEqualTo(2)
+                .jsonPath("$.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("전체 게시글을 한 줄에 하나씩(NDJSON) 내보내는지 테스트")
+    void export_posts_test() {
+        //given
+        given(reactivePostService.exportPosts()).willReturn(Flux.just(
+                new ReadPostResponse(1L, "제목1", "내용1", 0L, null),
+                new ReadPostResponse(2L, "제목2", "내용2", 0L, null)));
+
+        //when & then
+        webTestClient.get().uri("/api/v1/posts/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ReadPostResponse.class).hasSize(2);
+    }
+
+}
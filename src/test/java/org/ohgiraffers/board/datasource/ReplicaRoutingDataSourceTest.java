@@ -0,0 +1,232 @@
+package org.ohgiraffers.board.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* primary 와 replica 역할을 하는 메모리 DB(H2)를 따로 띄워서
+ * 어느 DB 에서 SQL 이 실행됐는지 (DB 마다 자기 이름을 넣어둔 테이블을 읽어서) 확인한다. */
+public class ReplicaRoutingDataSourceTest {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 replica 에서 실행되는지 테스트")
+    void read_only_transaction_uses_replica() {
+        //given
+        Routing routing = routing(database("primary"), List.of(database("replica")));
+
+        //when
+        String name = routing.read();
+
+        //then
+        assertThat(name).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("읽기 전용이 아닌 트랜잭션과 트랜잭션 밖의 SQL 은 primary 에서 실행되는지 테스트")
+    void write_transaction_uses_primary() {
+        //given
+        Routing routing = routing(database("primary"), List.of(database("replica")));
+
+        //when
+        String inTransaction = routing.write();
+        String withoutTransaction = routing.jdbcTemplate.queryForObject("select name from db_name", String.class);
+
+        //then
+        assertThat(inTransaction).isEqualTo("primary");
+        assertThat(withoutTransaction).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("replica 가 여러 개면 돌아가면서 읽는지 테스트")
+    void round_robin_between_replicas() {
+        //given
+        Routing routing = routing(database("primary"), List.of(database("replica-0"), database("replica-1")));
+
+        //when
+        List<String> names = List.of(routing.read(), routing.read(), routing.read(), routing.read());
+
+        //then
+        assertThat(names).containsExactly("replica-0", "replica-1", "replica-0", "replica-1");
+    }
+
+    @Test
+    @DisplayName("연결되지 않는 replica 는 잠시 빼고 다음 replica 에서 읽는지 테스트")
+    void failover_to_next_replica() {
+        //given
+        DownDataSource down = new DownDataSource();
+        Routing routing = routing(database("primary"), List.of(down, database("replica-1")));
+
+        //when
+        List<String> names = List.of(routing.read(), routing.read(), routing.read());
+
+        //then //첫 실패 뒤로는 다시 시도하지 않는다.
+        assertThat(names).containsOnly("replica-1");
+        assertThat(down.attempts).isEqualTo(1);
+        assertThat(routing.dataSource.availableReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("쓸 수 있는 replica 가 없으면 primary 에서 읽는지 테스트")
+    void fallback_to_primary() {
+        //given
+        Routing routing = routing(database("primary"), List.of(new DownDataSource()));
+
+        //when
+        String name = routing.read();
+
+        //then
+        assertThat(name).isEqualTo("primary");
+        assertThat(routing.dataSource.availableReplicas()).isZero();
+    }
+
+    @Test
+    @DisplayName("제외 시간이 지나면 replica 를 다시 사용하는지 테스트")
+    void retry_replica_after_interval() throws InterruptedException {
+        //given //처음 한 번만 연결에 실패한다.
+        EmbeddedDatabase replica = database("replica");
+        DownDataSource flaky = new DownDataSource(replica, 1);
+        Routing routing = new Routing(new ReplicaRoutingDataSource(database("primary"), List.of(flaky), Duration.ofMillis(50), Duration.ZERO));
+        assertThat(routing.read()).isEqualTo("primary");
+
+        //when
+        Thread.sleep(100);
+
+        //then
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.dataSource.availableReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("쓰기가 commit 된 뒤 잠시 동안은 캐시를 채우는 조회만 primary 에서 하는지 테스트")
+    void cache_fill_reads_primary_after_write() throws InterruptedException {
+        //given
+        Routing routing = new Routing(new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")),
+                Duration.ofMinutes(1), Duration.ofMillis(200)));
+        assertThat(routing.cacheFillRead()).isEqualTo("replica");
+
+        //when
+        routing.readWrite.executeWithoutResult(status -> {
+            routing.jdbcTemplate.update("update db_name set name = name");
+            status.setRollbackOnly();
+        });
+        String afterRollback = routing.cacheFillRead();
+        routing.write();
+        String afterCommit = routing.cacheFillRead();
+        String otherRead = routing.read();
+        Thread.sleep(300);
+
+        //then //rollback 된 쓰기는 상관없다.
+        assertThat(afterRollback).isEqualTo("replica");
+        assertThat(afterCommit).isEqualTo("primary");
+        assertThat(otherRead).isEqualTo("replica");
+        assertThat(routing.cacheFillRead()).isEqualTo("replica");
+    }
+
+    private Routing routing(DataSource primary, List<DataSource> replicas) {
+        return new Routing(new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1), Duration.ZERO));
+    }
+
+    private EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table db_name (name varchar(20))");
+        jdbcTemplate.update("insert into db_name values (?)", name);
+        databases.add(database);
+        return database;
+    }
+
+    //애플리케이션과 같은 구성 : LazyConnectionDataSourceProxy -> ReplicaRoutingDataSource
+    private static class Routing {
+
+        private final ReplicaRoutingDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        private Routing(ReplicaRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+            DataSource proxy = new LazyConnectionDataSourceProxy(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(proxy);
+            this.jdbcTemplate = new JdbcTemplate(proxy);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnly.execute(status -> jdbcTemplate.queryForObject("select name from db_name", String.class));
+        }
+
+        String cacheFillRead() {
+            return readOnly.execute(status -> {
+                ReplicaRoutingDataSource.markCacheFill();
+                return jdbcTemplate.queryForObject("select name from db_name", String.class);
+            });
+        }
+
+        String write() {
+            return readWrite.execute(status -> jdbcTemplate.queryForObject("select name from db_name", String.class));
+        }
+
+    }
+
+    //연결에 실패하는 replica (failures 번 실패한 뒤에는 target 으로 연결)
+    private static class DownDataSource extends AbstractDataSource {
+
+        private final DataSource target;
+        private final int failures;
+        private int attempts;
+
+        private DownDataSource() {
+            this(null, Integer.MAX_VALUE);
+        }
+
+        private DownDataSource(DataSource target, int failures) {
+            this.target = target;
+            this.failures = failures;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (attempts++ < failures) {
+                throw new SQLException("connection refused");
+            }
+            return target.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+    }
+
+}
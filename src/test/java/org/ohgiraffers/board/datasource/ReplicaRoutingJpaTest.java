@@ -0,0 +1,138 @@
+package org.ohgiraffers.board.datasource;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 애플리케이션(PostService)과 같은 경로 : JpaTransactionManager + Hibernate -> LazyConnectionDataSourceProxy -> ReplicaRoutingDataSource
+ * Hibernate 는 readOnly 트랜잭션을 시작할 때(HibernateJpaDialect) 커넥션을 readOnly 로 준비하는데,
+ * 그때 실제 커넥션을 가져오면 readOnly 여부가 아직 정해지지 않아서 항상 primary 로 간다. => 첫 SQL 에서 골라지는지 확인 */
+public class ReplicaRoutingJpaTest {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setup() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")),
+                Duration.ofMinutes(1), Duration.ofMillis(200));
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new LazyConnectionDataSourceProxy(routing));
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(DbName.class.getName()));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(AvailableSettings.DIALECT, H2Dialect.class.getName()));
+        factoryBean.afterPropertiesSet();
+
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factoryBean.destroy();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    @DisplayName("JPA 읽기 전용 트랜잭션은 replica, 쓰기 트랜잭션은 primary 에서 실행되는지 테스트")
+    void jpa_transaction_routing() {
+        //when
+        String read = readOnly.execute(status -> entityManager.find(DbName.class, 1L).name);
+        String query = readOnly.execute(status ->
+                entityManager.createQuery("select d.name from DbName d", String.class).getSingleResult());
+        String write = readWrite.execute(status -> {
+            DbName dbName = entityManager.find(DbName.class, 1L);
+            dbName.name = dbName.name + "*"; //flush 때 update
+            return dbName.name;
+        });
+
+        //then
+        assertThat(read).isEqualTo("replica");
+        assertThat(query).isEqualTo("replica");
+        assertThat(write).isEqualTo("primary*");
+    }
+
+    @Test
+    @DisplayName("JPA 쓰기가 commit 된 뒤 잠시 동안은 캐시를 채우는 조회를 primary 에서 하는지 테스트")
+    void jpa_cache_fill_reads_primary_after_write() throws InterruptedException {
+        //given
+        readWrite.executeWithoutResult(status -> entityManager.find(DbName.class, 1L).name = "updated");
+
+        //when
+        String afterCommit = cacheFillRead();
+        Thread.sleep(300);
+        String later = cacheFillRead();
+
+        //then //replica 는 아직 이전 값 (복제 지연)
+        assertThat(afterCommit).isEqualTo("updated");
+        assertThat(later).isEqualTo("replica");
+    }
+
+    //PostService.readPostById 처럼 조회 결과를 캐시에 넣는 조회
+    private String cacheFillRead() {
+        return readOnly.execute(status -> {
+            ReplicaRoutingDataSource.markCacheFill();
+            return entityManager.find(DbName.class, 1L).name;
+        });
+    }
+
+    private EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table db_name (id bigint primary key, name varchar(20))");
+        jdbcTemplate.update("insert into db_name values (1, ?)", name);
+        databases.add(database);
+        return database;
+    }
+
+    @Entity(name = "DbName")
+    @Table(name = "db_name")
+    static class DbName {
+
+        @Id
+        Long id;
+
+        String name;
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.ohgiraffers.board.domain.converter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.domain.entity.Post;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    @DisplayName("긴 글은 압축해서 저장하고, 읽을 때 원래 글로 돌려주는지 테스트")
+    void compress_long_text() {
+        //given
+        String content = "게시판 내용입니다. Board content. ".repeat(200);
+
+        //when
+        byte[] column = converter.convertToDatabaseColumn(content);
+
+        //then
+        assertThat(column[0]).isEqualTo(CompressedTextConverter.DEFLATED);
+        assertThat(column.length).isLessThan(content.getBytes(StandardCharsets.UTF_8).length / 5);
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("짧은 글과 압축해도 줄지 않는 글은 그대로 저장하는지 테스트")
+    void keep_short_or_incompressible_text() {
+        //given
+        String shortContent = "짧은 내용";
+        StringBuilder random = new StringBuilder();
+        new Random(1).ints(2000, 0x4E00, 0x9FFF).forEach(random::appendCodePoint);
+        String incompressible = random.toString();
+
+        //when
+        byte[] shortColumn = converter.convertToDatabaseColumn(shortContent);
+        byte[] incompressibleColumn = converter.convertToDatabaseColumn(incompressible);
+
+        //then
+        assertThat(shortColumn[0]).isEqualTo(CompressedTextConverter.PLAIN);
+        assertThat(converter.convertToEntityAttribute(shortColumn)).isEqualTo(shortContent);
+        assertThat(converter.convertToEntityAttribute(incompressibleColumn)).isEqualTo(incompressible);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("손상된 압축 데이터는 IllegalStateException 을 발생시키는지 테스트")
+    void corrupted_column() {
+        //given
+        byte[] column = converter.convertToDatabaseColumn("손상될 내용 ".repeat(200));
+        byte[] truncated = Arrays.copyOf(column, column.length / 2);
+
+        //when & then
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(truncated));
+    }
+
+    @Test
+    @DisplayName("원래 길이가 저장할 수 있는 범위를 벗어나거나 압축 데이터와 맞지 않으면 IllegalStateException 을 발생시키는지 테스트")
+    void invalid_original_length() {
+        //given
+        byte[] column = converter.convertToDatabaseColumn("길이가 맞지 않는 내용 ".repeat(200));
+        int originalLength = ByteBuffer.wrap(column, 1, Integer.BYTES).getInt();
+
+        //when & then //배열을 만들기 전에 거절한다.
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(withLength(column, Integer.MAX_VALUE)));
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(withLength(column, -1)));
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(new byte[]{CompressedTextConverter.DEFLATED, 0, 0}));
+
+        //실제보다 짧거나 긴 길이, 뒤에 붙은 바이트
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(withLength(column, originalLength - 1)));
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(withLength(column, originalLength + 1)));
+        byte[] trailing = Arrays.copyOf(column, column.length + 1);
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(trailing));
+    }
+
+    @Test
+    @DisplayName("저장할 수 있는 크기를 넘는 글은 IllegalArgumentException 을 발생시키는지 테스트")
+    void reject_too_long_text() {
+        //given //압축하면 작아지지만 원래 크기가 넘는 글
+        String text = "a".repeat(Post.CONTENT_MAX_BYTES + 1);
+
+        //when & then
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn(text));
+    }
+
+    private byte[] withLength(byte[] column, int originalLength) {
+        byte[] changed = column.clone();
+        ByteBuffer.wrap(changed, 1, Integer.BYTES).putInt(originalLength);
+        return changed;
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.ohgiraffers.board.domain.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("ID 가 계속 증가하는지 테스트")
+    void ids_are_increasing() {
+        //given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1L);
+
+        //when & then
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 만들어도 ID 가 겹치지 않는지 테스트")
+    void ids_are_unique_across_threads() throws InterruptedException {
+        //given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(2L);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 5_000; j++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //then
+        assertThat(ids).hasSize(8 * 5_000);
+    }
+
+    @Test
+    @DisplayName("ID 에서 워커 번호와 생성 시각을 꺼낼 수 있는지 테스트")
+    void id_contains_worker_and_timestamp() {
+        //given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023L);
+        Instant before = Instant.now().minusMillis(1);
+
+        //when
+        long id = generator.nextId();
+
+        //then
+        assertThat(SnowflakeIdGenerator.workerIdOf(id)).isEqualTo(1023L);
+        assertThat(SnowflakeIdGenerator.timestampOf(id)).isAfterOrEqualTo(before);
+        assertThat(id).isGreaterThanOrEqualTo(SnowflakeIdGenerator.minIdAt(before));
+    }
+
+    @Test
+    @DisplayName("워커 번호가 범위를 벗어나면 IllegalArgumentException 을 발생시키는지 테스트")
+    void invalid_worker_id() {
+        //when & then
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024L));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1L));
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.ohgiraffers.board.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryCountFilterTest {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCountFilter queryCountFilter = new QueryCountFilter(queryCounter, meterRegistry);
+
+    @Test
+    @DisplayName("요청 하나에서 실행된 SQL 수가 매핑된 uri 태그로 기록되는지 테스트")
+    void record_query_count_per_request() throws Exception {
+
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts/1");
+
+        //when
+        queryCountFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/posts/{postId}");
+            queryCounter.inspect("select * from post where post_id = ?");
+            queryCounter.inspect("select * from post where post_id = ?");
+        });
+
+        //then
+        DistributionSummary summary = meterRegistry.get(QueryCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/posts/{postId}")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("요청 밖에서 실행된 SQL 은 세지 않는지 테스트")
+    void ignore_queries_outside_request() {
+
+        //when
+        queryCounter.inspect("select count(*) from post");
+
+        //then
+        queryCounter.start();
+        assertThat(queryCounter.stop()).isZero();
+    }
+
+}
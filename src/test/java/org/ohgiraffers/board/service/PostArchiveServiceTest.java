@@ -0,0 +1,129 @@
+package org.ohgiraffers.board.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.domain.dto.UpdatePostRequest;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.domain.id.SnowflakeIdGenerator;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* 보관(archive)은 insert ... select / delete 쿼리가 실제 DB 에서 맞게 동작해야 하므로 메모리 DB(H2)로 확인한다.
+ * 오래된 게시글은 postId 를 400일 전 시각으로 미리 정해서 저장한다. (PreassignedIdInterceptor)
+ * 주기 실행이 테스트 중에 끼어들지 않도록 initial-delay 를 길게 준다. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "board.id.worker-id=0",
+        "board.archive.enabled=true",
+        "board.archive.age-days=365",
+        "board.archive.batch-size=2",
+        "board.archive.batch-pause-ms=0",
+        "board.archive.initial-delay-ms=3600000"
+})
+public class PostArchiveServiceTest {
+
+    @Autowired
+    PostArchiveService postArchiveService;
+
+    @Autowired
+    PostService postService;
+
+    @Autowired
+    PostRepository postRepository;
+
+    @Autowired
+    ArchivedPostRepository archivedPostRepository;
+
+    //테스트끼리 같은 DB 를 쓰므로 끝나면 두 테이블을 비운다.
+    @AfterEach
+    void cleanUp() {
+        postRepository.deleteAllInBatch();
+        archivedPostRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("오래된 게시글만 보관 테이블로 옮기고, 옮긴 게시글도 postId 로 조회/삭제되는지 테스트")
+    void archive_old_posts() throws InterruptedException {
+        //given //오래된 게시글 5개(batch-size 2 => 트랜잭션 3번) + 최근 게시글 1개
+        long oldestId = SnowflakeIdGenerator.minIdAt(Instant.now().minus(Duration.ofDays(400)));
+        String content = "압축되어 저장되는 긴 내용 ".repeat(100);
+        List<Long> oldIds = LongStream.range(0, 5).map(i -> oldestId + i).boxed().toList();
+        oldIds.forEach(postId -> postRepository.save(Post.builder().postId(postId).title("오래된 글 " + postId).content(content).build()));
+        Long recentId = postService.createPost(new CreatePostRequest("최근 글", "최근 내용")).getPostId();
+
+        //when
+        long moved = postArchiveService.archive();
+
+        //then
+        assertThat(moved).isEqualTo(5);
+        assertThat(postRepository.findAll()).extracting(Post::getPostId).containsExactly(recentId);
+        assertThat(archivedPostRepository.count()).isEqualTo(5);
+
+        //압축된 content 가 그대로 옮겨져서 다시 풀린다.
+        ReadPostResponse archived = postService.readPostById(oldIds.get(0));
+        assertThat(archived.getContent()).isEqualTo(content);
+        assertThat(archived.getVersion()).isZero();
+
+        //목록은 최근 게시글만, 보관된 목록은 따로
+        assertThat(postService.readPostSummaries(PageRequest.of(0, 10)).getContent())
+                .extracting(PostSummaryResponse::getPostId).containsExactly(recentId);
+        assertThat(postService.readArchivedPosts(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "postId"))).getContent())
+                .extracting(PostSummaryResponse::getPostId).containsExactlyElementsOf(oldIds.reversed());
+
+        //보관된 게시글은 수정할 수 없고, 삭제는 된다.
+        assertThrows(ArchivedPostException.class,
+                () -> postService.updatePost(oldIds.get(1), new UpdatePostRequest("수정", "수정"), null));
+        postService.deletePost(oldIds.get(1));
+        assertThrows(EntityNotFoundException.class, () -> postService.readPostById(oldIds.get(1)));
+
+        //내보내기에는 보관된 게시글도 들어간다. (오래된 글부터 postId 순)
+        List<Long> exported = new ArrayList<>();
+        postService.exportPosts(post -> exported.add(post.getPostId()));
+        assertThat(exported).containsExactly(oldIds.get(0), oldIds.get(2), oldIds.get(3), oldIds.get(4), recentId);
+
+        //더 옮길 게시글이 없다.
+        assertThat(postArchiveService.archive()).isZero();
+    }
+
+    @Test
+    @DisplayName("Snowflake 이전 postId(작은 번호)는 postId 가 아니라 updatedAt 으로 나이를 판단하는지 테스트")
+    void archive_legacy_posts_by_updated_at() throws InterruptedException {
+        //given //V2 마이그레이션 전에 만들어진 게시글 : 최근에 수정된 3번, 400일 동안 수정되지 않은 4번
+        postRepository.save(Post.builder().postId(3L).title("이전 번호 최근 글").content("내용").build());
+        postRepository.save(Post.builder().postId(4L).title("이전 번호 오래된 글").content("내용")
+                .updatedAt(Instant.now().minus(Duration.ofDays(400))).build());
+        assertThat(3L).isLessThan(SnowflakeIdGenerator.minIdAt(Instant.now().minus(Duration.ofDays(365))));
+
+        //when
+        long moved = postArchiveService.archive();
+
+        //then //postId 는 cutoff 보다 작지만 최근에 수정된 3번은 그대로 남는다.
+        assertThat(moved).isEqualTo(1);
+        assertThat(postRepository.findAll()).extracting(Post::getPostId).containsExactly(3L);
+        assertThat(archivedPostRepository.existsById(4L)).isTrue();
+    }
+
+}
@@ -0,0 +1,200 @@
+package org.ohgiraffers.board.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ohgiraffers.board.config.CacheConfig;
+import org.ohgiraffers.board.domain.dto.*;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PostBatchServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Mock
+    private PostCountCache postCountCache;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private PostEventBroadcaster postEventBroadcaster;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostBatchService postBatchService;
+
+    @BeforeEach
+    void setup() {
+        postBatchService = new PostBatchService(postRepository, archivedPostRepository, postCountCache, postSearchIndex, postEventBroadcaster,
+                new ConcurrentMapCacheManager(CacheConfig.POST_CACHE), new TransactionTemplate(transactionManager), entityManager);
+        //2개씩 chunk 로 나눠서 처리
+        ReflectionTestUtils.setField(postBatchService, "chunkSize", 2);
+    }
+
+    @Test
+    @DisplayName("게시글 일괄 등록 시 chunk 마다 한 번씩 저장되는지 테스트")
+    void create_posts_in_chunks() {
+        //given
+        List<CreatePostRequest> requests = List.of(
+                new CreatePostRequest("제목1", "내용1"),
+                new CreatePostRequest("제목2", "내용2"),
+                new CreatePostRequest("제목3", "내용3"));
+
+        //when
+        BatchPostResponse response = postBatchService.createPosts(requests);
+
+        //then //3개 => chunk 2번(2개 + 1개), 트랜잭션도 2번
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BatchPostResult::getIndex).containsExactly(0, 1, 2);
+        verify(postRepository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("chunk 처리 중 실패하면 항목별로 다시 처리해서 실패한 항목만 FAILED 로 돌려주는지 테스트")
+    void create_posts_isolates_failed_item() {
+        //given //2개짜리 chunk 는 실패, 하나씩 다시 처리할 때 첫 번째는 성공, 두 번째는 실패
+        given(postRepository.saveAll(anyList()))
+                .willThrow(new IllegalStateException("chunk 실패"))
+                .willReturn(List.of())
+                .willThrow(new IllegalStateException("항목 실패"));
+
+        //when
+        BatchPostResponse response = postBatchService.createPosts(List.of(
+                new CreatePostRequest("제목1", "내용1"),
+                new CreatePostRequest("제목2", "내용2")));
+
+        //then
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(BatchPostResult.Status.FAILED);
+        assertThat(response.getResults().get(1).getMessage()).isEqualTo("항목 실패");
+    }
+
+    @Test
+    @DisplayName("게시글 일괄 수정 시 없는 게시글은 NOT_FOUND 로 돌려주는지 테스트")
+    void update_posts_not_found() {
+        //given
+        Post savedPost = new Post(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", null, 0L, null, 0L);
+        given(postRepository.findAllById(List.of(2L, 3L))).willReturn(List.of(savedPost));
+
+        //when
+        BatchPostResponse response = postBatchService.updatePosts(List.of(
+                new BatchUpdatePostRequest(2L, "변경된 테스트 제목", "변경된 테스트 내용"),
+                new BatchUpdatePostRequest(3L, "변경된 테스트 제목", "변경된 테스트 내용")));
+
+        //then
+        assertThat(response.getResults()).extracting(BatchPostResult::getStatus)
+                .containsExactly(BatchPostResult.Status.OK, BatchPostResult.Status.NOT_FOUND);
+        assertThat(savedPost.getTitle()).isEqualTo("변경된 테스트 제목");
+    }
+
+    @Test
+    @DisplayName("일괄 수정 중 낙관적 락 충돌이 나면 다시 처리하고, 계속 충돌하면 CONFLICT 로 돌려주는지 테스트")
+    void update_posts_retries_optimistic_lock_failure() {
+        //given //최대 2번 다시 처리
+        ReflectionTestUtils.setField(postBatchService, "optimisticLockRetries", 2);
+        given(postRepository.findAllById(List.of(2L)))
+                .willAnswer(invocation -> List.of(new Post(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", null, 0L, null, 0L)));
+        given(postRepository.findAllById(List.of(3L)))
+                .willAnswer(invocation -> List.of(new Post(3L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", null, 0L, null, 0L)));
+        //2번 게시글 : 처음 한 번만 충돌 / 3번 게시글 : 계속 충돌
+        willThrow(new OptimisticLockException("충돌"))
+                .willDoNothing()
+                .willThrow(new OptimisticLockException("충돌"))
+                .willThrow(new OptimisticLockException("충돌"))
+                .willThrow(new OptimisticLockException("충돌"))
+                .given(entityManager).flush();
+
+        //when //chunk-size 가 2라서 각각 따로 처리되도록 하나씩 요청
+        BatchPostResponse retried = postBatchService.updatePosts(List.of(
+                new BatchUpdatePostRequest(2L, "변경된 테스트 제목", "변경된 테스트 내용")));
+        BatchPostResponse conflicted = postBatchService.updatePosts(List.of(
+                new BatchUpdatePostRequest(3L, "변경된 테스트 제목", "변경된 테스트 내용")));
+
+        //then
+        assertThat(retried.getResults().get(0).getStatus()).isEqualTo(BatchPostResult.Status.OK);
+        assertThat(conflicted.getResults().get(0).getStatus()).isEqualTo(BatchPostResult.Status.CONFLICT);
+        verify(postRepository, times(3)).findAllById(List.of(3L)); //처음 1번 + 다시 처리 2번
+    }
+
+    @Test
+    @DisplayName("게시글 일괄 삭제 시 존재하는 게시글만 한 번에 삭제하는지 테스트")
+    void delete_posts() {
+        //given
+        given(postRepository.findExistingIds(List.of(2L, 3L))).willReturn(List.of(2L));
+
+        //when
+        BatchPostResponse response = postBatchService.deletePosts(List.of(2L, 3L));
+
+        //then
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        verify(postRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(postCountCache).decrementAfterCommit(1);
+    }
+
+    @Test
+    @DisplayName("post 테이블에 없는 게시글은 보관된 게시글에서 삭제하고, 보관된 게시글 수정은 실패로 돌려주는지 테스트")
+    void archived_posts_in_batch() {
+        //given //2 : 최근 게시글, 3 : 보관된 게시글, 4 : 없는 게시글 (chunk 2개씩 => [2, 3], [4])
+        given(postRepository.findExistingIds(List.of(2L, 3L))).willReturn(List.of(2L));
+        given(archivedPostRepository.findExistingIds(List.of(3L))).willReturn(List.of(3L));
+
+        //when
+        BatchPostResponse deleted = postBatchService.deletePosts(List.of(2L, 3L, 4L));
+        BatchPostResponse updated = postBatchService.updatePosts(List.of(new BatchUpdatePostRequest(3L, "제목", "내용")));
+
+        //then
+        assertThat(deleted.getResults()).extracting(BatchPostResult::getStatus)
+                .containsExactly(BatchPostResult.Status.OK, BatchPostResult.Status.OK, BatchPostResult.Status.NOT_FOUND);
+        verify(archivedPostRepository).deleteDirectlyByIdIn(Set.of(3L));
+        verify(postCountCache).decrementAfterCommit(1); //보관된 게시글은 게시글 수에 들어있지 않다.
+        assertThat(updated.getResults().get(0).getStatus()).isEqualTo(BatchPostResult.Status.FAILED);
+        assertThat(updated.getResults().get(0).getMessage()).isEqualTo("보관된 게시글은 수정할 수 없습니다.");
+    }
+
+    @Test
+    @DisplayName("항목이 없거나 최대 개수를 넘으면 InvalidRequestException 을 발생시키는지 테스트")
+    void invalid_batch_size() {
+        //when & then
+        assertThrows(InvalidRequestException.class, () -> postBatchService.deletePosts(List.of()));
+        assertThrows(InvalidRequestException.class, () ->
+                postBatchService.deletePosts(Collections.nCopies(PostBatchService.MAX_BATCH_ITEMS + 1, 1L)));
+    }
+
+}
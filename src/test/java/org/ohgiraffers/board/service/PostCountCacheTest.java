@@ -0,0 +1,73 @@
+package org.ohgiraffers.board.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class PostCountCacheTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private PostCountCache postCountCache;
+
+    @BeforeEach
+    void setup() {
+        given(postRepository.count()).willReturn(10L);
+        postCountCache = new PostCountCache(postRepository);
+        postCountCache.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서 바꾼 게시글 수는 commit 된 뒤에만 반영되는지 테스트")
+    void apply_after_commit() {
+        //given //트랜잭션이 시작된 상태
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        postCountCache.incrementAfterCommit(3);
+        postCountCache.decrementAfterCommit(1);
+
+        //then //commit 전에는 그대로
+        assertThat(postCountCache.get()).isEqualTo(10L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(postCountCache.get()).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("rollback 되면 게시글 수가 바뀌지 않고, 트랜잭션 밖에서는 바로 반영되는지 테스트")
+    void skip_on_rollback() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        postCountCache.incrementAfterCommit(3);
+
+        //when //rollback => afterCommit 이 호출되지 않는다.
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        //then
+        assertThat(postCountCache.get()).isEqualTo(10L);
+        postCountCache.incrementAfterCommit(1);
+        assertThat(postCountCache.get()).isEqualTo(11L);
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.ohgiraffers.board.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.domain.dto.PostEvent;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PostEventBroadcasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PostEventBroadcaster postEventBroadcaster;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        postEventBroadcaster = new PostEventBroadcaster(meterRegistry);
+        //최근 이벤트 5개, 구독자마다 3개까지, 구독자 2명까지
+        ReflectionTestUtils.setField(postEventBroadcaster, "replaySize", 5);
+        ReflectionTestUtils.setField(postEventBroadcaster, "subscriberBuffer", 3);
+        ReflectionTestUtils.setField(postEventBroadcaster, "maxSubscribers", 2);
+        postEventBroadcaster.init();
+    }
+
+    @Test
+    @DisplayName("구독자마다 이벤트를 순서대로 전달하고, 대기열이 가득 찬 구독자만 끊는지 테스트")
+    void drop_slow_subscriber() throws InterruptedException {
+        //given
+        PostEventBroadcaster.Subscription slow = postEventBroadcaster.subscribe(null);
+        PostEventBroadcaster.Subscription fast = postEventBroadcaster.subscribe(null);
+
+        //when //fast 는 받는 대로 꺼내고, slow 는 꺼내지 않는다.
+        List<PostEvent> received = new ArrayList<>();
+        for (long postId = 1; postId <= 4; postId++) {
+            postEventBroadcaster.publish(PostEvent.Type.CREATED, postId, "제목 " + postId, "내용");
+            received.add(fast.next(Duration.ZERO));
+        }
+
+        //then
+        assertThat(received).extracting(PostEvent::getPostId).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(received).extracting(PostEvent::getEventId)
+                .containsExactly(received.get(0).getEventId(), received.get(0).getEventId() + 1,
+                        received.get(0).getEventId() + 2, received.get(0).getEventId() + 3);
+        assertThat(slow.isClosed()).isTrue();
+        assertThat(fast.isClosed()).isFalse();
+        assertThat(postEventBroadcaster.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("board.stream.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID 뒤의 이벤트부터 이어서 보내고, 링 버퍼에 없는 id 면 RESET 을 보내는지 테스트")
+    void resume_from_last_event_id() throws InterruptedException {
+        //given //이벤트 7개 => 링 버퍼에는 마지막 5개(3 ~ 7번째)만 남는다.
+        PostEventBroadcaster.Subscription first = postEventBroadcaster.subscribe(null);
+        postEventBroadcaster.publish(PostEvent.Type.CREATED, 1L, "제목", "내용");
+        long firstEventId = first.next(Duration.ZERO).getEventId();
+        first.close();
+        for (long postId = 2; postId <= 7; postId++) {
+            postEventBroadcaster.publish(PostEvent.Type.UPDATED, postId, "제목", "내용");
+        }
+
+        //when
+        PostEventBroadcaster.Subscription resumed = postEventBroadcaster.subscribe(String.valueOf(firstEventId + 4));
+        List<PostEvent> replayed = List.of(resumed.next(Duration.ZERO), resumed.next(Duration.ZERO));
+        resumed.close();
+        PostEventBroadcaster.Subscription tooOld = postEventBroadcaster.subscribe(String.valueOf(firstEventId));
+        PostEvent reset = tooOld.next(Duration.ZERO);
+        tooOld.close();
+        PostEventBroadcaster.Subscription unknown = postEventBroadcaster.subscribe("abc");
+
+        //then //5번째 이후 (6, 7번째 게시글)
+        assertThat(replayed).extracting(PostEvent::getPostId).containsExactly(6L, 7L);
+        assertThat(reset.getType()).isEqualTo(PostEvent.Type.RESET);
+        assertThat(reset.getEventId()).isEqualTo(firstEventId + 6);
+        assertThat(tooOld.next(Duration.ZERO)).isNull();
+        assertThat(unknown.next(Duration.ZERO).getType()).isEqualTo(PostEvent.Type.RESET);
+    }
+
+    @Test
+    @DisplayName("한 트랜잭션에서 바뀐 게시글은 commit 뒤에 종류별로 이벤트 하나로 묶어서 보내는지 테스트")
+    void coalesce_events_per_transaction() throws InterruptedException {
+        //given //구독자 대기열(3개)보다 많은 게시글을 한 번에 저장
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        PostEventBroadcaster.Subscription subscription = postEventBroadcaster.subscribe(null);
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long postId = 1; postId <= 10; postId++) {
+                postEventBroadcaster.publishAfterCommit(PostEvent.Type.CREATED, postId, "제목", "내용");
+            }
+            postEventBroadcaster.publishAfterCommit(PostEvent.Type.DELETED, 11L, null, null);
+            //commit 전에는 보내지 않는다.
+            try {
+                assertThat(subscription.next(Duration.ZERO)).isNull();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            postEventBroadcaster.publishAfterCommit(PostEvent.Type.CREATED, 12L, "rollback", "내용");
+            status.setRollbackOnly();
+        });
+        database.shutdown();
+
+        //then
+        PostEvent created = subscription.next(Duration.ZERO);
+        PostEvent deleted = subscription.next(Duration.ZERO);
+        assertThat(created.getType()).isEqualTo(PostEvent.Type.CREATED);
+        assertThat(created.getPostId()).isNull();
+        assertThat(created.getPostIds()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(deleted.getType()).isEqualTo(PostEvent.Type.DELETED);
+        assertThat(deleted.getPostId()).isEqualTo(11L);
+        assertThat(deleted.getPostIds()).isNull();
+        assertThat(subscription.next(Duration.ZERO)).isNull();
+        assertThat(subscription.isClosed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("구독자가 최대 수를 넘으면 거절하는지 테스트")
+    void reject_too_many_subscribers() {
+        //given
+        postEventBroadcaster.subscribe(null);
+        PostEventBroadcaster.Subscription second = postEventBroadcaster.subscribe(null);
+
+        //when & then
+        assertThrows(RejectedExecutionException.class, () -> postEventBroadcaster.subscribe(null));
+        second.close();
+        postEventBroadcaster.subscribe(null);
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.PostImportResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PostImportServiceTest {
+
+    @Mock
+    private PostBatchService postBatchService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostImportService postImportService;
+
+    @BeforeEach
+    void setup() {
+        postImportService = new PostImportService(postBatchService, new TransactionTemplate(transactionManager), new ObjectMapper());
+        //2개씩 chunk 로 나눠서 저장
+        ReflectionTestUtils.setField(postImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(postImportService, "queueCapacity", 1);
+    }
+
+    @Test
+    @DisplayName("NDJSON 본문을 chunk 단위로 저장하는지 테스트")
+    void import_ndjson_in_chunks() {
+        //given //5개 => chunk 3번(2개 + 2개 + 1개), 트랜잭션도 3번
+        InputStream body = body(ndjson(1, 2, 3, 4, 5));
+
+        //when
+        PostImportResponse response = postImportService.importPosts("job", body, PostImportService.Format.NDJSON, 0);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(PostImportResponse.Status.COMPLETED);
+        assertThat(response.getImported()).isEqualTo(5);
+        assertThat(response.getCheckpoint()).isEqualTo(5);
+        verify(postBatchService, times(3)).insertPosts(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 항목을 만나면 그 앞까지 저장하고 checkpoint 를 알려주는지 테스트")
+    void import_stops_at_malformed_record() {
+        //given //4번째 줄이 JSON 이 아니다.
+        InputStream body = body(ndjson(1, 2, 3) + "{\"title\": 깨진 줄\n" + ndjson(5));
+
+        //when
+        PostImportResponse response = postImportService.importPosts("job", body, PostImportService.Format.NDJSON, 0);
+
+        //then //1 ~ 3번째 항목은 저장된다.
+        assertThat(response.getStatus()).isEqualTo(PostImportResponse.Status.FAILED);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getCheckpoint()).isEqualTo(3);
+        assertThat(response.getMessage()).startsWith("4번째");
+    }
+
+    @Test
+    @DisplayName("resumeFrom 만큼 건너뛰고 CSV 본문의 나머지만 저장하는지 테스트")
+    void import_csv_resumes_from_checkpoint() {
+        //given
+        InputStream body = body("title,content\n제목1,내용1\n제목2,내용2\n제목3,\"쉼표, 포함\"\n");
+        ArgumentCaptor<List<CreatePostRequest>> saved = ArgumentCaptor.forClass(List.class);
+
+        //when
+        PostImportResponse response = postImportService.importPosts("job", body, PostImportService.Format.CSV, 2);
+
+        //then
+        verify(postBatchService).insertPosts(saved.capture());
+        assertThat(saved.getValue()).extracting(CreatePostRequest::getContent).containsExactly("쉼표, 포함");
+        assertThat(response.getRead()).isEqualTo(3);
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getCheckpoint()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("저장에 실패하면 멈추고, 진행 상황 조회로 checkpoint 를 확인할 수 있는지 테스트")
+    void import_stops_at_failed_chunk() {
+        //given //두 번째 chunk 저장 실패
+        given(postBatchService.insertPosts(anyList()))
+                .willReturn(List.of())
+                .willThrow(new IllegalStateException("DB 오류"));
+
+        //when
+        postImportService.importPosts("job", body(ndjson(1, 2, 3, 4, 5, 6, 7, 8)), PostImportService.Format.NDJSON, 0);
+        PostImportResponse progress = postImportService.getProgress("job");
+
+        //then
+        assertThat(progress.getStatus()).isEqualTo(PostImportResponse.Status.FAILED);
+        assertThat(progress.getCheckpoint()).isEqualTo(2);
+        assertThat(progress.getMessage()).startsWith("3번째");
+    }
+
+    @Test
+    @DisplayName("없는 가져오기 작업을 조회하면 예외가 발생하는지 테스트")
+    void import_progress_not_found() {
+        assertThrows(EntityNotFoundException.class, () -> postImportService.getProgress("unknown"));
+    }
+
+    private String ndjson(int... numbers) {
+        StringBuilder lines = new StringBuilder();
+        for (int number : numbers) {
+            lines.append("{\"title\":\"제목").append(number).append("\",\"content\":\"내용").append(number).append("\"}\n");
+        }
+        return lines.toString();
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
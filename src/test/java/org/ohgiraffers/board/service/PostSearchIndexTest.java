@@ -0,0 +1,150 @@
+package org.ohgiraffers.board.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class PostSearchIndexTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ArchivedPostRepository archivedPostRepository;
+
+    private PostSearchIndex postSearchIndex;
+
+    @BeforeEach
+    void setup() {
+        postSearchIndex = new PostSearchIndex(postRepository, archivedPostRepository);
+        postSearchIndex.index(1L, "공지사항", "게시판 이용 규칙입니다.");
+        postSearchIndex.index(2L, "게시판 오픈", "새로운 게시판이 열렸습니다.");
+        postSearchIndex.index(3L, "Spring Boot", "스프링 부트로 만든 board 입니다.");
+    }
+
+    @Test
+    @DisplayName("조사가 붙은 한국어 단어도 검색되고, 제목에 있는 게시글이 먼저 나오는지 테스트")
+    void search_korean() {
+        //when //"게시판이", "게시판" 모두 "게시판" 으로 검색
+        PostSearchIndex.SearchResult result = postSearchIndex.search("게시판", 0, 10);
+
+        //then
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getPostIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("대소문자 구분 없이 영어도 검색되는지 테스트")
+    void search_english() {
+        //when & then
+        assertThat(postSearchIndex.search("BOARD", 0, 10).getPostIds()).containsExactly(3L);
+        assertThat(postSearchIndex.search("spring", 0, 10).getPostIds()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("한 글자 검색어도 긴 단어 안에서 찾아지는지 테스트")
+    void search_single_character() {
+        //when & then //"판" 은 "게시판", "게시판이" 안에만 있다.
+        assertThat(postSearchIndex.search("판", 0, 10).getPostIds()).containsExactly(2L, 1L);
+        assertThat(postSearchIndex.search("B", 0, 10).getPostIds()).containsExactly(3L);
+        assertThat(postSearchIndex.search("게시판 열", 0, 10).getPostIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("검색어의 토큰이 모두 들어있는 게시글만 찾는지 테스트")
+    void search_requires_all_tokens() {
+        //when & then
+        assertThat(postSearchIndex.search("게시판 스프링", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    @DisplayName("수정/삭제된 게시글이 색인에 반영되는지 테스트")
+    void update_and_remove() {
+        //when
+        postSearchIndex.index(1L, "공지사항", "댓글 규칙입니다.");
+        postSearchIndex.remove(2L);
+
+        //then
+        assertThat(postSearchIndex.search("게시판", 0, 10).getTotal()).isZero();
+        assertThat(postSearchIndex.search("댓글", 0, 10).getPostIds()).containsExactly(1L);
+        assertThat(postSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("offset, limit 로 검색 결과를 페이지로 나누는지 테스트")
+    void search_paging() {
+        //when
+        PostSearchIndex.SearchResult result = postSearchIndex.search("니다", 1, 1);
+
+        //then //3개 모두 "니다" 가 들어있음
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getPostIds()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("페이지를 나눠서 검색해도 한 번에 검색한 것과 같은 순서로 나오는지 테스트")
+    void search_paging_order() {
+        //given //점수가 같은 게시글도 섞여 있다. (postId 가 큰 게시글이 앞)
+        for (long postId = 10; postId < 60; postId++) {
+            postSearchIndex.index(postId, "과일", "사과 ".repeat((int) (postId % 7) + 1));
+        }
+        List<Long> all = postSearchIndex.search("사과", 0, 100).getPostIds();
+
+        //when
+        List<Long> paged = new ArrayList<>();
+        for (long offset = 0; offset < 50; offset += 7) {
+            paged.addAll(postSearchIndex.search("사과", offset, 7).getPostIds());
+        }
+
+        //then
+        assertThat(all).hasSize(50);
+        assertThat(paged).isEqualTo(all);
+    }
+
+    @Test
+    @DisplayName("DB 의 게시글(보관된 게시글 포함)로 색인을 다시 만들고, 만드는 동안 반영된 수정/삭제는 잃지 않는지 테스트")
+    void rebuild() {
+        //given //DB 에서 읽은 뒤에 1L 이 수정되고 3L 이 삭제된다. (색인을 만드는 동안 commit)
+        given(postRepository.findContentsByCursor(eq(Long.MAX_VALUE), any())).willAnswer(invocation -> {
+            postSearchIndex.index(1L, "공지사항", "댓글 규칙입니다.");
+            postSearchIndex.remove(3L);
+            return new SliceImpl<>(List.of(
+                    new ReadPostResponse(4L, "새 글", "색인 테스트", 0L, null),
+                    new ReadPostResponse(3L, "Spring Boot", "스프링 부트로 만든 board 입니다.", 0L, null),
+                    new ReadPostResponse(1L, "예전 제목", "예전 내용", 0L, null)), PageRequest.of(0, 1000), false);
+        });
+        given(archivedPostRepository.findContentsByCursor(eq(Long.MAX_VALUE), any())).willReturn(new SliceImpl<>(List.of(
+                new ReadPostResponse(0L, "보관된 글", "오래된 색인", 0L, null)), PageRequest.of(0, 1000), false));
+
+        //when
+        postSearchIndex.rebuild();
+
+        //then
+        assertThat(postSearchIndex.search("색인", 0, 10).getPostIds()).containsExactly(4L, 0L);
+        assertThat(postSearchIndex.search("보관", 0, 10).getPostIds()).containsExactly(0L);
+        assertThat(postSearchIndex.search("예전", 0, 10).getTotal()).isZero();
+        assertThat(postSearchIndex.search("댓글", 0, 10).getPostIds()).containsExactly(1L);
+        assertThat(postSearchIndex.search("spring", 0, 10).getTotal()).isZero();
+        //DB 에 없는 2L (다른 서버에서 삭제된 게시글) 은 다시 만들면 빠진다.
+        assertThat(postSearchIndex.search("오픈", 0, 10).getTotal()).isZero();
+        assertThat(postSearchIndex.size()).isEqualTo(3);
+    }
+
+}
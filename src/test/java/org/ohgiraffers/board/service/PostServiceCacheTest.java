@@ -0,0 +1,106 @@
+package org.ohgiraffers.board.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.config.CacheConfig;
+import org.ohgiraffers.board.domain.dto.UpdatePostRequest;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/* 캐시는 스프링 프록시가 적용되어야 동작하기 때문에 @InjectMocks 로는 확인할 수 없다.
+ * => PostService 만 스프링 컨테이너에 올리고, 캐시는 로컬 대역(ConcurrentMapCacheManager)을 사용한다. */
+@SpringJUnitConfig
+public class PostServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(PostService.class)
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.POST_CACHE);
+        }
+
+    }
+
+    @MockBean
+    private PostRepository postRepository;
+
+    @MockBean
+    private ArchivedPostRepository archivedPostRepository;
+
+    @MockBean
+    private PostCountCache postCountCache;
+
+    @MockBean
+    private PostSearchIndex postSearchIndex;
+
+    @MockBean
+    private PostViewCounter postViewCounter;
+
+    @MockBean
+    private PostEventBroadcaster postEventBroadcaster;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Post savedPost;
+
+    @BeforeEach
+    void setup() {
+        cacheManager.getCache(CacheConfig.POST_CACHE).clear();
+        savedPost = new Post(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", null, 0L, null, 0L);
+    }
+
+    @Test
+    @DisplayName("같은 postId 로 두 번 조회하면 DB 는 한 번만 조회하는지 테스트")
+    void read_post_cached() {
+        //given
+        given(postRepository.findById(2L)).willReturn(Optional.of(savedPost));
+
+        //when
+        postService.readPostById(2L);
+        postService.readPostById(2L);
+
+        //then
+        verify(postRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    @DisplayName("게시글을 수정하면 캐시가 지워지고 다시 DB 에서 조회하는지 테스트")
+    void update_post_evicts_cache() {
+        //given
+        given(postRepository.findById(any())).willReturn(Optional.of(savedPost));
+        postService.readPostById(2L);
+
+        //when
+        postService.updatePost(2L, new UpdatePostRequest("변경된 테스트 제목", "변경된 테스트 내용"), null);
+        postService.readPostById(2L);
+
+        //then //조회 1번 + 수정할 때 엔티티 조회 1번 + 캐시가 지워진 뒤 조회 1번
+        verify(postRepository, times(3)).findById(2L);
+    }
+
+}
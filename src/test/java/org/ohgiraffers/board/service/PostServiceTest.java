@@ -10,20 +10,34 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.ohgiraffers.board.domain.dto.*;
 import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ArchivedPostRepository;
 import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +49,21 @@ public class PostServiceTest {
     @Mock
     private PostRepository postRepository;
 
+    @Mock
+    private ArchivedPostRepository archivedPostRepository;
+
+    @Mock
+    private PostCountCache postCountCache;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private PostViewCounter postViewCounter;
+
+    @Mock
+    private PostEventBroadcaster postEventBroadcaster;
+
     /* @InjectMocks
      * Mock 객체가 주입될 클래스를 지정한다.
      * */
@@ -49,8 +78,8 @@ public class PostServiceTest {
     @BeforeEach
     void setup() {
         //초기화
-        post = new Post(1L, "테스트 제목", "테스트 내용");
-        savedPost = new Post(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용");
+        post = new Post(1L, "테스트 제목", "테스트 내용", null, 0L, null, 0L);
+        savedPost = new Post(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", null, 0L, null, 0L);
         createPostRequest = new CreatePostRequest("테스트 제목", "테스트 내용");
         updatePostRequest = new UpdatePostRequest("변경된 테스트 제목", "변경된 테스트 내용");
     }
@@ -105,16 +134,34 @@ public class PostServiceTest {
                 postService.readPostById(1L));
     }
     
+    @Test
+    @DisplayName("post 테이블에 없는 게시글은 보관된 게시글에서 조회하는지 테스트")
+    void read_archived_post() {
+        //given
+        given(postRepository.findById(3L)).willReturn(Optional.empty());
+        given(archivedPostRepository.findResponseById(3L)).willReturn(Optional.of(new ReadPostResponse(3L, "보관된 제목", "보관된 내용", 2L, null)));
+
+        //when
+        ReadPostResponse readPostResponse = postService.readPostById(3L);
+
+        //then
+        assertThat(readPostResponse.getTitle()).isEqualTo("보관된 제목");
+        assertThat(readPostResponse.getVersion()).isEqualTo(2L);
+    }
+
     @Test
     @DisplayName("전체 게시글 조회 기능 테스트")
     void read_all_post() {
         //given
         Pageable pageable = PageRequest.of(0, 5);
-        List<Post> posts = Arrays.asList(post, savedPost); //데이터 를 리스트로 만듬.
+        //DB 에서 바로 DTO 로 조회(프로젝션)하니까 repository 도 ReadPostResponse 를 반환한다.
+        List<ReadPostResponse> posts = Arrays.asList(
+                new ReadPostResponse(1L, "테스트 제목", "테스트 내용", 0L, null),
+                new ReadPostResponse(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", 0L, null)); //데이터 를 리스트로 만듬.
 
-        Page<Post> postPage = new PageImpl<>(posts, pageable, posts.size());
+        Page<ReadPostResponse> postPage = new PageImpl<>(posts, pageable, posts.size());
         
-        given(postRepository.findAll(pageable)).willReturn(postPage);
+        given(postRepository.findAllResponses(pageable)).willReturn(postPage);
         
         //when
         Page<ReadPostResponse> responses = postService.readAllPost(pageable);
@@ -125,48 +172,256 @@ public class PostServiceTest {
         assertThat(responses.getContent().get(0).getContent()).isEqualTo("테스트 내용");
         assertThat(responses.getContent().get(1).getTitle()).isEqualTo("저장되어 있던 테스트 제목");
         assertThat(responses.getContent().get(1).getContent()).isEqualTo("저장되어 있던 테스트 내용");
+        verify(postRepository, never()).findAll(any(Pageable.class));
+
+    }
+
+    @Test
+    @DisplayName("목록 화면용 게시글 요약 조회 기능 테스트")
+    void read_post_summaries() {
+        //given
+        Pageable pageable = PageRequest.of(0, 5);
+        PostSummaryResponse summary = new PostSummaryResponse(1L, "테스트 제목", "테스트 내용 미리보기");
+        given(postRepository.findSummariesBy(pageable)).willReturn(new SliceImpl<>(List.of(summary), pageable, false));
 
+        //when
+        Slice<PostSummaryResponse> responses = postService.readPostSummaries(pageable);
+
+        //then
+        assertThat(responses.getContent()).hasSize(1);
+        assertThat(responses.getContent().get(0).getPreview()).isEqualTo("테스트 내용 미리보기");
     }
 
     @Test
     @DisplayName("게시글 수정 기능 테스트")
     void update_post_service(){
-        //given //service 부분 //postRepository에서 postId로 게시글을 찾을 때, 반환값이 Optional.of(savedPost) 이다. //Optional.of => value 값만!
-        given(postRepository.findById(any())).willReturn(Optional.of(savedPost));
+        //given //service 부분 //엔티티를 조회해서 수정 => commit 할 때 dirty checking 으로 update
+        given(postRepository.findById(savedPost.getPostId())).willReturn(Optional.of(savedPost));
 
         //when //controller 부분 //service에서 postService.updatePost() 기능이 실행되었을 때, updatePostRequest(새로 수정한 입력값)을 updatePostResponse에 변경,저장
-        UpdatePostResponse updatePostResponse = postService.updatePost(savedPost.getPostId(), updatePostRequest);
+        UpdatePostResponse updatePostResponse = postService.updatePost(savedPost.getPostId(), updatePostRequest, null);
 
         //then//수정되고 저장된 값 확인 
         assertThat(updatePostResponse.getPostId()).isEqualTo(savedPost.getPostId());//postId 변했는지 확인
         assertThat(updatePostResponse.getTitle()).isEqualTo("변경된 테스트 제목");
         assertThat(updatePostResponse.getContent()).isEqualTo("변경된 테스트 내용");
+        assertThat(savedPost.getTitle()).isEqualTo("변경된 테스트 제목");
+        assertThat(savedPost.getPreview()).isEqualTo("변경된 테스트 내용");
+        assertThat(savedPost.getUpdatedAt()).isNotNull();
     }
     
     @Test
     @DisplayName("postId로 게시글을 찾지 못했을 때, 지정한 Exception을 발생시키는지 테스트")
     void update_post_by_id() {
-        //given
-        given(postRepository.findById(any())).willReturn(Optional.empty());
+        //given //post, post_archive 모두 없음 => 없는 게시글
+        given(postRepository.findById(2L)).willReturn(Optional.empty());
 
         //when & then
         assertThrows(EntityNotFoundException.class, () ->
-                postService.updatePost(2L, updatePostRequest));
+                postService.updatePost(2L, updatePostRequest, null));
+
+    }
+
+    @Test
+    @DisplayName("If-Match 로 받은 버전과 다르면 OptimisticLockingFailureException, 게시글이 없으면 EntityNotFoundException 을 발생시키는지 테스트")
+    void update_post_with_expected_version() {
+        //given //저장된 게시글의 version 은 0
+        given(postRepository.findById(2L)).willReturn(Optional.of(savedPost));
+        given(postRepository.findById(3L)).willReturn(Optional.empty());
+
+        //when & then //게시글은 있는데 version 이 다름 => 다른 요청이 먼저 수정 (엔티티는 바뀌지 않음)
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                postService.updatePost(2L, updatePostRequest, 1L));
+        assertThat(savedPost.getTitle()).isEqualTo("저장되어 있던 테스트 제목");
+        assertThrows(EntityNotFoundException.class, () ->
+                postService.updatePost(3L, updatePostRequest, 1L));
 
+        //version 이 같으면 수정
+        postService.updatePost(2L, updatePostRequest, 0L);
+        assertThat(savedPost.getTitle()).isEqualTo("변경된 테스트 제목");
     }
     
     @Test
     @DisplayName("게시글 삭제 기능 테스트")
     void delete_post_service() {
         //given
-        given(postRepository.findById(any())).willReturn(Optional.of(savedPost));
+        given(postRepository.findById(savedPost.getPostId())).willReturn(Optional.of(savedPost));
 
         //when
         DeletePostResponse deletePostResponse = postService.deletePost(savedPost.getPostId());
 
-        //then
+        //then //엔티티로 삭제 (JPQL delete 는 2차 캐시의 Post 영역 전체를 비움)
         assertThat(deletePostResponse.getPostId()).isEqualTo(2L);
+        verify(postRepository).delete(savedPost);
 
     }
-    
+
+    @Test
+    @DisplayName("보관된 게시글은 삭제되고, 수정하면 ArchivedPostException 을 발생시키는지 테스트")
+    void archived_post_delete_and_update() {
+        //given //post 테이블에는 없고 보관된 게시글에만 있음
+        given(postRepository.findById(any())).willReturn(Optional.empty());
+        given(archivedPostRepository.deleteDirectlyById(3L)).willReturn(1);
+        given(archivedPostRepository.existsById(4L)).willReturn(true);
+
+        //when & then
+        assertThat(postService.deletePost(3L).getPostId()).isEqualTo(3L);
+        verify(postCountCache, never()).decrementAfterCommit(anyLong());
+        assertThrows(ArchivedPostException.class, () -> postService.updatePost(4L, updatePostRequest, null));
+    }
+
+    @Test
+    @DisplayName("삭제할 게시글을 찾지 못했을 때, 지정한 Exception을 발생시키는지 테스트")
+    void delete_post_by_id() {
+        //given
+        given(postRepository.findById(any())).willReturn(Optional.empty());
+
+        //when & then
+        assertThrows(EntityNotFoundException.class, () ->
+                postService.deletePost(2L));
+
+    }
+
+    @Test
+    @DisplayName("커서 기반 게시글 조회 기능 테스트")
+    void read_posts_after() {
+        //given //첫 페이지 : 커서가 없으면 Long.MAX_VALUE 부터 조회
+        Pageable pageable = PageRequest.of(0, 2);
+        given(postRepository.findByCursor(eq(Long.MAX_VALUE), any()))
+                .willReturn(new SliceImpl<>(Arrays.asList(
+                        new ListPostResponse(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용", 0L, null),
+                        new ListPostResponse(1L, "테스트 제목", "테스트 내용", 0L, null)), pageable, true));
+
+        //when
+        CursorPostResponse firstPage = postService.readPostsAfter("", 2);
+
+        //then
+        assertThat(firstPage.getPosts()).hasSize(2);
+        assertThat(firstPage.isHasNext()).isTrue();
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        //given //두 번째 페이지 : 마지막 postId(1L) 보다 작은 게시글 조회
+        given(postRepository.findByCursor(eq(1L), any()))
+                .willReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        //when
+        CursorPostResponse secondPage = postService.readPostsAfter(firstPage.getNextCursor(), 2);
+
+        //then
+        assertThat(secondPage.getPosts()).isEmpty();
+        assertThat(secondPage.isHasNext()).isFalse();
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("올바르지 않은 커서로 조회했을 때, InvalidRequestException 을 발생시키는지 테스트")
+    void read_posts_after_invalid_cursor() {
+        //when & then
+        assertThrows(InvalidRequestException.class, () ->
+                postService.readPostsAfter("not-a-cursor", 5));
+    }
+
+    @Test
+    @DisplayName("count 쿼리 없이 전체 게시글 조회 기능 테스트")
+    void read_all_post_slice() {
+        //given
+        Pageable pageable = PageRequest.of(0, 1);
+        given(postRepository.findSliceBy(pageable))
+                .willReturn(new SliceImpl<>(List.of(new ListPostResponse(1L, "테스트 제목", "테스트 내용", 0L, null)), pageable, true));
+
+        //when
+        Slice<ListPostResponse> responses = postService.readAllPostSlice(pageable);
+
+        //then //count 쿼리(findAll(pageable))는 실행되지 않아야 한다.
+        assertThat(responses.getContent()).hasSize(1);
+        assertThat(responses.hasNext()).isTrue();
+        verify(postRepository, never()).findAll(any(Pageable.class));
+        verify(postRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("게시글 등록/삭제 시 캐시된 게시글 수가 갱신되는지 테스트")
+    void post_count_cache_updated() {
+        //given
+        given(postRepository.save(any())).willReturn(post);
+        given(postRepository.findById(savedPost.getPostId())).willReturn(Optional.of(savedPost));
+
+        //when
+        postService.createPost(createPostRequest);
+        postService.deletePost(savedPost.getPostId());
+
+        //then
+        verify(postCountCache).incrementAfterCommit(1);
+        verify(postCountCache).decrementAfterCommit(1);
+    }
+
+    @Test
+    @DisplayName("게시글 검색 시 검색 점수 순서대로 요약을 돌려주는지 테스트")
+    void search_posts() {
+        //given //색인에서는 2L, 1L 순서로 찾았지만 DB 는 순서 없이 돌려줌
+        Pageable pageable = PageRequest.of(0, 5);
+        given(postSearchIndex.search("테스트", 0, 5))
+                .willReturn(new PostSearchIndex.SearchResult(List.of(2L, 1L), 2));
+        given(postRepository.findSummariesByPostIdIn(List.of(2L, 1L))).willReturn(List.of(
+                new PostSummaryResponse(1L, "테스트 제목", "테스트 내용"),
+                new PostSummaryResponse(2L, "저장되어 있던 테스트 제목", "저장되어 있던 테스트 내용")));
+
+        //when
+        Page<PostSummaryResponse> responses = postService.searchPosts("테스트", pageable);
+
+        //then
+        assertThat(responses.getTotalElements()).isEqualTo(2);
+        assertThat(responses.getContent()).extracting(PostSummaryResponse::getPostId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("검색어가 비어있으면 InvalidRequestException 을 발생시키는지 테스트")
+    void search_posts_blank_query() {
+        //when & then
+        assertThrows(InvalidRequestException.class, () ->
+                postService.searchPosts(" ", PageRequest.of(0, 5)));
+    }
+
+    @Test
+    @DisplayName("인기 글을 조회수 순서대로 조회하고, 삭제된 게시글은 빼는지 테스트")
+    void read_popular_posts() {
+        //given //3번 게시글은 삭제됨
+        given(postViewCounter.top(3)).willReturn(List.of(Map.entry(2L, 30L), Map.entry(3L, 20L), Map.entry(1L, 10L)));
+        given(postRepository.findSummariesByPostIdIn(List.of(2L, 3L, 1L))).willReturn(List.of(
+                new PostSummaryResponse(1L, "제목1", "내용1"),
+                new PostSummaryResponse(2L, "제목2", "내용2")
+        ));
+
+        //when
+        List<PopularPostResponse> responses = postService.readPopularPosts(3);
+
+        //then
+        assertThat(responses).extracting(PopularPostResponse::getPostId).containsExactly(2L, 1L);
+        assertThat(responses).extracting(PopularPostResponse::getViews).containsExactly(30L, 10L);
+        assertThrows(InvalidRequestException.class, () -> postService.readPopularPosts(PostService.MAX_POPULAR_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("보관된 게시글까지 모든 게시글을 한 건씩 내보내고, 다 읽은 뒤 Stream 을 닫는지 테스트")
+    void export_posts() {
+        //given
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<ReadPostResponse> posts = Stream.of(
+                new ReadPostResponse(1L, "제목1", "내용1", 0L, null),
+                new ReadPostResponse(2L, "제목2", "내용2", 0L, null)
+        ).onClose(() -> closed.set(true));
+        given(postRepository.streamAllForExport()).willReturn(posts);
+        given(archivedPostRepository.streamAllForExport()).willReturn(Stream.of(new ReadPostResponse(0L, "보관된 제목", "내용", 0L, null)));
+
+        List<ReadPostResponse> exported = new ArrayList<>();
+
+        //when
+        long count = postService.exportPosts(exported::add);
+
+        //then
+        assertThat(count).isEqualTo(3);
+        assertThat(exported).extracting(ReadPostResponse::getPostId).containsExactly(0L, 1L, 2L);
+        assertThat(closed).isTrue();
+    }
+
 }
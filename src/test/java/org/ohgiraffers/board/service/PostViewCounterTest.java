@@ -0,0 +1,155 @@
+package org.ohgiraffers.board.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/* 조회수를 실제로 DB 에 더하는지 메모리 DB(H2)의 post 테이블로 확인한다. */
+public class PostViewCounterTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private PostViewCounter postViewCounter;
+
+    @BeforeEach
+    void setup() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table post (post_id bigint primary key, view_count bigint not null)");
+        for (long postId = 1; postId <= 5; postId++) {
+            jdbcTemplate.update("insert into post values (?, 0)", postId);
+        }
+
+        postViewCounter = new PostViewCounter(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)));
+        ReflectionTestUtils.setField(postViewCounter, "flushBatchSize", 2);
+        ReflectionTestUtils.setField(postViewCounter, "topKCapacity", 3);
+        postViewCounter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 센 조회수를 한 번에 모아서 DB 에 더하는지 테스트")
+    void flush_aggregated_views() throws InterruptedException {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            long postId = i % 2 == 0 ? 1L : 2L;
+            executor.execute(() -> postViewCounter.increment(postId));
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        //when
+        postViewCounter.flush();
+        postViewCounter.increment(1L);
+        postViewCounter.flush();
+
+        //then
+        assertThat(viewCount(1L)).isEqualTo(501);
+        assertThat(viewCount(2L)).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("조회하는 동안 계속 저장(flush)해도 빠지는 조회수 없이 정확히 더하는지 테스트")
+    void flush_while_counting() throws Exception {
+        //given //조회가 띄엄띄엄 들어와서 저장할 때마다 비워지는(evict) 게시글이 계속 생긴다.
+        int threads = 8;
+        int viewsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> counting = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            counting.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < viewsPerThread; i++) {
+                    postViewCounter.increment((long) (i % 5) + 1);
+                }
+                return null;
+            }));
+        }
+
+        //when
+        start.countDown();
+        while (counting.stream().anyMatch(future -> !future.isDone())) {
+            postViewCounter.flush();
+        }
+        for (Future<?> future : counting) {
+            future.get();
+        }
+        executor.shutdown();
+        postViewCounter.flush();
+
+        //then
+        for (long postId = 1; postId <= 5; postId++) {
+            assertThat(viewCount(postId)).isEqualTo(threads * viewsPerThread / 5);
+        }
+    }
+
+    @Test
+    @DisplayName("저장에 실패한 조회수는 다음 저장 때 다시 더하는지 테스트")
+    void retry_failed_flush() {
+        //given //잠깐 테이블 이름이 바뀌어서 update 가 실패한다.
+        postViewCounter.increment(3L);
+        jdbcTemplate.execute("alter table post rename to post_moved");
+        postViewCounter.flush();
+        jdbcTemplate.execute("alter table post_moved rename to post");
+
+        //when
+        postViewCounter.increment(3L);
+        postViewCounter.flush();
+
+        //then
+        assertThat(viewCount(3L)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("조회수가 많은 게시글 순으로 인기 글을 돌려주는지 테스트")
+    void top_posts() {
+        //given //후보는 3개까지만 들고 있는다.
+        views(1L, 50);
+        views(2L, 10);
+        views(3L, 30);
+        postViewCounter.flush();
+        views(4L, 1);
+        views(5L, 40);
+        postViewCounter.flush();
+
+        //when & then //가장 적은 2번 자리를 4번이, 그 다음 적은 4번(11) 자리를 5번이 이어받는다.
+        assertThat(postViewCounter.top(2)).extracting(Map.Entry::getKey).containsExactly(5L, 1L);
+        assertThat(postViewCounter.top(10)).extracting(Map.Entry::getKey).containsExactly(5L, 1L, 3L);
+    }
+
+    private void views(Long postId, int count) {
+        for (int i = 0; i < count; i++) {
+            postViewCounter.increment(postId);
+        }
+    }
+
+    private long viewCount(Long postId) {
+        return jdbcTemplate.queryForObject("select view_count from post where post_id = ?", Long.class, postId);
+    }
+
+}
@@ -0,0 +1,172 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.CreatePostResponse;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.repository.PostRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PostWriteBehindServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Mock
+    private PostBatchService postBatchService;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private PostWriteBehindService service;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("게시글을 받으면 postId 를 미리 만들어 돌려주고, 저장 스레드가 그 ID 그대로 저장하는지 테스트")
+    void accept_then_write_behind() throws Exception {
+        //given
+        start(10);
+
+        //when
+        CreatePostResponse response = service.accept(new CreatePostRequest("제목", "내용"));
+
+        //then
+        ArgumentCaptor<List<Post>> saved = ArgumentCaptor.forClass(List.class);
+        verify(postBatchService, timeout(2000)).persistPosts(saved.capture());
+        assertThat(response.getPostId()).isNotNull();
+        assertThat(saved.getValue()).extracting(Post::getPostId).containsExactly(response.getPostId());
+    }
+
+    @Test
+    @DisplayName("저장 대기열이 가득 차면 거절하는지 테스트")
+    void reject_when_queue_is_full() throws Exception {
+        //given //저장 스레드가 첫 게시글을 저장하는 중에 멈춰 있다.
+        Object block = new Object();
+        willAnswer(invocation -> {
+            synchronized (block) {
+                block.wait(2000);
+            }
+            return List.of();
+        }).given(postBatchService).persistPosts(anyList());
+        start(1);
+        service.accept(new CreatePostRequest("제목1", "내용1"));
+
+        //when & then
+        assertThrows(RejectedExecutionException.class, () -> service.accept(new CreatePostRequest("제목2", "내용2")));
+        synchronized (block) {
+            block.notifyAll();
+        }
+    }
+
+    @Test
+    @DisplayName("저널 fsync 에 실패해도 202 로 응답하고 한 번만 저장하는지 테스트")
+    void accept_when_journal_sync_fails() throws Exception {
+        //given
+        start(10);
+        PostWriteJournal journal = spy((PostWriteJournal) ReflectionTestUtils.getField(service, "journal"));
+        willThrow(new IOException("fsync 실패")).given(journal).sync(anyLong());
+        ReflectionTestUtils.setField(service, "journal", journal);
+
+        //when //예외 없이 postId 를 돌려준다. (에러를 응답하면 클라이언트가 다시 보내서 두 번 저장됨)
+        CreatePostResponse response = service.accept(new CreatePostRequest("제목", "내용"));
+
+        //then
+        ArgumentCaptor<List<Post>> saved = ArgumentCaptor.forClass(List.class);
+        verify(postBatchService, timeout(2000)).persistPosts(saved.capture());
+        assertThat(saved.getValue()).extracting(Post::getPostId).containsExactly(response.getPostId());
+    }
+
+    @Test
+    @DisplayName("다시 시작할 때 저널에 남은 게시글 중 아직 저장되지 않은 것만 저장하는지 테스트")
+    void replay_journal_on_start() throws Exception {
+        //given //죽기 전에 1번은 저장됐고 2번은 저장되지 않았다.
+        try (PostWriteJournal journal = new PostWriteJournal(journalDir, false, objectMapper)) {
+            journal.append(new PostWriteJournal.Entry(1L, "제목1", "내용1", Instant.now()));
+            journal.append(new PostWriteJournal.Entry(2L, "제목2", "내용2", Instant.now()));
+        }
+        given(postRepository.findExistingIds(anyCollection())).willReturn(List.of(1L));
+
+        //when
+        start(10);
+
+        //then //저장이 끝나면 저널 파일도 지워진다.
+        ArgumentCaptor<List<Post>> saved = ArgumentCaptor.forClass(List.class);
+        verify(postBatchService, timeout(2000)).persistPosts(saved.capture());
+        assertThat(saved.getValue()).extracting(Post::getPostId).containsExactly(2L);
+        service.stop();
+        service = null;
+        try (var files = Files.list(journalDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("새로 받은 게시글은 이미 저장됐는지 확인하지 않는지 테스트")
+    void new_posts_skip_existence_check() throws Exception {
+        //given
+        start(10);
+
+        //when
+        service.accept(new CreatePostRequest("제목", "내용"));
+
+        //then
+        verify(postBatchService, timeout(2000)).persistPosts(anyList());
+        verify(postRepository, never()).findExistingIds(anyCollection());
+    }
+
+    private void start(int queueCapacity) throws Exception {
+        service = new PostWriteBehindService(postBatchService, postRepository, new TransactionTemplate(transactionManager),
+                objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "journalDir", journalDir);
+        ReflectionTestUtils.setField(service, "shutdownTimeout", Duration.ofSeconds(5));
+        service.start();
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.ohgiraffers.board.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostWriteJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("다시 시작할 때 저널에 남은 게시글을 순서대로 읽고, 깨진 줄은 건너뛰는지 테스트")
+    void recover_skips_torn_line() throws IOException {
+        //given //두 건 기록 후 세 번째 줄을 쓰다가 죽은 상황
+        try (PostWriteJournal journal = new PostWriteJournal(directory, false, objectMapper)) {
+            journal.append(entry(1L));
+            journal.append(entry(2L));
+        }
+        Files.writeString(segments().get(0), "{\"postId\":3,\"tit", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        //when
+        List<PostWriteJournal.Entry> recovered;
+        try (PostWriteJournal journal = new PostWriteJournal(directory, false, objectMapper)) {
+            recovered = journal.recover();
+        }
+
+        //then
+        assertThat(recovered).extracting(PostWriteJournal.Entry::getPostId).containsExactly(1L, 2L);
+        assertThat(recovered).allMatch(PostWriteJournal.Entry::isReplayed);
+    }
+
+    @Test
+    @DisplayName("commit 된 순번까지만 들어있는 저널 파일을 지우는지 테스트")
+    void mark_committed_deletes_segments() throws IOException {
+        try (PostWriteJournal journal = new PostWriteJournal(directory, true, objectMapper)) {
+            //given
+            long first = journal.append(entry(1L));
+            long second = journal.append(entry(2L));
+
+            //when & then //두 번째 항목이 아직 저장되지 않았으면 파일을 남긴다.
+            journal.markCommitted(first);
+            assertThat(segments()).hasSize(1);
+
+            journal.markCommitted(second);
+            assertThat(segments()).isEmpty();
+
+            //다음 항목은 새 파일에 쓴다.
+            journal.append(entry(3L));
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("다시 시작한 뒤에 받은 게시글은 이전 실행의 저널을 지울 때 같이 지워지지 않는지 테스트")
+    void new_entries_survive_replayed_segment_delete() throws IOException {
+        //given //첫 실행 : 두 건은 저장되어 파일이 지워지고, 다음 두 건(새 파일)은 저장 전에 죽음
+        try (PostWriteJournal journal = new PostWriteJournal(directory, false, objectMapper)) {
+            journal.append(entry(1L));
+            journal.markCommitted(journal.append(entry(2L)));
+            journal.append(entry(3L));
+            journal.append(entry(4L));
+        }
+
+        //when //두 번째 실행 : 남은 두 건을 다시 저장하는 사이에 새 게시글(100)을 받고, 저장되기 전에 또 죽음
+        try (PostWriteJournal journal = new PostWriteJournal(directory, false, objectMapper)) {
+            List<PostWriteJournal.Entry> replayed = journal.recover();
+            journal.append(entry(100L));
+            journal.markCommitted(replayed.get(replayed.size() - 1).getSeq());
+        }
+
+        //then //세 번째 실행에서 100 을 다시 읽는다.
+        List<PostWriteJournal.Entry> recovered;
+        try (PostWriteJournal journal = new PostWriteJournal(directory, false, objectMapper)) {
+            recovered = journal.recover();
+        }
+        assertThat(recovered).extracting(PostWriteJournal.Entry::getPostId).containsExactly(100L);
+    }
+
+    private PostWriteJournal.Entry entry(Long postId) {
+        return new PostWriteJournal.Entry(postId, "제목" + postId, "내용" + postId, Instant.now());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PostWriteJournal.SEGMENT_PREFIX)).sorted().toList();
+        }
+    }
+
+}
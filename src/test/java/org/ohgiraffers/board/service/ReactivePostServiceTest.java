@@ -0,0 +1,261 @@
+package org.ohgiraffers.board.service;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ohgiraffers.board.domain.dto.CreatePostRequest;
+import org.ohgiraffers.board.domain.dto.CreatePostResponse;
+import org.ohgiraffers.board.domain.dto.ListPostResponse;
+import org.ohgiraffers.board.domain.dto.PostEvent;
+import org.ohgiraffers.board.domain.dto.PostSummaryResponse;
+import org.ohgiraffers.board.domain.dto.ReadPostResponse;
+import org.ohgiraffers.board.domain.dto.UpdatePostRequest;
+import org.ohgiraffers.board.domain.entity.Post;
+import org.ohgiraffers.board.exception.ArchivedPostException;
+import org.ohgiraffers.board.exception.InvalidRequestException;
+import org.ohgiraffers.board.repository.ReactivePostRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/* R2DBC 메모리 DB(H2)의 post 테이블로 리액티브 저장소/서비스를 확인한다.
+ * StepVerifier : Mono/Flux 를 구독해서 나오는 값과 완료/에러를 순서대로 확인한다. */
+public class ReactivePostServiceTest {
+
+    private ConnectionFactory connectionFactory;
+    private PostSearchIndex postSearchIndex;
+    private PostViewCounter postViewCounter;
+    private PostCountCache postCountCache;
+    private PostEventBroadcaster postEventBroadcaster;
+    private ReactivePostService reactivePostService;
+
+    @BeforeEach
+    void setup() {
+        //쿼리마다 커넥션을 새로 열었다 닫으므로, 마지막 커넥션이 닫혀도 DB 가 지워지지 않게 한다. (DB_CLOSE_DELAY=-1)
+        connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        execute("create table post (post_id bigint primary key, title varchar(255), content blob, preview varchar(100),"
+                + " version bigint, updated_at timestamp(6) with time zone, view_count bigint not null)");
+        execute("create table post_archive (post_id bigint primary key, title varchar(255), content blob, preview varchar(100),"
+                + " version bigint, updated_at timestamp(6) with time zone, view_count bigint not null, archived_at timestamp(6) with time zone)");
+
+        postSearchIndex = mock(PostSearchIndex.class);
+        postViewCounter = mock(PostViewCounter.class);
+        postCountCache = mock(PostCountCache.class);
+        postEventBroadcaster = mock(PostEventBroadcaster.class);
+        reactivePostService = new ReactivePostService(new ReactivePostRepository(connectionFactory), postSearchIndex, postViewCounter,
+                postCountCache, postEventBroadcaster);
+        ReflectionTestUtils.setField(reactivePostService, "workerId", 1L);
+        reactivePostService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        execute("shutdown");
+    }
+
+    @Test
+    @DisplayName("게시글을 등록하고 같은 postId 로 다시 조회되는지 테스트")
+    void create_and_read_post() {
+        //given //긴 내용은 압축해서 저장된다.
+        String content = "리액티브 게시글 내용 ".repeat(200);
+        //검색 색인은 블로킹 락을 쓰므로 boundedElastic 스레드에서 반영되어야 한다.
+        AtomicReference<String> indexThread = new AtomicReference<>();
+        willAnswer(invocation -> {
+            indexThread.set(Thread.currentThread().getName());
+            return null;
+        }).given(postSearchIndex).index(anyLong(), anyString(), anyString());
+
+        //when
+        CreatePostResponse created = reactivePostService.createPost(new CreatePostRequest("리액티브 제목", content)).block();
+
+        //then
+        StepVerifier.create(reactivePostService.readPostById(created.getPostId()))
+                .assertNext(post -> {
+                    assertThat(post.getTitle()).isEqualTo("리액티브 제목");
+                    assertThat(post.getContent()).isEqualTo(content);
+                    assertThat(post.getVersion()).isZero();
+                    assertThat(post.getUpdatedAt()).isNotNull();
+                })
+                .verifyComplete();
+        verify(postSearchIndex).index(created.getPostId(), "리액티브 제목", content);
+        assertThat(indexThread.get()).startsWith("boundedElastic");
+        verify(postCountCache).increment(1);
+        verify(postEventBroadcaster).publish(PostEvent.Type.CREATED, created.getPostId(), "리액티브 제목", Post.previewOf(content));
+    }
+
+    @Test
+    @DisplayName("수정/삭제하면 PostService 와 같이 검색 색인, 게시글 수, 변경 이벤트에 반영되는지 테스트")
+    void update_and_delete_post_hooks() {
+        //given
+        Long postId = reactivePostService.createPost(new CreatePostRequest("원래 제목", "원래 내용")).block().getPostId();
+        given(postCountCache.get()).willReturn(1L);
+
+        //when
+        reactivePostService.updatePost(postId, new UpdatePostRequest("변경된 제목", "변경된 내용"), null).block();
+        reactivePostService.deletePost(postId).block();
+
+        //then
+        verify(postSearchIndex).index(postId, "변경된 제목", "변경된 내용");
+        verify(postEventBroadcaster).publish(PostEvent.Type.UPDATED, postId, "변경된 제목", Post.previewOf("변경된 내용"));
+        verify(postSearchIndex).remove(postId);
+        verify(postCountCache).decrement(1);
+        verify(postEventBroadcaster).publish(PostEvent.Type.DELETED, postId, null, null);
+        StepVerifier.create(reactivePostService.readPostCount())
+                .assertNext(count -> assertThat(count.getTotalCount()).isEqualTo(1L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("없는 게시글을 조회/수정/삭제하면 EntityNotFoundException 이 발생하는지 테스트")
+    void post_not_found() {
+        //when & then
+        StepVerifier.create(reactivePostService.readPostById(404L)).verifyError(EntityNotFoundException.class);
+        StepVerifier.create(reactivePostService.updatePost(404L, new UpdatePostRequest("제목", "내용"), null))
+                .verifyError(EntityNotFoundException.class);
+        StepVerifier.create(reactivePostService.updatePost(404L, new UpdatePostRequest("제목", "내용"), 0L))
+                .verifyError(EntityNotFoundException.class);
+        StepVerifier.create(reactivePostService.deletePost(404L)).verifyError(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("If-Match 버전이 맞을 때만 수정되고, 다르면 OptimisticLockingFailureException 이 발생하는지 테스트")
+    void update_post_if_version() {
+        //given
+        Long postId = reactivePostService.createPost(new CreatePostRequest("원래 제목", "원래 내용")).block().getPostId();
+
+        //when
+        reactivePostService.updatePost(postId, new UpdatePostRequest("변경된 제목", "변경된 내용"), 0L).block();
+
+        //then //같은 version(0)으로 한 번 더 수정하면 충돌
+        StepVerifier.create(reactivePostService.updatePost(postId, new UpdatePostRequest("늦은 제목", "늦은 내용"), 0L))
+                .verifyError(OptimisticLockingFailureException.class);
+        StepVerifier.create(reactivePostService.readPostById(postId))
+                .assertNext(post -> {
+                    assertThat(post.getTitle()).isEqualTo("변경된 제목");
+                    assertThat(post.getVersion()).isEqualTo(1L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("페이지/커서/요약 목록이 postId 내림차순으로 나뉘어 조회되는지 테스트")
+    void read_posts_in_pages() {
+        //given
+        List<Long> postIds = Flux.range(1, 7)
+                .concatMap(i -> reactivePostService.createPost(new CreatePostRequest("제목" + i, "내용" + i)))
+                .map(CreatePostResponse::getPostId)
+                .collectList().block();
+        PageRequest firstPage = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "postId"));
+
+        //when & then
+        StepVerifier.create(reactivePostService.readAllPost(firstPage))
+                .assertNext(page -> {
+                    assertThat(page.getTotalElements()).isEqualTo(7);
+                    assertThat(page.getContent()).extracting(ReadPostResponse::getPostId)
+                            .containsExactly(postIds.get(6), postIds.get(5), postIds.get(4));
+                    assertThat(page.getContent().get(0).getContent()).isEqualTo("내용7");
+                })
+                .verifyComplete();
+
+        StepVerifier.create(reactivePostService.readPostsAfter("", 3)
+                        .flatMap(first -> reactivePostService.readPostsAfter(first.getNextCursor(), 3))
+                        .flatMap(second -> reactivePostService.readPostsAfter(second.getNextCursor(), 3)))
+                .assertNext(third -> {
+                    assertThat(third.getPosts()).extracting(ListPostResponse::getPostId).containsExactly(postIds.get(0));
+                    assertThat(third.isHasNext()).isFalse();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(reactivePostService.readPostSummaries(PageRequest.of(2, 3, Sort.by(Sort.Direction.DESC, "postId"))))
+                .assertNext(slice -> {
+                    assertThat(slice.getContent()).extracting(PostSummaryResponse::getPostId).containsExactly(postIds.get(0));
+                    assertThat(slice.hasNext()).isFalse();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("인기 글은 조회수 순서대로, 삭제된 게시글은 빼고 조회되는지 테스트")
+    void read_popular_posts() {
+        //given
+        Long first = reactivePostService.createPost(new CreatePostRequest("인기 글", "내용")).block().getPostId();
+        Long second = reactivePostService.createPost(new CreatePostRequest("삭제될 글", "내용")).block().getPostId();
+        Long third = reactivePostService.createPost(new CreatePostRequest("두 번째 인기 글", "내용")).block().getPostId();
+        reactivePostService.deletePost(second).block();
+        given(postViewCounter.top(anyInt())).willReturn(List.of(Map.entry(first, 30L), Map.entry(second, 20L), Map.entry(third, 10L)));
+
+        //when & then
+        StepVerifier.create(reactivePostService.readPopularPosts(3))
+                .assertNext(popular -> assertThat(popular).extracting("postId", "views")
+                        .containsExactly(tuple(first, 30L), tuple(third, 10L)))
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.readPopularPosts(0)).verifyError(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("보관된 게시글도 조회/검색/삭제되고, 수정하면 ArchivedPostException 이 발생하는지 테스트")
+    void archived_post() {
+        //given //PostArchiveService 와 같은 방식으로 post_archive 로 옮긴다.
+        Long postId = reactivePostService.createPost(new CreatePostRequest("보관될 제목", "보관될 내용")).block().getPostId();
+        execute("insert into post_archive select post_id, title, content, preview, version, updated_at, view_count, current_timestamp"
+                + " from post where post_id = " + postId);
+        execute("delete from post where post_id = " + postId);
+        given(postSearchIndex.search("보관", 0, 10)).willReturn(new PostSearchIndex.SearchResult(List.of(postId), 1));
+
+        //when & then //보관된 목록에는 나오고, 최근 게시글 목록에는 나오지 않는다.
+        StepVerifier.create(reactivePostService.readArchivedPosts(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "postId"))))
+                .assertNext(slice -> assertThat(slice.getContent()).extracting(PostSummaryResponse::getPostId).containsExactly(postId))
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.readPostSummaries(PageRequest.of(0, 10)))
+                .assertNext(slice -> assertThat(slice.getContent()).isEmpty())
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.searchPosts("보관", PageRequest.of(0, 10)))
+                .assertNext(page -> assertThat(page.getContent()).extracting(PostSummaryResponse::getTitle).containsExactly("보관될 제목"))
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.readPostById(postId))
+                .assertNext(post -> assertThat(post.getContent()).isEqualTo("보관될 내용"))
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.updatePost(postId, new UpdatePostRequest("제목", "내용"), 0L))
+                .verifyError(ArchivedPostException.class);
+        StepVerifier.create(reactivePostService.exportPosts().map(ReadPostResponse::getPostId).collectList())
+                .assertNext(postIds -> assertThat(postIds).contains(postId))
+                .verifyComplete();
+        StepVerifier.create(reactivePostService.deletePost(postId)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(reactivePostService.readPostById(postId)).verifyError(EntityNotFoundException.class);
+        //보관된 게시글은 게시글 수에 세지 않으므로 빼지 않는다.
+        verify(postCountCache, never()).decrement(anyLong());
+    }
+
+    private void execute(String sql) {
+        Mono.usingWhen(connectionFactory.create(),
+                connection -> Flux.from(connection.createStatement(sql).execute()).flatMap(Result::getRowsUpdated).then(),
+                Connection::close).block();
+    }
+
+}